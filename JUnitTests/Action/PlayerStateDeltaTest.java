@@ -0,0 +1,59 @@
+package Action;
+
+import Game.Cards.CardType;
+import Game.Usable.ResourceType;
+import Game.UserObjects.FamilyColor;
+import Game.UserObjects.PlayerState;
+import Model.FakeUser;
+import Networking.FakeLink;
+import Networking.Gson.GsonUtils;
+import Server.Game.Cards.SplitDeck;
+import Server.Game.GameHelper;
+import Server.Game.UserObjects.GameUser;
+import org.junit.Assert;
+import org.junit.Test;
+import java.util.Collections;
+
+/**
+ * Tests for player state deltas.
+ */
+public class PlayerStateDeltaTest {
+
+    private final GameUser gameUser = new GameUser(new FakeUser(new FakeLink()), FamilyColor.Green);
+
+    @Test
+    public void applyDelta() throws Exception {
+        final PlayerState previous = GameHelper.getInstance().getInitialPS(gameUser, 0);
+        final PlayerState current = previous.clone();
+
+        current.setResources(Collections.singletonMap(ResourceType.Gold, 12), false);
+        current.setPenalty(ResourceType.Rock, 1);
+        current.setCostBonus(CardType.Building, ResourceType.Wood, 2);
+        current.addCard(new SplitDeck().getCardPerTurn(1).get(CardType.Building).get(0));
+
+        final PlayerStateDelta delta = new PlayerStateDelta("FakeUser", previous, current, 2);
+
+        // Client side: both messages go through json
+        final PlayerState received = ((PlayerStateUpdate) GsonUtils.fromGson(GsonUtils.toGson(new PlayerStateUpdate("FakeUser", previous, 1)))).getUpdatedState();
+        final PlayerStateDelta receivedDelta = (PlayerStateDelta) GsonUtils.fromGson(GsonUtils.toGson(delta));
+
+        final PlayerState patched = receivedDelta.applyTo(received);
+
+        Assert.assertEquals(2, receivedDelta.getVersion());
+        Assert.assertEquals(GsonUtils.toGson(new PlayerStateUpdate("FakeUser", current, 2)),
+                GsonUtils.toGson(new PlayerStateUpdate("FakeUser", patched, 2)));
+    }
+
+    @Test
+    public void deltaIsSmaller() throws Exception {
+        final PlayerState previous = GameHelper.getInstance().getInitialPS(gameUser, 0);
+        final PlayerState current = previous.clone();
+
+        current.setResources(Collections.singletonMap(ResourceType.Gold, 12), false);
+
+        final String delta = GsonUtils.toGson(new PlayerStateDelta("FakeUser", previous, current, 2));
+        final String snapshot = GsonUtils.toGson(new PlayerStateUpdate("FakeUser", current, 2));
+
+        Assert.assertTrue(delta.length() * 3 < snapshot.length());
+    }
+}
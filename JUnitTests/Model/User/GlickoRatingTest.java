@@ -0,0 +1,45 @@
+package Model.User;
+
+import org.junit.Assert;
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests for multiplayer Glicko rating update.
+ */
+public class GlickoRatingTest {
+
+    @Test
+    public void referenceExample() throws Exception {
+        // Example from Glickman's paper: 1500/200 player against 1400/30 (win), 1550/100 and 1700/300 (losses)
+        final double[] rated = GlickoRating.rate(1500, 200, Arrays.asList(
+                new double[] { 1400, 30, 1 },
+                new double[] { 1550, 100, 0 },
+                new double[] { 1700, 300, 0 }));
+
+        Assert.assertEquals(1464, rated[0], 1);
+        Assert.assertEquals(151.4, rated[1], 0.5);
+    }
+
+    @Test
+    public void winnerGainsWhatLoserLoses() throws Exception {
+        final User winner = new User("Winner", 0, 0, 0);
+        final User loser = new User("Loser", 0, 0, 0);
+        final User drawn = new User("Drawn", 0, 0, 0);
+
+        final Map<User, Integer> finalPoints = new HashMap<>();
+        finalPoints.put(winner, 40);
+        finalPoints.put(loser, 10);
+        finalPoints.put(drawn, 25);
+
+        GlickoRating.update(finalPoints);
+
+        Assert.assertTrue(winner.getRating() > GlickoRating.INITIAL_RATING);
+        Assert.assertTrue(loser.getRating() < GlickoRating.INITIAL_RATING);
+        Assert.assertEquals(GlickoRating.INITIAL_RATING, drawn.getRating(), 0.001);
+        Assert.assertEquals(winner.getRating() - GlickoRating.INITIAL_RATING, GlickoRating.INITIAL_RATING - loser.getRating(), 0.001);
+        Assert.assertTrue(winner.getRatingDeviation() < GlickoRating.INITIAL_DEVIATION);
+    }
+}
@@ -0,0 +1,82 @@
+package Model;
+
+import Model.User.User;
+import Server.Networking.SQL.FakeDatabase;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for write-behind user cache flush and eviction.
+ */
+public class UserCacheTest {
+
+    private FakeDatabase database;
+
+    private UserCache cache;
+
+    @Before
+    public void before() {
+        database = new FakeDatabase();
+        cache = new UserCache(database, 2, 60000, 100);
+    }
+
+    @Test
+    public void coalesceUpdates() throws Exception {
+        final User user = new User("TestUser", 0, 0, 0);
+
+        user.incrementWins();
+        cache.markDirty(user);
+        user.incrementWins();
+        cache.markDirty(user);
+
+        Assert.assertTrue(database.batches.isEmpty());
+
+        cache.flush();
+
+        // Both updates saved with a single row holding latest values
+        Assert.assertEquals(1, database.batches.size());
+        Assert.assertEquals(1, database.batches.get(0).size());
+        Assert.assertEquals(2, database.batches.get(0).get(0)[2]);
+
+        // Nothing left to save
+        cache.flush();
+        Assert.assertEquals(1, database.batches.size());
+    }
+
+    @Test
+    public void retryOnFailure() throws Exception {
+        cache.markDirty(new User("TestUser", 0, 0, 0));
+
+        database.fail = true;
+        cache.flush();
+        Assert.assertTrue(database.batches.isEmpty());
+
+        database.fail = false;
+        cache.flush();
+        Assert.assertEquals(1, database.batches.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws Exception {
+        cache.put(new User("First", 0, 0, 0));
+        cache.put(new User("Second", 0, 0, 0));
+
+        // Access first user so second one is the least recently used
+        Assert.assertNotNull(cache.get("First"));
+
+        cache.put(new User("Third", 0, 0, 0));
+
+        Assert.assertNotNull(cache.get("First"));
+        Assert.assertNull(cache.get("Second"));
+        Assert.assertNotNull(cache.get("Third"));
+    }
+
+    @Test
+    public void flushOnShutdown() throws Exception {
+        cache.markDirty(new User("TestUser", 0, 0, 0));
+        cache.shutdown();
+
+        Assert.assertEquals(1, database.batches.size());
+    }
+}
@@ -0,0 +1,51 @@
+package Model;
+
+import Model.User.User;
+import Networking.FakeLink;
+import Server.Game.Match;
+import Server.Networking.SQL.FakeDatabase;
+import org.junit.Assert;
+import org.junit.Test;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for user sessions on the user manager.
+ */
+public class UserManagerTest {
+
+    @Test
+    public void cachedUserStartsClean() throws Exception {
+        UserManager.init(new AuthDatabase());
+
+        final User first = UserManager.getInstance().authenticateUser("TestUser", "hash");
+        first.setCommLink(new FakeLink());
+        first.setMatch(new Match(30000, 70000));
+
+        UserManager.getInstance().disconnectUser("TestUser");
+
+        // Next login gets the cached user without previous session state
+        final User second = UserManager.getInstance().authenticateUser("TestUser", "hash");
+
+        Assert.assertSame(first, second);
+        Assert.assertNull(second.getLink());
+        Assert.assertNull(second.getMatch());
+        Assert.assertNull(second.getGameUser());
+
+        UserManager.getInstance().shutdown();
+    }
+
+    /**
+     * Database accepting every login
+     */
+    private static class AuthDatabase extends FakeDatabase {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> call(String storedProcedureName, Object[] inputParams, Class<T> objectType, Object[] outputParams) {
+            outputParams[0] = AuthResult.Success.ordinal();
+
+            return (List<T>) Collections.singletonList(new User((String) inputParams[0], 0, 0, 0));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package Networking.Gson;
+
+import Action.BaseAction;
+import Action.DisplayPopup;
+import Action.PlayerStateUpdate;
+import Game.UserObjects.FamilyColor;
+import Model.FakeUser;
+import Networking.FakeLink;
+import Networking.OutboundQueue;
+import Server.Game.Cards.SplitDeck;
+import Server.Game.Effects.Faith.FaithDeck;
+import Server.Game.GameHelper;
+import Server.Game.UserObjects.GameTable;
+import Server.Game.UserObjects.GameUser;
+import Server.Game.UserObjects.PlayerState;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for compact frames encoding and decoding.
+ */
+public class CompactCodecTest {
+
+    @Test
+    public void jsonPassThrough() throws Exception {
+        final String json = GsonUtils.toGson(new DisplayPopup(DisplayPopup.Level.Warning, "Message"));
+
+        Assert.assertEquals(json, new CompactDecoder().decode(json));
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        final CompactEncoder encoder = new CompactEncoder();
+        final CompactDecoder decoder = new CompactDecoder();
+
+        final GameUser gameUser = new GameUser(new FakeUser(new FakeLink()), FamilyColor.Green);
+        final PlayerState state = GameHelper.getInstance().getInitialPS(gameUser, 0);
+
+        final SplitDeck deck = new SplitDeck();
+        final GameTable table = GameTable.load(4);
+
+        final BaseAction[] messages = {
+                new DisplayPopup(DisplayPopup.Level.Warning, "Message"),
+                new PlayerStateUpdate("FakeUser", state),
+                table.changeTurn(deck.getCardPerTurn(1), new FaithDeck().getFaithEffect().get(2)),
+                new PlayerStateUpdate("FakeUser", state)
+        };
+
+        // Decoded frames must match json encoding, definitions being sent only once
+        for (BaseAction message : messages) {
+            final String frame = encoder.encode(message);
+
+            Assert.assertEquals('~', frame.charAt(0));
+            Assert.assertEquals(GsonUtils.toGson(message), decoder.decode(frame));
+        }
+    }
+
+    @Test
+    public void repeatedMessageIsSmaller() throws Exception {
+        final CompactEncoder encoder = new CompactEncoder();
+
+        final GameUser gameUser = new GameUser(new FakeUser(new FakeLink()), FamilyColor.Green);
+        final BaseAction update = new PlayerStateUpdate("FakeUser", GameHelper.getInstance().getInitialPS(gameUser, 0));
+
+        final String first = encoder.encode(update);
+        final String second = encoder.encode(update);
+
+        Assert.assertTrue(first.length() < GsonUtils.toGson(update).length());
+        Assert.assertTrue(second.length() < first.length());
+    }
+
+    @Test
+    public void droppedFrameNotEncoded() throws Exception {
+        final CompactEncoder encoder = new CompactEncoder();
+        final CompactDecoder decoder = new CompactDecoder();
+        final OutboundQueue<String> queue = new OutboundQueue<>(1, OutboundQueue.OverflowPolicy.DropDroppable);
+
+        final GameUser gameUser = new GameUser(new FakeUser(new FakeLink()), FamilyColor.Green);
+        final BaseAction update = new PlayerStateUpdate("FakeUser", GameHelper.getInstance().getInitialPS(gameUser, 0));
+        final BaseAction popup = new DisplayPopup(DisplayPopup.Level.Warning, "Message");
+
+        // Full queue drops the popup without encoding it
+        Assert.assertEquals(OutboundQueue.Result.Queued, queue.offer(() -> encoder.encode(popup), false));
+        Assert.assertEquals(OutboundQueue.Result.Dropped, queue.offer(() -> encoder.encode(update), true));
+
+        Assert.assertEquals(GsonUtils.toGson(popup), decoder.decode(queue.poll()));
+
+        // Next frame still carries the definitions the dropped one would have sent
+        Assert.assertEquals(OutboundQueue.Result.Queued, queue.offer(() -> encoder.encode(update), false));
+        Assert.assertEquals(GsonUtils.toGson(update), decoder.decode(queue.poll()));
+    }
+
+    @Test
+    public void closeReleasesCodecs() throws Exception {
+        final CompactEncoder encoder = new CompactEncoder();
+        final CompactDecoder decoder = new CompactDecoder();
+        final String frame = encoder.encode(new DisplayPopup(DisplayPopup.Level.Warning, "Message"));
+
+        encoder.close();
+        encoder.close();
+        decoder.close();
+
+        // Json messages still pass through, compact frames can't be handled anymore
+        Assert.assertEquals("{}", decoder.decode("{}"));
+
+        try {
+            decoder.decode(frame);
+            Assert.fail();
+        } catch (com.google.gson.JsonParseException jpe) {
+            // Expected
+        }
+
+        try {
+            encoder.encode(new DisplayPopup(DisplayPopup.Level.Warning, "Message"));
+            Assert.fail();
+        } catch (IllegalStateException ise) {
+            // Expected
+        }
+    }
+
+    @Test(expected = com.google.gson.JsonParseException.class)
+    public void rejectMalformedFrame() throws Exception {
+        new CompactDecoder().decode("~not a frame");
+    }
+
+    @Test
+    public void encodedMessageSharedByLinks() throws Exception {
+        final GameUser gameUser = new GameUser(new FakeUser(new FakeLink()), FamilyColor.Green);
+        final BaseAction message = new PlayerStateUpdate("FakeUser", GameHelper.getInstance().getInitialPS(gameUser, 0));
+        final EncodedMessage encoded = new EncodedMessage(message);
+        final String json = GsonUtils.toGson(message);
+
+        // Each link adds its own definitions to the shared body
+        final CompactEncoder first = new CompactEncoder();
+        final CompactDecoder firstDecoder = new CompactDecoder();
+        firstDecoder.decode(first.encode(new DisplayPopup(DisplayPopup.Level.Warning, "Message")));
+
+        Assert.assertEquals(json, new CompactDecoder().decode(new CompactEncoder().encode(encoded)));
+        Assert.assertEquals(json, firstDecoder.decode(first.encode(encoded)));
+        Assert.assertEquals(json, encoded.getJson());
+
+        // Json lines share the same bytes with independent positions
+        encoded.getJsonLine().position(10);
+        Assert.assertEquals(0, encoded.getJsonLine().position());
+        Assert.assertEquals(json.length() + 1, encoded.getJsonLine().remaining());
+    }
+}
@@ -0,0 +1,74 @@
+package Networking.Gson;
+
+import Action.BaseAction;
+import Action.DisplayPopup;
+import Action.PlayerStateUpdate;
+import Game.UserObjects.FamilyColor;
+import Model.FakeUser;
+import Networking.FakeLink;
+import Server.Game.GameHelper;
+import Server.Game.UserObjects.GameUser;
+import Server.Game.UserObjects.PlayerState;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for type tagged json encoding of actions.
+ */
+public class GsonUtilsTest {
+
+    @Test
+    public void typeTagFormat() throws Exception {
+        final String json = GsonUtils.toGson(new DisplayPopup(DisplayPopup.Level.Warning, "Message"));
+
+        Assert.assertTrue(json.startsWith("{\"type\":\"Action.DisplayPopup\",\"data\":{"));
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        final GameUser gameUser = new GameUser(new FakeUser(new FakeLink()), FamilyColor.Green);
+        final PlayerState state = GameHelper.getInstance().getInitialPS(gameUser, 0);
+
+        final String json = GsonUtils.toGson(new PlayerStateUpdate("FakeUser", state));
+        final BaseAction decoded = GsonUtils.fromGson(json);
+
+        Assert.assertSame(PlayerStateUpdate.class, decoded.getClass());
+        Assert.assertEquals(json, GsonUtils.toGson(decoded));
+    }
+
+    @Test
+    public void dataBeforeType() throws Exception {
+        final BaseAction decoded = GsonUtils.fromGson("{\"data\":{\"level\":\"Error\",\"message\":\"Message\"},\"type\":\"Action.DisplayPopup\"}");
+
+        Assert.assertSame(DisplayPopup.class, decoded.getClass());
+    }
+
+    @Test(expected = com.google.gson.JsonParseException.class)
+    public void rejectNotAction() throws Exception {
+        GsonUtils.fromGson("{\"type\":\"java.lang.String\",\"data\":{}}");
+    }
+
+    @Test
+    public void rejectedClassNotInitialized() throws Exception {
+        try {
+            GsonUtils.fromGson("{\"type\":\"" + NotAction.class.getName() + "\",\"data\":{}}");
+            Assert.fail();
+        } catch (com.google.gson.JsonParseException jpe) {
+            // Expected
+        }
+
+        Assert.assertFalse(notActionInitialized);
+    }
+
+    private static volatile boolean notActionInitialized = false;
+
+    /**
+     * Class named by a malicious message, with a static initializer
+     */
+    private static class NotAction {
+
+        static {
+            notActionInitialized = true;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package Networking;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for bounded outbound queue and overflow policies.
+ */
+public class OutboundQueueTest {
+
+    @Test
+    public void dropDroppableWhenFull() throws Exception {
+        final OutboundQueue<String> queue = new OutboundQueue<>(2, OutboundQueue.OverflowPolicy.DropDroppable);
+
+        Assert.assertEquals(OutboundQueue.Result.Queued, queue.offer("first", false));
+        Assert.assertEquals(OutboundQueue.Result.Queued, queue.offer("second", true));
+        Assert.assertEquals(OutboundQueue.Result.Dropped, queue.offer("chat", true));
+        Assert.assertEquals(OutboundQueue.Result.Overflow, queue.offer("state", false));
+        Assert.assertEquals(1, queue.getDropped());
+
+        final String[] batch = new String[4];
+        Assert.assertEquals(2, queue.peek(batch));
+        Assert.assertEquals("first", batch[0]);
+
+        Assert.assertEquals("first", queue.poll());
+        Assert.assertEquals(OutboundQueue.Result.Queued, queue.offer("third", false));
+        Assert.assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void disconnectWhenFull() throws Exception {
+        final OutboundQueue<String> queue = new OutboundQueue<>(1, OutboundQueue.OverflowPolicy.Disconnect);
+
+        Assert.assertEquals(OutboundQueue.Result.Queued, queue.offer("first", true));
+        Assert.assertEquals(OutboundQueue.Result.Overflow, queue.offer("chat", true));
+
+        queue.clear();
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(0, queue.size());
+    }
+}
@@ -0,0 +1,65 @@
+package Server.Game;
+
+import org.junit.Assert;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for serial match event execution on shared scheduler.
+ */
+public class MatchExecutorTest {
+
+    @Test
+    public void eventsRunInOrder() throws Exception {
+        final MatchExecutor executor = new MatchExecutor(Throwable::printStackTrace);
+        final List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger running = new AtomicInteger(0);
+        final CountDownLatch done = new CountDownLatch(1000);
+
+        for (int i = 0; i < 1000; i++) {
+            final int event = i;
+
+            executor.execute(() -> {
+                Assert.assertEquals(1, running.incrementAndGet());
+                handled.add(event);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 1000; i++)
+            Assert.assertEquals(i, (int) handled.get(i));
+    }
+
+    @Test
+    public void exceptionsGoToHandler() throws Exception {
+        final CountDownLatch handled = new CountDownLatch(1);
+        final CountDownLatch next = new CountDownLatch(1);
+        final MatchExecutor executor = new MatchExecutor(t -> handled.countDown());
+
+        executor.execute(() -> { throw new IllegalStateException("Event error"); });
+        executor.execute(next::countDown);
+
+        Assert.assertTrue(handled.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(next.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shutdownDropsScheduledEvents() throws Exception {
+        final MatchExecutor executor = new MatchExecutor(Throwable::printStackTrace);
+        final CountDownLatch timeout = new CountDownLatch(1);
+
+        executor.schedule(timeout::countDown, 50, TimeUnit.MILLISECONDS);
+        executor.shutdown();
+
+        Assert.assertTrue(executor.isShutdown());
+        Assert.assertFalse(timeout.await(200, TimeUnit.MILLISECONDS));
+    }
+}
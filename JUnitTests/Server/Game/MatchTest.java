@@ -0,0 +1,33 @@
+package Server.Game;
+
+import Action.ChatMessage;
+import Model.User.User;
+import Networking.FakeLink;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for users leaving a match.
+ */
+public class MatchTest {
+
+    @Test
+    public void abortReleasesUsers() throws Exception {
+        final Match match = new Match(30000, 70000);
+        final User left = new User("LeftUser", 0, 0, 0, new FakeLink());
+        final User staying = new User("StayingUser", 0, 0, 0, new FakeLink());
+
+        match.tryAddUser(left);
+        match.tryAddUser(staying);
+
+        match.abort(left);
+
+        Assert.assertFalse(match.getAllUsers().contains(left));
+        Assert.assertNull(left.getMatch());
+        Assert.assertNull(staying.getMatch());
+
+        // Messages still sent on the match skip users whose session has ended
+        staying.clearSession();
+        match.sendAll(new ChatMessage("LeftUser", "Message"));
+    }
+}
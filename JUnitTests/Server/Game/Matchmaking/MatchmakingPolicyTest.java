@@ -0,0 +1,87 @@
+package Server.Game.Matchmaking;
+
+import Model.User.User;
+import Networking.FakeLink;
+import Server.Game.Match;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for open matches index and matchmaking policies.
+ */
+public class MatchmakingPolicyTest {
+
+    private final User joiningUser = new User("Joining", 0, 0, 0, new FakeLink());
+
+    private Match matchWith(int players, double rating) {
+        final Match match = new Match(30000, 70000);
+
+        for (int i = 0; i < players; i++) {
+            final User user = new User("User" + i, 0, 0, 0, new FakeLink());
+            user.setRating(rating, 100);
+            match.addUser(user);
+        }
+
+        return match;
+    }
+
+    @Test
+    public void fifoFillPicksOldestMatch() throws Exception {
+        final MatchmakingPolicy policy = new FifoFillPolicy();
+        final Match oldest = matchWith(1, 1500);
+        final Match fuller = matchWith(2, 1500);
+
+        policy.add(fuller);
+        policy.add(oldest);
+
+        Assert.assertSame(oldest, policy.select(joiningUser));
+        Assert.assertSame(fuller, policy.select(joiningUser));
+        Assert.assertNull(policy.select(joiningUser));
+    }
+
+    @Test
+    public void preferredSizeSkipsMatchesAlreadyBigEnough() throws Exception {
+        final MatchmakingPolicy policy = new PreferredSizePolicy(2);
+        final Match single = matchWith(1, 1500);
+
+        policy.add(matchWith(2, 1500));
+        policy.add(single);
+
+        Assert.assertSame(single, policy.select(joiningUser));
+        Assert.assertNull(policy.select(joiningUser));
+    }
+
+    @Test
+    public void ratingBucketsWidenWithWait() throws Exception {
+        final MatchmakingPolicy policy = new RatingBucketPolicy(100, 100, 2000, 600);
+        final Match near = matchWith(1, 1550);
+        final Match far = matchWith(1, 1900);
+
+        policy.add(far);
+        policy.add(near);
+
+        Assert.assertSame(near, policy.select(joiningUser));
+        Assert.assertNull(policy.select(joiningUser));
+
+        // Far match accepts users 400 points away after waiting 0.15 seconds
+        Thread.sleep(200);
+        Assert.assertSame(far, policy.select(joiningUser));
+    }
+
+    @Test
+    public void staleMatchesAreDiscarded() throws Exception {
+        final OpenMatches openMatches = new OpenMatches();
+        final Match aborted = matchWith(1, 1500);
+        final Match grown = matchWith(1, 1500);
+
+        openMatches.add(aborted);
+        openMatches.add(grown);
+
+        aborted.abort(joiningUser);
+        grown.addUser(joiningUser);
+
+        Assert.assertEquals(0, aborted.getFreeSeats());
+        Assert.assertFalse(aborted.tryAddUser(joiningUser));
+        Assert.assertNull(openMatches.peek(3));
+    }
+}
@@ -76,6 +76,28 @@ public class GameTableTest {
         Assert.assertEquals(32, allPos.size());
     }
 
+    @Test
+    public void getPositionsCached() throws Exception {
+        final List<Choosable> first = testTable.getPositions(testUser, null).get(1);
+
+        Assert.assertSame(first, testTable.getPositions(testUser, null).get(1));
+
+        // A different domestic changes user state
+        final PlayerState currentState = testUser.getUserState();
+        currentState.setInUseDomestic(testUser.getDomestics().get(DomesticColor.Orange));
+        testUser.updateUserState(currentState);
+
+        final List<Choosable> second = testTable.getPositions(testUser, null).get(1);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(second, testTable.getPositions(testUser, null).get(1));
+
+        // Occupying a position changes the board
+        testTable.occupy(testUser, 50, Collections.singletonList(new Cost(null)));
+
+        Assert.assertNotSame(second, testTable.getPositions(testUser, null).get(1));
+    }
+
     @Test
     public void getFaithEffect() throws Exception {
         Assert.assertEquals(faithEffect, testTable.getFaithEffect());
@@ -129,4 +151,13 @@ public class GameTableTest {
         Assert.assertEquals(PositionType.TerritoryTower, towerPos.getType());
     }
 
+    @Test
+    public void occupyUnknownPosition() throws Exception {
+        final PlayerState state = testUser.getUserState();
+
+        Assert.assertNull(testTable.occupy(testUser, -1, Collections.emptyList()));
+        Assert.assertNull(testTable.occupy(testUser, 1000, Collections.emptyList()));
+        Assert.assertSame(state, testUser.getUserState());
+    }
+
 }
\ No newline at end of file
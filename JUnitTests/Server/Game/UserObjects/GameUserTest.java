@@ -72,7 +72,8 @@ public class GameUserTest {
 
     @Test
     public void getUserState() {
-        Assert.assertNotSame(testUser.getUserState(), testUser.getUserState());
+        // State is shared without copies, changes are made on match executor only
+        Assert.assertSame(testUser.getUserState(), testUser.getUserState());
     }
 
     @Test
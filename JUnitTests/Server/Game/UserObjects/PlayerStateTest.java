@@ -1,14 +1,17 @@
 package Server.Game.UserObjects;
 
 import Game.Cards.CardType;
+import Game.Effects.EffectType;
 import Game.Positions.PositionType;
 import Game.Usable.ResourceType;
 import Game.UserObjects.*;
 import Model.FakeUser;
 import Networking.FakeLink;
+import Server.Game.Effects.FinalVictoryPointsEffect;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -57,9 +60,9 @@ public class PlayerStateTest {
 
     @Test
     public void getBonus() {
-        Assert.assertEquals(2, playerState.getCostBonus(CardType.Personality).get(ResourceType.Gold).intValue());
-        Assert.assertEquals(0, playerState.getCostBonus(CardType.Personality).get(ResourceType.Wood).intValue());
-        Assert.assertEquals(0, playerState.getCostBonus(CardType.Territory).get(ResourceType.Gold).intValue());
+        Assert.assertEquals(2, playerState.getCostBonus(CardType.Personality).get(ResourceType.Gold));
+        Assert.assertEquals(0, playerState.getCostBonus(CardType.Personality).get(ResourceType.Wood));
+        Assert.assertEquals(0, playerState.getCostBonus(CardType.Territory).get(ResourceType.Gold));
     }
 
     @Test
@@ -82,4 +85,27 @@ public class PlayerStateTest {
         Assert.assertEquals(5, inUse.getValue().intValue());
 
     }
+
+    @Test
+    public void cloneIsSnapshot() {
+
+        final PlayerState snapshot = playerState.clone();
+
+        playerState.setResources(Collections.singletonMap(ResourceType.Gold, 7), false);
+        playerState.setCostBonus(CardType.Personality, ResourceType.Wood, 1);
+        playerState.addEffect(new FinalVictoryPointsEffect(3));
+
+        Assert.assertEquals(7, playerState.getResource(ResourceType.Gold));
+        Assert.assertEquals(0, snapshot.getResource(ResourceType.Gold));
+        Assert.assertEquals(0, snapshot.getCostBonus(CardType.Personality).get(ResourceType.Wood));
+        Assert.assertEquals(1, playerState.getEffects(EffectType.Final).size());
+        Assert.assertTrue(snapshot.getEffects(EffectType.Final).isEmpty());
+
+        // Returned vectors are copies, shared data can't be changed through them
+        playerState.getPenalty().set(ResourceType.Rock, 2);
+        playerState.getCostBonus(CardType.Building).set(ResourceType.Rock, 2);
+
+        Assert.assertEquals(0, snapshot.getPenalty().get(ResourceType.Rock));
+        Assert.assertEquals(0, snapshot.getCostBonus(CardType.Building).get(ResourceType.Rock));
+    }
 }
@@ -0,0 +1,50 @@
+package Server;
+
+import org.junit.Assert;
+import org.junit.Test;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for hashed-wheel timer expiration and cancellation.
+ */
+public class HashedWheelTimerTest {
+
+    @Test
+    public void timeoutsExpireAfterDelay() throws Exception {
+        final HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8);
+        final CountDownLatch expired = new CountDownLatch(2);
+        final long start = System.nanoTime();
+
+        // Second delay is longer than a wheel round
+        timer.schedule(expired::countDown, 30, TimeUnit.MILLISECONDS);
+        final HashedWheelTimer.Timeout timeout = timer.schedule(expired::countDown, 150, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(expired.await(2, TimeUnit.SECONDS));
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        Assert.assertTrue(timeout.isExpired());
+        Assert.assertFalse(timeout.cancel());
+        Assert.assertEquals(0, timer.getPendingTimeouts());
+
+        timer.stop();
+    }
+
+    @Test
+    public void cancelledTimeoutsDontRun() throws Exception {
+        final HashedWheelTimer timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final CountDownLatch expired = new CountDownLatch(1);
+
+        final HashedWheelTimer.Timeout timeout = timer.schedule(cancelled::countDown, 50, TimeUnit.MILLISECONDS);
+        timer.schedule(expired::countDown, 100, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(timeout.cancel());
+        Assert.assertTrue(timeout.isCancelled());
+        Assert.assertEquals(1, timer.getPendingTimeouts());
+
+        Assert.assertTrue(expired.await(2, TimeUnit.SECONDS));
+        Assert.assertEquals(1, cancelled.getCount());
+
+        timer.stop();
+    }
+}
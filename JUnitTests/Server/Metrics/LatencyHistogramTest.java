@@ -0,0 +1,50 @@
+package Server.Metrics;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for latency histogram bucketing and percentiles.
+ */
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    @Before
+    public void before() {
+        histogram = new LatencyHistogram("Test");
+    }
+
+    @Test
+    public void empty() throws Exception {
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(99, TimeUnit.NANOSECONDS));
+        Assert.assertEquals(0, histogram.getMean(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void record() throws Exception {
+        for (int i = 1; i <= 100; i++)
+            histogram.record(i * 1000);
+
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(100000, histogram.getMax(TimeUnit.NANOSECONDS));
+        Assert.assertEquals(50500, histogram.getMean(TimeUnit.NANOSECONDS));
+
+        // Percentiles are bucket upper bounds, so within a factor of two of the exact value
+        final long median = histogram.getPercentile(50, TimeUnit.NANOSECONDS);
+        Assert.assertTrue(median >= 50000 && median < 100000);
+        Assert.assertEquals(100000, histogram.getPercentile(100, TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void reset() throws Exception {
+        histogram.record(10);
+        histogram.reset();
+
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMax(TimeUnit.NANOSECONDS));
+    }
+}
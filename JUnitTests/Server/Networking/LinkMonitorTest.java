@@ -0,0 +1,118 @@
+package Server.Networking;
+
+import Action.BaseAction;
+import Networking.CommLink;
+import Server.HashedWheelTimer;
+import org.junit.Assert;
+import org.junit.Test;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Tests for idle link reaping.
+ */
+public class LinkMonitorTest {
+
+    @Test
+    public void reapIdleLink() throws Exception {
+        final LinkMonitor monitor = new LinkMonitor(100, TimeUnit.MILLISECONDS, new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 64));
+        final TestLink idle = new TestLink();
+
+        monitor.watch(idle);
+
+        Assert.assertTrue(idle.closed.await(2, TimeUnit.SECONDS));
+        Assert.assertEquals(1, monitor.getReapedCount());
+
+        monitor.shutdown();
+    }
+
+    @Test
+    public void keepLinkWithoutHeartbeats() throws Exception {
+        final LinkMonitor monitor = new LinkMonitor(100, TimeUnit.MILLISECONDS, new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 64));
+        final TestLink legacy = new TestLink();
+        legacy.heartbeating = false;
+
+        monitor.watch(legacy);
+
+        // Client older than heartbeats, silent while waiting for its turn
+        Assert.assertFalse(legacy.closed.await(400, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(0, monitor.getReapedCount());
+
+        monitor.shutdown();
+    }
+
+    @Test
+    public void keepActiveLink() throws Exception {
+        final LinkMonitor monitor = new LinkMonitor(100, TimeUnit.MILLISECONDS, new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 64));
+        final TestLink active = new TestLink();
+
+        monitor.watch(active);
+
+        // Heartbeats received more often than the idle timeout
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(30);
+            active.lastReceived = System.nanoTime();
+        }
+
+        Assert.assertEquals(1, active.closed.getCount());
+        Assert.assertEquals(0, monitor.getReapedCount());
+
+        // Peer closes the link
+        active.shutdown();
+        Thread.sleep(200);
+
+        Assert.assertEquals(0, monitor.getReapedCount());
+        Assert.assertTrue(monitor.getStatistics().contains("open=0 closed=1"));
+
+        monitor.shutdown();
+    }
+
+    private static class TestLink implements CommLink {
+
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        private volatile long lastReceived = System.nanoTime();
+
+        private volatile boolean heartbeating = true;
+
+        private volatile Consumer<CommLink> onClose;
+
+        @Override
+        public void sendMessage(BaseAction message) {
+
+        }
+
+        @Override
+        public void setOnMessage(BiConsumer<CommLink, String> onMessageCallback) {
+
+        }
+
+        @Override
+        public long getLastReceived() {
+            return lastReceived;
+        }
+
+        @Override
+        public boolean isHeartbeating() {
+            return heartbeating;
+        }
+
+        @Override
+        public void setOnClose(Consumer<CommLink> onCloseCallback) {
+            onClose = onCloseCallback;
+        }
+
+        @Override
+        public void shutdown() {
+            if(closed.getCount() == 0)
+                return;
+
+            closed.countDown();
+
+            if(onClose != null)
+                onClose.accept(this);
+        }
+    }
+}
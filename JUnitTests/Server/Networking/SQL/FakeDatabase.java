@@ -0,0 +1,73 @@
+package Server.Networking.SQL;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Database stub recording batch calls, all other calls return no results
+ */
+public class FakeDatabase implements Database {
+
+    public final List<List<Object[]>> batches = new ArrayList<>();
+
+    public volatile boolean fail = false;
+
+    @Override
+    public void connect() throws SQLException {
+
+    }
+
+    @Override
+    public void disconnect() throws SQLException {
+
+    }
+
+    @Override
+    public <T> List<T> submit(String queryString, Class<T> type) throws SQLException {
+        return null;
+    }
+
+    @Override
+    public void submit(String queryString) throws SQLException {
+
+    }
+
+    @Override
+    public <T> List<T> call(String storedProcedureName, Object[] inputParams, Class<T> objectType, Object[] outputParams) throws SQLException {
+        return null;
+    }
+
+    @Override
+    public <T> List<T> call(String storedProcedureName, Class<T> objectType) throws SQLException {
+        return null;
+    }
+
+    @Override
+    public <T> List<T> call(String storedProcedureName, Object[] inputParams, Class<T> objectType) throws SQLException {
+        return null;
+    }
+
+    @Override
+    public <T> List<T> call(String storedProcedureName, Class<T> objectType, Object[] outputParams) throws SQLException {
+        return null;
+    }
+
+    @Override
+    public void call(String storedProcedureName, Object[] inputParams, Object[] outputParams) throws SQLException {
+
+    }
+
+    @Override
+    public void call(String storedProcedureName, Object[] params, boolean inputOnly) throws SQLException {
+
+    }
+
+    @Override
+    public synchronized void callBatch(String storedProcedureName, List<Object[]> inputParamsList) throws SQLException {
+        if(fail)
+            throw new SQLException("Fake failure");
+
+        batches.add(inputParamsList);
+    }
+}
@@ -0,0 +1,90 @@
+package Server.Networking.SQL;
+
+import Model.User.User;
+import org.junit.Assert;
+import org.junit.Test;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.List;
+
+/**
+ * Tests for result set binding through cached row mappers.
+ */
+public class RowMapperTest {
+
+    private static final String[] userColumns = { "Username", "Avatar", "PasswordHash", "WinCount", "LostCount", "GameTime" };
+
+    @Test
+    public void mapUsers() throws Exception {
+        final ResultSet resultSet = fakeResultSet(userColumns, new Object[][] {
+                { "First", "first.jpg", "hash", 3, 1, 120 },
+                { "Second", null, "hash", 0, 5, 60 }
+        });
+
+        final List<User> users = DBHelper.getResultList(resultSet, User.class);
+
+        Assert.assertEquals(2, users.size());
+
+        Assert.assertEquals("First", users.get(0).getUsername());
+        Assert.assertEquals("first.jpg", users.get(0).getAvatar());
+        Assert.assertEquals(3, users.get(0).getWins());
+        Assert.assertEquals(1, users.get(0).getLosts());
+        Assert.assertEquals(120, users.get(0).getGameTime());
+
+        Assert.assertEquals("Second", users.get(1).getUsername());
+        Assert.assertEquals(null, users.get(1).getAvatar());
+        Assert.assertEquals(5, users.get(1).getLosts());
+    }
+
+    @Test
+    public void cacheByLayout() throws Exception {
+        final ResultSet full = fakeResultSet(userColumns, new Object[0][]);
+        final ResultSet partial = fakeResultSet(new String[] { "Username" }, new Object[0][]);
+
+        Assert.assertSame(RowMapper.get(full.getMetaData(), User.class), RowMapper.get(full.getMetaData(), User.class));
+        Assert.assertNotSame(RowMapper.get(full.getMetaData(), User.class), RowMapper.get(partial.getMetaData(), User.class));
+    }
+
+    /**
+     * Create a read-only result set over given rows
+     *
+     * @param columns Column names
+     * @param rows Row values in column order
+     * @return Result set positioned before first row
+     */
+    private static ResultSet fakeResultSet(String[] columns, Object[][] rows) {
+        final int[] current = { -1 };
+
+        final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+                new Class[] { ResultSetMetaData.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return columns.length;
+                        case "getColumnName":
+                        case "getColumnLabel":
+                            return columns[(int) args[0] - 1];
+                    }
+
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return metaData;
+                        case "next":
+                            return ++current[0] < rows.length;
+                        case "getInt":
+                        case "getString":
+                        case "getObject":
+                            return rows[current[0]][(int) args[0] - 1];
+                    }
+
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -29,6 +29,8 @@ CREATE TABLE `Users` (
   `WinCount` int(11) NOT NULL DEFAULT '0',
   `LostCount` int(11) NOT NULL DEFAULT '0',
   `GameTime` int(11) NOT NULL DEFAULT '0',
+  `Rating` double NOT NULL DEFAULT '1500',
+  `RatingDeviation` double NOT NULL DEFAULT '350',
   PRIMARY KEY (`Username`)
 ) ENGINE=InnoDB DEFAULT CHARSET=latin1;
 /*!40101 SET character_set_client = @saved_cs_client */;
@@ -39,13 +41,44 @@ CREATE TABLE `Users` (
 
 LOCK TABLES `Users` WRITE;
 /*!40000 ALTER TABLE `Users` DISABLE KEYS */;
-INSERT INTO `Users` VALUES ('Ansaya','prova.jpg','189bbbb00c5f1fb7fba9ad9285f193d1',0,0,0),('Edoardo',NULL,'189bbbb00c5f1fb7fba9ad9285f193d1',0,0,0),('Guglio',NULL,'189bbbb00c5f1fb7fba9ad9285f193d1',0,0,0),('Pietro',NULL,'189bbbb00c5f1fb7fba9ad9285f193d1',0,0,0);
+INSERT INTO `Users` VALUES ('Ansaya','prova.jpg','189bbbb00c5f1fb7fba9ad9285f193d1',0,0,0,1500,350),('Edoardo',NULL,'189bbbb00c5f1fb7fba9ad9285f193d1',0,0,0,1500,350),('Guglio',NULL,'189bbbb00c5f1fb7fba9ad9285f193d1',0,0,0,1500,350),('Pietro',NULL,'189bbbb00c5f1fb7fba9ad9285f193d1',0,0,0,1500,350);
 /*!40000 ALTER TABLE `Users` ENABLE KEYS */;
 UNLOCK TABLES;
 
 --
 -- Dumping routines for database 'LorenzoDB'
 --
+/*!50003 DROP PROCEDURE IF EXISTS `user_authenticate` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8 */ ;
+/*!50003 SET character_set_results = utf8 */ ;
+/*!50003 SET collation_connection  = utf8_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'ONLY_FULL_GROUP_BY,STRICT_TRANS_TABLES,NO_ZERO_IN_DATE,NO_ZERO_DATE,ERROR_FOR_DIVISION_BY_ZERO,NO_AUTO_CREATE_USER,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`%` PROCEDURE `user_authenticate`(IN usernameParam VARCHAR(50), IN passwordHashParam VARCHAR(256), OUT resultParam INT)
+BEGIN
+DECLARE storedHash VARCHAR(256) DEFAULT NULL;
+
+SELECT PasswordHash INTO storedHash FROM Users WHERE Username = usernameParam;
+
+-- 0: user not found, 1: wrong password, 2: success (user row selected)
+IF storedHash IS NULL THEN
+	SET resultParam = 0;
+ELSEIF storedHash <> passwordHashParam THEN
+	SET resultParam = 1;
+ELSE
+	SET resultParam = 2;
+	SELECT * FROM Users WHERE Username = usernameParam;
+END IF;
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
 /*!50003 DROP PROCEDURE IF EXISTS `user_create` */;
 /*!50003 SET @saved_cs_client      = @@character_set_client */ ;
 /*!50003 SET @saved_cs_results     = @@character_set_results */ ;
@@ -133,6 +166,63 @@ BEGIN
 
 SELECT * FROM Users WHERE Username = usernameParam;
 
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `user_register` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8 */ ;
+/*!50003 SET character_set_results = utf8 */ ;
+/*!50003 SET collation_connection  = utf8_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'ONLY_FULL_GROUP_BY,STRICT_TRANS_TABLES,NO_ZERO_IN_DATE,NO_ZERO_DATE,ERROR_FOR_DIVISION_BY_ZERO,NO_AUTO_CREATE_USER,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`%` PROCEDURE `user_register`(IN usernameParam VARCHAR(50), IN passwordHashParam VARCHAR(256), OUT resultParam INT)
+BEGIN
+-- Duplicate username: 3, user already existent
+DECLARE CONTINUE HANDLER FOR 1062 SET resultParam = 3;
+
+-- 2: success (new user row selected)
+SET resultParam = 2;
+
+INSERT INTO Users (
+	Username,
+    PasswordHash
+    )
+    VALUES(
+    usernameParam,
+    passwordHashParam
+    );
+
+IF resultParam = 2 THEN
+	SELECT * FROM Users WHERE Username = usernameParam;
+END IF;
+END ;;
+DELIMITER ;
+/*!50003 SET sql_mode              = @saved_sql_mode */ ;
+/*!50003 SET character_set_client  = @saved_cs_client */ ;
+/*!50003 SET character_set_results = @saved_cs_results */ ;
+/*!50003 SET collation_connection  = @saved_col_connection */ ;
+/*!50003 DROP PROCEDURE IF EXISTS `user_save` */;
+/*!50003 SET @saved_cs_client      = @@character_set_client */ ;
+/*!50003 SET @saved_cs_results     = @@character_set_results */ ;
+/*!50003 SET @saved_col_connection = @@collation_connection */ ;
+/*!50003 SET character_set_client  = utf8 */ ;
+/*!50003 SET character_set_results = utf8 */ ;
+/*!50003 SET collation_connection  = utf8_general_ci */ ;
+/*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
+/*!50003 SET sql_mode              = 'ONLY_FULL_GROUP_BY,STRICT_TRANS_TABLES,NO_ZERO_IN_DATE,NO_ZERO_DATE,ERROR_FOR_DIVISION_BY_ZERO,NO_AUTO_CREATE_USER,NO_ENGINE_SUBSTITUTION' */ ;
+DELIMITER ;;
+CREATE DEFINER=`root`@`%` PROCEDURE `user_save`(IN usernameParam varchar(50), in avatarParam varchar(256), in winParam int, in lostParam int, in timeParam int, in ratingParam double, in deviationParam double)
+BEGIN
+UPDATE Users
+SET Avatar = avatarParam, WinCount = winParam, LostCount = lostParam, GameTime = timeParam, Rating = ratingParam, RatingDeviation = deviationParam
+WHERE Username = usernameParam;
 END ;;
 DELIMITER ;
 /*!50003 SET sql_mode              = @saved_sql_mode */ ;
@@ -149,11 +239,11 @@ DELIMITER ;
 /*!50003 SET @saved_sql_mode       = @@sql_mode */ ;
 /*!50003 SET sql_mode              = 'ONLY_FULL_GROUP_BY,STRICT_TRANS_TABLES,NO_ZERO_IN_DATE,NO_ZERO_DATE,ERROR_FOR_DIVISION_BY_ZERO,NO_AUTO_CREATE_USER,NO_ENGINE_SUBSTITUTION' */ ;
 DELIMITER ;;
-CREATE DEFINER=`root`@`%` PROCEDURE `user_update`(IN usernameParam varchar(50), in avatarParam varchar(256), in winParam int, in lostParam int, in timeParam int)
+CREATE DEFINER=`root`@`%` PROCEDURE `user_update`(IN usernameParam varchar(50), in avatarParam varchar(256), in winParam int, in lostParam int, in timeParam int, in ratingParam double, in deviationParam double)
 BEGIN
 
 UPDATE Users
-SET Avatar = avatarParam, WinCount = winParam, LostCount = lostParam, GameTime = timeParam
+SET Avatar = avatarParam, WinCount = winParam, LostCount = lostParam, GameTime = timeParam, Rating = ratingParam, RatingDeviation = deviationParam
 WHERE Username = usernameParam;
 
 SELECT * FROM Users WHERE Username = usernameParam;
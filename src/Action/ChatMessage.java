@@ -5,7 +5,7 @@ import Model.User.User;
 /**
  * Created by fiore on 13/06/2017.
  */
-public class ChatMessage implements BaseAction {
+public class ChatMessage implements BaseAction, Droppable {
 
     private final String username;
 
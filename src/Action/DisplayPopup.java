@@ -3,7 +3,7 @@ package Action;
 import Client.UI.UserInterfaceFactory;
 import Model.User.User;
 
-public class DisplayPopup implements BaseAction {
+public class DisplayPopup implements BaseAction, Droppable {
     private Level level;
     private String message;
     private String title;
@@ -24,6 +24,10 @@ public class DisplayPopup implements BaseAction {
         this.title = title;
     }
 
+    public String getMessage() {
+        return message;
+    }
+
     @Override
     public void doAction(User user) {
         UserInterfaceFactory.getInstance().displayPopup(level, title, message);
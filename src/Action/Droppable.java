@@ -0,0 +1,7 @@
+package Action;
+
+/**
+ * Marker for messages a congested link can discard: losing them doesn't change game state on the client.
+ */
+public interface Droppable {
+}
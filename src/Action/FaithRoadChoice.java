@@ -6,7 +6,7 @@ import Model.User.User;
 /**
  * Created by fiore on 06/06/2017.
  */
-public class FaithRoadChoice implements BaseAction {
+public class FaithRoadChoice implements BaseAction, GameAction {
 
     private final boolean churchSupport;
 
@@ -20,16 +20,17 @@ public class FaithRoadChoice implements BaseAction {
         // Get current game user
         final GameUser currentUser = (GameUser) user.getGameUser();
 
+        // If match or game user are null, game hasn't started yet
+        if(user.getMatch() == null || currentUser == null)
+            return;
+
         // Set user choice received from client
         currentUser.setChurchSupport(churchSupport);
 
         // Set for move end
         currentUser.setHasMoved(true);
 
-        // Notify turn to go ahead
-        synchronized (currentUser) {
-            currentUser.notify();
-        }
-
+        // Let the turn go ahead
+        user.getMatch().moveCompleted(currentUser);
     }
 }
@@ -0,0 +1,8 @@
+package Action;
+
+/**
+ * Marker for player requests changing game state: they are posted to the mailbox of the sender's match
+ * and run on match executor, so they never run concurrently with turn events or other players' moves.
+ */
+public interface GameAction {
+}
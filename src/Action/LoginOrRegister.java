@@ -13,20 +13,35 @@ public class LoginOrRegister implements BaseAction {
     private String username;
     private String passwordHash;
     private boolean isNewUser = false;
+    private boolean compactProtocol = false;
 
     /**
-     * Used to login or register a new user on server
+     * Used to login or register a new user on server, asking for compact encoding of server messages
      *
      * @param username
      * @param password
      * @param isNewUser
      */
     public LoginOrRegister(String username, String password, boolean isNewUser) {
+        this(username, password, isNewUser, true);
+    }
+
+    /**
+     * Used to login or register a new user on server
+     *
+     * @param username
+     * @param password
+     * @param isNewUser
+     * @param compactProtocol True to receive server messages with compact encoding, false to receive json
+     */
+    public LoginOrRegister(String username, String password, boolean isNewUser, boolean compactProtocol) {
         this.username = username;
 
         this.passwordHash = getMD5(password);
 
         this.isNewUser = isNewUser;
+
+        this.compactProtocol = compactProtocol;
     }
 
     private @Nullable String getMD5(String password) {
@@ -65,6 +80,10 @@ public class LoginOrRegister implements BaseAction {
         return isNewUser;
     }
 
+    public boolean isCompactProtocol() {
+        return compactProtocol;
+    }
+
     @Override
     public void doAction(User user) {
         //Registration Login should have happened here....... but u wanted to use LoginHandler
@@ -2,6 +2,7 @@ package Action;
 
 import Game.Positions.Position;
 import Game.UserObjects.Choosable;
+import Logging.Logger;
 import Model.User.User;
 import Server.Game.UserObjects.GameTable;
 import Server.Game.UserObjects.GameUser;
@@ -11,7 +12,7 @@ import java.util.List;
 /**
  * Created by fiore on 23/05/2017.
  */
-public class Move implements BaseAction {
+public class Move implements BaseAction, GameAction {
 
     private final List<Choosable> chosenTs;
 
@@ -31,8 +32,14 @@ public class Move implements BaseAction {
     @Override
     public void doAction(User user) {
 
-        // Get current user and player state
+        // Get current user
         GameUser gameUser = (GameUser) user.getGameUser();
+
+        // If match or game user are null, game hasn't started yet
+        if(user.getMatch() == null || gameUser == null) {
+            return;
+        }
+
         GameTable table = user.getMatch().getTable();
 
         // If table is null, game hasn't started yet
@@ -40,23 +47,25 @@ public class Move implements BaseAction {
             return;
         }
 
-        // Set move completed
-        gameUser.setHasMoved(true);
-
         // Occupy selected position (this will activate all card/position effects)
         Position updatedPosition = table.occupy(gameUser, positionNumber, chosenTs);
 
+        // If position doesn't exist, move is rejected
+        if(updatedPosition == null) {
+            Logger.log(Logger.LogLevel.Warning, "Move to unknown position " + positionNumber + " from " + user.getUsername());
+            return;
+        }
+
+        // Set move completed
+        gameUser.setHasMoved(true);
+
         // Create position update message
         BaseAction updateMessage = new UpdatePosition(updatedPosition.getNumber(), updatedPosition.isOccupied());
 
         // Send update to all users in this match
         user.getMatch().sendAll(updateMessage);
 
-        // If this was last move notify on gameUser object
-        if(gameUser.getHasMoved()) {
-            synchronized (gameUser){
-                gameUser.notify();
-            }
-        }
+        // Let the turn go ahead if this was last move
+        user.getMatch().moveCompleted(gameUser);
     }
 }
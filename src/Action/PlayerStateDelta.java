@@ -0,0 +1,172 @@
+package Action;
+
+import Client.Datawarehouse;
+import Game.Cards.Card;
+import Game.Cards.CardType;
+import Game.Effects.Effect;
+import Game.Effects.EffectType;
+import Game.Usable.ResourceVector;
+import Game.UserObjects.PlayerState;
+import Model.User.User;
+import Server.Game.UserObjects.Domestic;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Changes between two consecutive versions of a player state, sent instead of the full state.
+ * Only changed resources, penalties and cost bonuses are sent, together with cards and effects added
+ * since previous version; a list which doesn't simply grow is sent whole.
+ */
+public class PlayerStateDelta extends UserSpecific implements BaseAction {
+
+    private final int version;
+
+    private final ResourceVector resources = new ResourceVector();
+
+    private final ResourceVector resourcesPenalty = new ResourceVector();
+
+    private final Map<CardType, ResourceVector> resourceBonus = new HashMap<>();
+
+    private final Map<CardType, List<Card>> addedCards = new HashMap<>();
+
+    private final Map<CardType, List<Card>> replacedCards = new HashMap<>();
+
+    private final Map<EffectType, List<Effect>> addedEffects = new HashMap<>();
+
+    private final Map<EffectType, List<Effect>> replacedEffects = new HashMap<>();
+
+    private final Domestic inUseDomestic;
+
+    private final int slavePerDomestic;
+
+    /**
+     * Compute changes from previous to current player state
+     *
+     * @param username Player state owner
+     * @param previous Player state sent with previous version
+     * @param current Current player state
+     * @param version Version of current player state
+     */
+    public PlayerStateDelta(String username, PlayerState previous, PlayerState current, int version) {
+        super(username);
+        this.version = version;
+
+        diffValues(previous.getResourceVector(), current.getResourceVector(), resources);
+        diffValues(previous.getPenalty(), current.getPenalty(), resourcesPenalty);
+
+        for (CardType type : CardType.values()) {
+            final ResourceVector changedBonus = new ResourceVector();
+            diffValues(previous.getCostBonus(type), current.getCostBonus(type), changedBonus);
+
+            if(!changedBonus.isEmpty())
+                resourceBonus.put(type, changedBonus);
+
+            diffList(type, previous.getCards(type), current.getCards(type), addedCards, replacedCards);
+        }
+
+        for (EffectType type : EffectType.values())
+            diffList(type, previous.getEffects(type), current.getEffects(type), addedEffects, replacedEffects);
+
+        // Domestic in use is small and shares its state with the game table: always send it
+        inUseDomestic = current.getInUseDomestic();
+        slavePerDomestic = current.getSlavePerDomesticValue();
+    }
+
+    /**
+     * Get version of the player state after this delta: it can be applied only on previous version
+     *
+     * @return Player state version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Apply changes on a copy of given player state
+     *
+     * @param previous Player state with previous version
+     * @return New player state with all changes applied
+     */
+    public PlayerState applyTo(PlayerState previous) {
+        final PlayerState updated = previous.clone();
+
+        updated.setResources(resources, false);
+        resourcesPenalty.forEach(updated::setPenalty);
+        resourceBonus.forEach((cardType, bonus) ->
+                bonus.forEach((resourceType, quantity) -> updated.setCostBonus(cardType, resourceType, quantity)));
+
+        // Previous state isn't changed: updated lists replace the shared ones
+        addedCards.forEach((type, cards) -> updated.setCards(type, concat(updated.getCards(type), cards)));
+        replacedCards.forEach(updated::setCards);
+
+        addedEffects.forEach((type, effects) -> updated.setEffects(type, concat(updated.getEffects(type), effects)));
+        replacedEffects.forEach(updated::setEffects);
+
+        updated.setInUseDomestic(inUseDomestic);
+        updated.setSlavePerDomesticValue(slavePerDomestic);
+
+        return updated;
+    }
+
+    @Override
+    public void doAction(User user) {
+        Datawarehouse.getInstance().setPlayerState(getUsername(), this);
+    }
+
+    /**
+     * Put in changes vector all values different from previous ones
+     *
+     * @param previous Previous values
+     * @param current Current values
+     * @param changes Vector to put changed values in
+     */
+    private static void diffValues(ResourceVector previous, ResourceVector current, ResourceVector changes) {
+        current.forEach((type, value) -> {
+            if(!previous.has(type) || previous.get(type) != value)
+                changes.set(type, value);
+        });
+    }
+
+    /**
+     * Concatenate two lists
+     *
+     * @param first First list
+     * @param second Second list
+     * @param <V> Element type
+     * @return New list with all elements of first list followed by all elements of second one
+     */
+    private static <V> List<V> concat(List<V> first, List<V> second) {
+        final List<V> list = new ArrayList<>(first.size() + second.size());
+        list.addAll(first);
+        list.addAll(second);
+
+        return list;
+    }
+
+    /**
+     * Put in added map the elements appended to previous list, or the whole list in replaced map
+     * if previous elements have changed
+     *
+     * @param key List key
+     * @param previous Previous list
+     * @param current Current list
+     * @param added Map of appended elements
+     * @param replaced Map of replaced lists
+     * @param <K> Key type
+     * @param <V> Element type
+     */
+    private static <K, V> void diffList(K key, List<V> previous, List<V> current, Map<K, List<V>> added, Map<K, List<V>> replaced) {
+        boolean isPrefix = previous.size() <= current.size();
+
+        // Elements are shared between consecutive states, so identity is enough
+        for (int i = 0; isPrefix && i < previous.size(); i++)
+            isPrefix = previous.get(i) == current.get(i);
+
+        if(!isPrefix)
+            replaced.put(key, new ArrayList<>(current));
+        else if(previous.size() < current.size())
+            added.put(key, new ArrayList<>(current.subList(previous.size(), current.size())));
+    }
+}
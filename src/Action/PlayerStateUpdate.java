@@ -11,13 +11,36 @@ public class PlayerStateUpdate extends UserSpecific implements BaseAction {
 
     private final PlayerState updatedState;
 
+    private final int version;
+
     public PlayerStateUpdate(String username, PlayerState updatedState) {
+        this(username, updatedState, 0);
+    }
+
+    /**
+     * Full player state snapshot, base for following deltas
+     *
+     * @param username Player state owner
+     * @param updatedState Current player state
+     * @param version Version of current player state
+     */
+    public PlayerStateUpdate(String username, PlayerState updatedState, int version) {
         super(username);
         this.updatedState = updatedState;
+        this.version = version;
+    }
+
+    /**
+     * Get player state carried by this update
+     *
+     * @return Updated player state
+     */
+    public PlayerState getUpdatedState() {
+        return updatedState;
     }
 
     @Override
     public void doAction(User user) {
-        Datawarehouse.getInstance().setPlayerState(getUsername(), updatedState);
+        Datawarehouse.getInstance().setPlayerState(getUsername(), updatedState, version);
     }
 }
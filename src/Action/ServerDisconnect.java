@@ -2,7 +2,7 @@ package Action;
 
 import Model.User.User;
 import Model.UserManager;
-import Server.Game.Match;
+import Server.Game.Lobby;
 
 /**
  * Sent from client to server to disconnect the user completely
@@ -11,10 +11,8 @@ public class ServerDisconnect implements BaseAction {
     @Override
     public void doAction(User user) {
 
-        // Abort current match if initialized
-        Match currentMatch = user.getMatch();
-        if(currentMatch != null)
-            currentMatch.abort(user);
+        // Free user seat, or abort current match if already started
+        Lobby.getInstance().removeUser(user);
 
         UserManager.getInstance().disconnectUser(user.getUsername());
     }
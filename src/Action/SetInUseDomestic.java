@@ -15,7 +15,7 @@ import java.util.*;
 /**
  * Created by fiore on 23/05/2017.
  */
-public class SetInUseDomestic implements BaseAction {
+public class SetInUseDomestic implements BaseAction, GameAction {
 
     private final Domestic selectedDomestic;
     private final List<PositionType> requestedPositions;
@@ -57,9 +57,12 @@ public class SetInUseDomestic implements BaseAction {
         // Get current game user
         GameUser gameUser = (GameUser) user.getGameUser();
 
+        // If match or game user are null, game hasn't started yet
+        if(user.getMatch() == null || gameUser == null)
+            return;
+
         // Get current player state
         PlayerState currentState = gameUser.getUserState();
-        final Map<ResourceType, Integer> currentResources = currentState.getResources();
 
         // Create bound domestic or special neutral if necessary
         Domestic inUse;
@@ -80,11 +83,11 @@ public class SetInUseDomestic implements BaseAction {
 
         // Create resource update
         final HashMap<ResourceType, Integer> resourceUpdate = new HashMap<>();
-        resourceUpdate.put(ResourceType.Slave, currentState.getResources().get(ResourceType.Slave) - slaves);
+        resourceUpdate.put(ResourceType.Slave, currentState.getResource(ResourceType.Slave) - slaves);
 
         // If cost bonus is present add bonus to player state
         if(costBonus != null) {
-            costBonus.getResources().forEach((type, bonus) -> resourceUpdate.put(type, currentResources.get(type) + bonus));
+            costBonus.getResources().forEach((type, bonus) -> resourceUpdate.put(type, currentState.getResource(type) + bonus));
         }
 
         // Decrement slaves value
@@ -106,11 +109,11 @@ public class SetInUseDomestic implements BaseAction {
             currentState.setResources(resourceUpdate, false);
             gameUser.updateUserState(currentState);
 
-            // Update all available costs removing bonus resources
-            positions.forEach((number, list) -> {
+            // Update all available costs removing bonus resources (lists are shared with table cache)
+            positions.replaceAll((number, list) -> {
                 // If current list isn't a cost list go ahead
                 if(list.isEmpty() || list.get(0).getClass() != Cost.class)
-                    return;
+                    return list;
 
                 // Create new cost list
                 List<Choosable> costs = new ArrayList<>();
@@ -118,9 +121,8 @@ public class SetInUseDomestic implements BaseAction {
                 // Apply bonus to each cost and update new list
                 list.forEach(cost -> costs.add(((Cost)cost).sum(costBonus, false)));
 
-                // Update list in positions map
-                list.clear();
-                list.addAll(costs);
+                // Replace list in positions map
+                return costs;
             });
 
         }
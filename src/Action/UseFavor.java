@@ -9,7 +9,7 @@ import java.util.List;
 /**
  * Created by fiore on 25/05/2017.
  */
-public class UseFavor implements BaseAction {
+public class UseFavor implements BaseAction, GameAction {
 
     private final List<Effect> chosenFavors;
 
@@ -25,8 +25,13 @@ public class UseFavor implements BaseAction {
     @Override
     public void doAction(User user) {
 
-        // Get current user and player state
+        // Get current user
         GameUser currentUser = (GameUser) user.getGameUser();
+
+        // If match or game user are null, game hasn't started yet
+        if(user.getMatch() == null || currentUser == null)
+            return;
+
         PlayerState currentState = currentUser.getUserState();
 
         // Apply chosen council favors to player state
@@ -38,12 +43,8 @@ public class UseFavor implements BaseAction {
         // Set move completed
         currentUser.setHasMoved(true);
 
-        // Notify if this is last move
-        if(currentUser.getHasMoved()) {
-            synchronized (currentUser){
-                currentUser.notify();
-            }
-        }
+        // Let the turn go ahead if this was last move
+        user.getMatch().moveCompleted(currentUser);
 
     }
 }
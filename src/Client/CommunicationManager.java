@@ -10,6 +10,9 @@ import Networking.CommLink;
 import Networking.Gson.GsonUtils;
 
 import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by andrea on 10/05/2017.
@@ -20,6 +23,13 @@ public class CommunicationManager {
 
     private CommLink commLink;//Link with server
 
+    //Sends heartbeats to the server, which closes links idle for too long
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     //Initializes Communication with server
     private CommunicationManager(CommFactory.LinkType commType, String ip, int port) throws IOException {
         //Seems not needed at this time of project....
@@ -31,6 +41,8 @@ public class CommunicationManager {
         }
 
         commLink.setOnMessage((link, message) -> handleMessageIn(message));
+
+        heartbeat.scheduleAtFixedRate(commLink::sendHeartbeat, CommLink.HEARTBEAT_INTERVAL, CommLink.HEARTBEAT_INTERVAL, TimeUnit.MILLISECONDS);
     }
 
     public static CommunicationManager getInstance() {
@@ -46,6 +58,7 @@ public class CommunicationManager {
         if (commLink == null) return;
         BaseAction action = new ServerDisconnect();
         sendMessage(action);
+        heartbeat.shutdownNow();
         commLink.shutdown();
     }
 
@@ -4,6 +4,7 @@ package Client;
  * Created by andrea on 10/05/17.
  */
 
+import Action.PlayerStateDelta;
 import Client.UI.PlayerStateObserver;
 import Client.UI.TurnObserver;
 import Game.UserObjects.FamilyColor;
@@ -28,6 +29,7 @@ public class Datawarehouse {
     private String whoseTurn;
     private Map<String, GameUser> gameUserMap = new HashMap<>();
     private Map<String, PlayerState> playerStateMap = new HashMap<>();
+    private Map<String, Integer> playerStateVersions = new HashMap<>();
     private List<User> matchAttendees = new ArrayList<>();
 
     //ArrayList of playerstate observers
@@ -121,6 +123,18 @@ public class Datawarehouse {
      * @param playerState
      */
     public void setPlayerState(String username, PlayerState playerState) {
+        setPlayerState(username, playerState, 0);
+    }
+
+    /**
+     * Updates playerState of specified username with a full snapshot
+     * @param username
+     * @param playerState
+     * @param version version of received playerState, base for next deltas
+     */
+    public void setPlayerState(String username, PlayerState playerState, int version) {
+        playerStateVersions.put(username, version);
+
         if (playerStateMap.containsKey(username)) {
             playerStateMap.replace(username, playerState);
         } else {
@@ -131,6 +145,31 @@ public class Datawarehouse {
         playerStateObserverList.forEach((playerStateObserver -> playerStateObserver.onPlayerStateUpdate(playerState, username)));
     }
 
+    /**
+     * Updates playerState of specified username applying changes from previous version
+     * @param username
+     * @param delta changes from the playerState version currently stored
+     */
+    public void setPlayerState(String username, PlayerStateDelta delta) {
+        final PlayerState previous = playerStateMap.get(username);
+        final Integer previousVersion = playerStateVersions.get(username);
+
+        //Delta doesn't apply on current version: wait for next full snapshot
+        if (previous == null || previousVersion == null || previousVersion != delta.getVersion() - 1) {
+            Logger.log(Logger.LogLevel.Warning, "Player state delta out of sequence for " + username + ", waiting for resync.");
+            playerStateVersions.remove(username);
+            return;
+        }
+
+        final PlayerState updated = delta.applyTo(previous);
+
+        playerStateVersions.put(username, delta.getVersion());
+        playerStateMap.replace(username, updated);
+
+        //notify observers
+        playerStateObserverList.forEach((playerStateObserver -> playerStateObserver.onPlayerStateUpdate(updated, username)));
+    }
+
     /**
      * Retrieves gameUser of specified myUser
      *
@@ -104,7 +104,7 @@ public class CommFactory {
 
         // Try to bind client rmi link to server mailbox
         try {
-            final RMIComm link = new RMIComm(newMailBox::clientPost);
+            final RMIComm link = new RMIComm(newMailBox::clientPost, newMailBox::clientPostBatch);
 
             // Set callback method for message received events
             newMailBox.setClientLink(link);
@@ -0,0 +1,139 @@
+package Client;
+
+import Action.DisplayPopup;
+import Logging.Logger;
+import Networking.CommLink;
+import Networking.Gson.GsonUtils;
+import Networking.LinkThreads;
+import Networking.Socket.SocketComm;
+import Server.Networking.Socket.NioSocketAcceptor;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This main is used for testing purpose only: it compares platform and virtual threads link execution
+ * opening many socket clients against an echo server.
+ * <p>
+ * Start the echo server with "server port", then the clients with "clients host port mode count..."
+ * where mode is Platform or Virtual (a separate process for each mode keeps results independent).
+ */
+public class TestClientLoad {
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        Logger.setLogLevel(Logger.LogLevel.Warning);
+
+        if(args.length >= 2 && args[0].equals("server")) {
+            runServer(Integer.parseInt(args[1]));
+            return;
+        }
+
+        if(args.length < 5 || !args[0].equals("clients")) {
+            System.out.println("Usage: server port | clients host port Platform|Virtual count...");
+            return;
+        }
+
+        if(!LinkThreads.setMode(LinkThreads.Mode.valueOf(args[3])))
+            return;
+
+        System.out.println("mode      clients  connect(ms)  threads  heap(MB)  echo p50(us)  echo p99(us)  msg/s");
+
+        for (int i = 4; i < args.length; i++)
+            runClients(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[i]));
+
+        System.exit(0);
+    }
+
+    /**
+     * Echo every message back on the link it was received on
+     *
+     * @param port Listening port
+     */
+    private static void runServer(int port) throws InterruptedException {
+        final NioSocketAcceptor acceptor = new NioSocketAcceptor(link -> link.setOnMessage(
+                (echoLink, message) -> echoLink.sendMessage(GsonUtils.fromGson(message))), port);
+
+        acceptor.listen();
+
+        Thread.currentThread().join();
+    }
+
+    /**
+     * Open given number of clients, then send a message from each client and wait for the echo, for a few rounds
+     *
+     * @param host Echo server host
+     * @param port Echo server port
+     * @param count Number of clients
+     */
+    private static void runClients(String host, int port, int count) throws IOException, InterruptedException {
+        // Every echo latency is kept, so percentiles are exact rather than histogram bucket bounds
+        final long[] echoLatency = new long[count * ROUNDS];
+        final AtomicInteger echoCount = new AtomicInteger(0);
+        final List<CommLink> clients = new ArrayList<>(count);
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < count; i++) {
+            final CommLink client = new SocketComm(new Socket(host, port));
+
+            clients.add(client);
+        }
+
+        final long connectTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        final int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        System.gc();
+        final long heap = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / (1024 * 1024);
+
+        start = System.nanoTime();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            final CountDownLatch echoes = new CountDownLatch(count);
+
+            clients.forEach(client -> client.setOnMessage((link, message) -> {
+                final DisplayPopup echo = (DisplayPopup) GsonUtils.fromGson(message);
+                echoLatency[echoCount.getAndIncrement()] = System.nanoTime() - Long.parseLong(echo.getMessage());
+                echoes.countDown();
+            }));
+
+            clients.forEach(client -> client.sendMessage(new DisplayPopup(DisplayPopup.Level.Normal, String.valueOf(System.nanoTime()))));
+
+            if(!echoes.await(60, TimeUnit.SECONDS))
+                System.out.println("Missing " + echoes.getCount() + " echoes in round " + round);
+        }
+
+        final double throughput = (double) count * ROUNDS / ((System.nanoTime() - start) / 1e9);
+
+        final long[] received = Arrays.copyOf(echoLatency, echoCount.get());
+        Arrays.sort(received);
+
+        System.out.printf("%-9s %7d  %11d  %7d  %8d  %12d  %12d  %5.0f%n", LinkThreads.getMode(), count, connectTime, threads, heap,
+                percentile(received, 50), percentile(received, 99), throughput);
+
+        clients.forEach(CommLink::shutdown);
+    }
+
+    /**
+     * Get given percentile of sorted latencies, nearest rank
+     *
+     * @param sorted Sorted latencies in nanoseconds
+     * @param percentile Percentile in 0-100 range
+     * @return Latency in microseconds, zero if there are no samples
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if(sorted.length == 0)
+            return 0;
+
+        final int rank = (int) Math.ceil(sorted.length * percentile / 100);
+
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(rank, 1) - 1]);
+    }
+}
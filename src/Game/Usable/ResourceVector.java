@@ -0,0 +1,261 @@
+package Game.Usable;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Quantity for each resource type, stored in an array indexed by resource type ordinal.
+ * Only resource types explicitly set are present, so a vector can describe both a full player state
+ * and a sparse cost; arithmetic operations work in place and don't allocate.
+ * Json form is the same of a map from resource type to quantity, with present types only.
+ */
+@JsonAdapter(ResourceVector.GsonAdapter.class)
+public class ResourceVector {
+
+    private static final ResourceType[] TYPES = ResourceType.values();
+
+    private final int[] values = new int[TYPES.length];
+
+    // Bit set of present resource types, by ordinal
+    private int present = 0;
+
+    /**
+     * Initialize an empty resource vector
+     */
+    public ResourceVector() {
+
+    }
+
+    /**
+     * Initialize a resource vector with given quantities
+     *
+     * @param resources Quantity for each resource type (null for an empty vector)
+     */
+    public ResourceVector(Map<ResourceType, Integer> resources) {
+        if(resources != null)
+            resources.forEach(this::set);
+    }
+
+    /**
+     * Clone constructor
+     *
+     * @param toClone Instance to clone
+     */
+    public ResourceVector(ResourceVector toClone) {
+        System.arraycopy(toClone.values, 0, values, 0, values.length);
+        present = toClone.present;
+    }
+
+    /**
+     * Get a vector with all resource types present and zero quantity
+     *
+     * @return New zero vector
+     */
+    public static ResourceVector zero() {
+        final ResourceVector zero = new ResourceVector();
+        zero.present = (1 << TYPES.length) - 1;
+        return zero;
+    }
+
+    /**
+     * Get quantity of given resource type
+     *
+     * @param type Resource type
+     * @return Quantity, zero if type isn't present
+     */
+    public int get(ResourceType type) {
+        return values[type.ordinal()];
+    }
+
+    /**
+     * Check if given resource type is present
+     *
+     * @param type Resource type
+     * @return True if type has been set, false else
+     */
+    public boolean has(ResourceType type) {
+        return (present & (1 << type.ordinal())) != 0;
+    }
+
+    /**
+     * Set quantity of given resource type, which becomes present
+     *
+     * @param type Resource type
+     * @param quantity New quantity
+     */
+    public void set(ResourceType type, int quantity) {
+        values[type.ordinal()] = quantity;
+        present |= 1 << type.ordinal();
+    }
+
+    /**
+     * Add given quantity to given resource type, which becomes present
+     *
+     * @param type Resource type
+     * @param quantity Quantity to add
+     */
+    public void add(ResourceType type, int quantity) {
+        set(type, values[type.ordinal()] + quantity);
+    }
+
+    /**
+     * Add all resources of given vector, types missing here become present
+     *
+     * @param toAdd Resources to add
+     * @return This instance
+     */
+    public ResourceVector add(ResourceVector toAdd) {
+        for (int i = 0; i < values.length; i++)
+            values[i] += toAdd.values[i];
+
+        present |= toAdd.present;
+
+        return this;
+    }
+
+    /**
+     * Subtract resources of given vector from types present here, clamping each result to zero
+     * (types missing here are ignored)
+     *
+     * @param toSubtract Resources to subtract
+     * @return This instance
+     */
+    public ResourceVector subtract(ResourceVector toSubtract) {
+        final int common = present & toSubtract.present;
+
+        for (int i = 0; i < values.length; i++)
+            if((common & (1 << i)) != 0)
+                values[i] = clamp(values[i] - toSubtract.values[i]);
+
+        return this;
+    }
+
+    /**
+     * Clamp given quantity to zero
+     *
+     * @param quantity Resource quantity
+     * @return Quantity if not negative, zero else
+     */
+    private static int clamp(int quantity) {
+        return quantity > 0 ? quantity : 0;
+    }
+
+    /**
+     * Check if this vector has at least the quantity of every type present in given vector
+     *
+     * @param requested Requested resources
+     * @return True if all requested resources are available, false else
+     */
+    public boolean dominates(ResourceVector requested) {
+        for (int i = 0; i < values.length; i++)
+            if((requested.present & (1 << i)) != 0 && values[i] < requested.values[i])
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Check if no resource type is present
+     *
+     * @return True if vector is empty, false else
+     */
+    public boolean isEmpty() {
+        return present == 0;
+    }
+
+    /**
+     * Perform given action for each present resource type, in declaration order
+     *
+     * @param action Action called with resource type and quantity
+     */
+    public void forEach(ObjIntConsumer<ResourceType> action) {
+        for (int i = 0; i < values.length; i++)
+            if((present & (1 << i)) != 0)
+                action.accept(TYPES[i], values[i]);
+    }
+
+    /**
+     * Get present resources as a map
+     *
+     * @return New map from resource type to quantity
+     */
+    public Map<ResourceType, Integer> toMap() {
+        final Map<ResourceType, Integer> map = new EnumMap<>(ResourceType.class);
+
+        forEach(map::put);
+
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(this == obj)
+            return true;
+
+        if(!(obj instanceof ResourceVector))
+            return false;
+
+        final ResourceVector other = (ResourceVector) obj;
+
+        return present == other.present && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * present + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    /**
+     * Gson adapter writing a resource vector as a map from resource type name to quantity
+     */
+    public static class GsonAdapter extends TypeAdapter<ResourceVector> {
+
+        @Override
+        public void write(JsonWriter out, ResourceVector vector) throws IOException {
+            if(vector == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+
+            for (int i = 0; i < TYPES.length; i++)
+                if((vector.present & (1 << i)) != 0)
+                    out.name(TYPES[i].name()).value(vector.values[i]);
+
+            out.endObject();
+        }
+
+        @Override
+        public ResourceVector read(JsonReader in) throws IOException {
+            if(in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            final ResourceVector vector = new ResourceVector();
+
+            in.beginObject();
+
+            while (in.hasNext())
+                vector.set(ResourceType.valueOf(in.nextName()), in.nextInt());
+
+            in.endObject();
+
+            return vector;
+        }
+    }
+}
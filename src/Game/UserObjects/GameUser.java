@@ -31,7 +31,7 @@ public interface GameUser {
     Map<DomesticColor, Domestic> getDomestics();
 
     /**
-     * Get current user state (state is not passed by reference)
+     * Get current user state (state is passed by reference: it must be changed on match executor only)
      *
      * @return Current user state object
      */
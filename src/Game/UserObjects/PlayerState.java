@@ -6,6 +6,7 @@ import Game.Effects.Effect;
 import Game.Effects.EffectType;
 import Game.Positions.PositionType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Server.Game.UserObjects.Domestic;
 import java.util.List;
 import java.util.Map;
@@ -50,13 +51,46 @@ public interface PlayerState extends Cloneable {
      */
     Map<ResourceType, Integer> getResources();
 
+    /**
+     * Get currently available quantity of given resource
+     *
+     * @param type Resource type
+     * @return Available quantity
+     */
+    int getResource(ResourceType type);
+
+    /**
+     * Get all currently available resources as a vector, to be edited and set back
+     *
+     * @return Copy of resources vector
+     */
+    ResourceVector getResourceVector();
+
+    /**
+     * Check if all given resources are available
+     *
+     * @param requested Requested resources
+     * @return True if current resources are enough, false else
+     */
+    boolean hasResources(ResourceVector requested);
+
+    /**
+     * Update current resources
+     *
+     * @param updatedResources Updated resources (only present types are updated)
+     * @param applyPenalty True if resources have been added (resource penalty is applied), false else (no penalty applied)
+     */
+    void setResources(ResourceVector updatedResources, boolean applyPenalty);
+
     /**
      * Update current resources
      *
      * @param updatedResources Updated list of resources
      * @param applyPenalty True if resources have been added (resource penalty is applied), false else (no penalty applied)
      */
-    void setResources(Map<ResourceType, Integer> updatedResources, boolean applyPenalty);
+    default void setResources(Map<ResourceType, Integer> updatedResources, boolean applyPenalty) {
+        setResources(new ResourceVector(updatedResources), applyPenalty);
+    }
 
     /**
      * Apply a penalty of specified quantity on every resource update
@@ -66,6 +100,13 @@ public interface PlayerState extends Cloneable {
      */
     void setPenalty(ResourceType type, int quantity);
 
+    /**
+     * Get penalty applied on every resource update
+     *
+     * @return Copy of penalty quantity for each resource type
+     */
+    ResourceVector getPenalty();
+
     /**
      * Get number of slaves requested to increment domestic value by one
      *
@@ -84,10 +125,18 @@ public interface PlayerState extends Cloneable {
      * Get all effects of requested type
      *
      * @param type Type of effects
-     * @return List of all user's effect of requested type
+     * @return Unmodifiable list of all user's effect of requested type
      */
     List<Effect> getEffects(EffectType type);
 
+    /**
+     * Replace all effects of given type
+     *
+     * @param type Type of effects
+     * @param newEffects New effects list
+     */
+    void setEffects(EffectType type, List<Effect> newEffects);
+
     /**
      * Add an effect to effects list
      *
@@ -106,10 +155,18 @@ public interface PlayerState extends Cloneable {
      * Get number of owned cards of specified type
      *
      * @param type Card's type
-     * @return List of cards of requested type
+     * @return Unmodifiable list of cards of requested type
      */
     List<Card> getCards(CardType type);
 
+    /**
+     * Replace all cards of given type (card effects aren't changed)
+     *
+     * @param type Card's type
+     * @param newCards New cards list
+     */
+    void setCards(CardType type, List<Card> newCards);
+
     /**
      * Set cost bonus for given card type
      *
@@ -123,9 +180,9 @@ public interface PlayerState extends Cloneable {
      * Get resource bonus for given card type
      *
      * @param type Card type
-     * @return Map of resources types and bonus quantity
+     * @return Copy of bonus quantity for each resource type
      */
-    Map<ResourceType, Integer> getCostBonus(CardType type);
+    ResourceVector getCostBonus(CardType type);
 
     /**
      * Get user's comm object
@@ -135,7 +192,7 @@ public interface PlayerState extends Cloneable {
     GameUser getGameUser();
 
     /**
-     * Clone this instance
+     * Clone this instance: unchanged data is shared, so cloning is cheap
      *
      * @return Cloned instance
      */
@@ -0,0 +1,25 @@
+package Model;
+
+/**
+ * Result tag returned by user_authenticate and user_register procedures in their output parameter
+ */
+enum AuthResult {
+    NotFound,
+    WrongPassword,
+    Success,
+    AlreadyExistent;
+
+    /**
+     * Get result matching the code returned by the database
+     *
+     * @param code Procedure output parameter
+     * @return Result for given code
+     * @throws IllegalArgumentException If the code doesn't match any result
+     */
+    static AuthResult fromCode(Object code) throws IllegalArgumentException {
+        if(!(code instanceof Number) || ((Number) code).intValue() < 0 || ((Number) code).intValue() >= values().length)
+            throw new IllegalArgumentException("Unknown authentication result " + code + ".");
+
+        return values()[((Number) code).intValue()];
+    }
+}
@@ -0,0 +1,63 @@
+package Model;
+
+import Model.User.User;
+import Networking.CommLink;
+import Server.Game.Match;
+import java.util.UUID;
+
+/**
+ * Login session of an authenticated user
+ */
+public class Session {
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final long loginTime = System.currentTimeMillis();
+
+    private final User user;
+
+    /**
+     * Create new session for given authenticated user
+     *
+     * @param user Authenticated user
+     */
+    Session(User user) {
+        this.user = user;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUsername() {
+        return user.getUsername();
+    }
+
+    public long getLoginTime() {
+        return loginTime;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Get type of the link used by the user (Socket, RMI...)
+     *
+     * @return Link class name, null if user has no link
+     */
+    public String getLinkType() {
+        final CommLink link = user.getLink();
+
+        return link == null ? null : link.getClass().getSimpleName();
+    }
+
+    /**
+     * Get match the user is currently playing
+     *
+     * @return Current match, null if user is in lobby
+     */
+    public Match getMatch() {
+        return user.getMatch();
+    }
+}
@@ -0,0 +1,97 @@
+package Model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Glicko rating update for multiplayer matches.
+ * A match is rated as a game between each pair of players: the one with more victory points wins,
+ * equal points are a draw. All players are updated together from ratings held before the match.
+ */
+public final class GlickoRating {
+
+    public static final double INITIAL_RATING = 1500;
+
+    public static final double INITIAL_DEVIATION = 350;
+
+    // Deviation never drops below this value, so ratings keep following player skill changes
+    public static final double MIN_DEVIATION = 30;
+
+    private static final double Q = Math.log(10) / 400;
+
+    private GlickoRating() {}
+
+    /**
+     * Update rating of all match players from their final points
+     *
+     * @param finalPoints Final victory points of each player
+     */
+    public static void update(Map<User, Integer> finalPoints) {
+        final List<User> players = new ArrayList<>(finalPoints.keySet());
+        final double[][] newRatings = new double[players.size()][];
+
+        for (int i = 0; i < players.size(); i++) {
+            final User player = players.get(i);
+            final List<double[]> games = new ArrayList<>();
+
+            for (User opponent : players) {
+                if(opponent == player)
+                    continue;
+
+                final int comparison = Integer.compare(finalPoints.get(player), finalPoints.get(opponent));
+
+                games.add(new double[] { opponent.getRating(), opponent.getRatingDeviation(),
+                        comparison > 0 ? 1 : (comparison == 0 ? 0.5 : 0) });
+            }
+
+            newRatings[i] = rate(player.getRating(), player.getRatingDeviation(), games);
+        }
+
+        for (int i = 0; i < players.size(); i++)
+            players.get(i).setRating(newRatings[i][0], newRatings[i][1]);
+    }
+
+    /**
+     * Compute new rating and deviation after given games
+     *
+     * @param rating Player rating
+     * @param deviation Player rating deviation
+     * @param games Opponent rating, opponent deviation and player score (1 win, 0.5 draw, 0 loss) for each game
+     * @return New rating and new deviation
+     */
+    static double[] rate(double rating, double deviation, List<double[]> games) {
+        if(games.isEmpty())
+            return new double[] { rating, deviation };
+
+        double varianceInverse = 0;
+        double improvement = 0;
+
+        for (double[] game : games) {
+            final double g = g(game[1]);
+            final double expected = 1 / (1 + Math.pow(10, -g * (rating - game[0]) / 400));
+
+            varianceInverse += g * g * expected * (1 - expected);
+            improvement += g * (game[2] - expected);
+        }
+
+        varianceInverse *= Q * Q;
+
+        final double precision = 1 / (deviation * deviation) + varianceInverse;
+
+        return new double[] {
+                rating + Q / precision * improvement,
+                Math.max(MIN_DEVIATION, Math.sqrt(1 / precision))
+        };
+    }
+
+    /**
+     * Weight of a game against an opponent with given deviation
+     *
+     * @param deviation Opponent rating deviation
+     * @return Game weight in range 0-1
+     */
+    private static double g(double deviation) {
+        return 1 / Math.sqrt(1 + 3 * Q * Q * deviation * deviation / (Math.PI * Math.PI));
+    }
+}
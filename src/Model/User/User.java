@@ -1,6 +1,7 @@
 package Model.User;
 
 import Action.BaseAction;
+import Action.GameAction;
 import Action.GameUserUpdate;
 import Game.UserObjects.GameUser;
 import Logging.Logger;
@@ -24,6 +25,10 @@ public class User {
 
     private volatile int GameTime;
 
+    private volatile double Rating = GlickoRating.INITIAL_RATING;
+
+    private volatile double RatingDeviation = GlickoRating.INITIAL_DEVIATION;
+
     private volatile transient CommLink link;
 
     private volatile transient GameUser gameUser;
@@ -66,7 +71,14 @@ public class User {
         try {
 
             BaseAction action = GsonUtils.fromGson(message);//Deserialized action
-            action.doAction(this);
+
+            final Match currentMatch = match;
+
+            // Game actions are run by the match, one at a time with other players' actions
+            if(action instanceof GameAction && currentMatch != null)
+                currentMatch.post(this, action);
+            else
+                action.doAction(this);
 
         } catch (JsonSyntaxException e) {
             Logger.log(Logger.LogLevel.Error, "Not a JSON message: " + message + "\n." + e.getMessage());
@@ -88,6 +100,10 @@ public class User {
 
     public int getGameTime() { return GameTime; }
 
+    public double getRating() { return Rating; }
+
+    public double getRatingDeviation() { return RatingDeviation; }
+
     public CommLink getLink() { return link; }
 
     public void setAvatar(String newAvatar) {
@@ -100,6 +116,17 @@ public class User {
 
     public void incrementGameTime(int toAdd) { GameTime += toAdd; }
 
+    /**
+     * Set rating computed at the end of a match
+     *
+     * @param rating New rating
+     * @param deviation New rating deviation
+     */
+    public void setRating(double rating, double deviation) {
+        Rating = rating;
+        RatingDeviation = deviation;
+    }
+
     /**
      * Set comm link for this user and updates its callback
      *
@@ -113,6 +140,16 @@ public class User {
             link.setOnMessage((link, message) -> messageHandler(message));
     }
 
+    /**
+     * Clear link, match and game user of the session that just ended: the same instance is kept in the
+     * user cache and is returned by next login
+     */
+    public void clearSession() {
+        link = null;
+        gameUser = null;
+        match = null;
+    }
+
     /**
      * Get associated game user
      *
@@ -0,0 +1,174 @@
+package Model;
+
+import Logging.Logger;
+import Model.User.User;
+import Server.Networking.SQL.Database;
+import org.jetbrains.annotations.Nullable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind cache of user records.
+ * Updated users are kept in memory and saved to the database in batches, either periodically
+ * or when enough users are waiting. Recently used users are kept for reads with LRU eviction.
+ */
+class UserCache {
+
+    private final Database database;
+
+    private final int batchSize;
+
+    // Recently used users by username, least recently used first
+    private final LinkedHashMap<String, User> recentUsers;
+
+    // Users with changes not yet saved to the database
+    private final Map<String, User> dirtyUsers = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread flushThread = new Thread(runnable, "UserCacheFlush");
+        flushThread.setDaemon(true);
+        return flushThread;
+    });
+
+    /**
+     * Initialize a new cache and start periodic flush
+     *
+     * @param database Database to save users to
+     * @param capacity Maximum number of users kept for reads
+     * @param flushInterval Time between periodic flushes in milliseconds
+     * @param batchSize Number of dirty users which triggers an immediate flush
+     */
+    UserCache(Database database, final int capacity, long flushInterval, int batchSize) {
+        this.database = database;
+        this.batchSize = batchSize;
+
+        recentUsers = new LinkedHashMap<String, User>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, User> eldest) {
+                return size() > capacity;
+            }
+        };
+
+        flushExecutor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get cached user, including users with pending changes
+     *
+     * @param username Username of the user
+     * @return Cached user instance, null if not present
+     */
+    @Nullable User get(String username) {
+        final User dirtyUser = dirtyUsers.get(username);
+
+        if(dirtyUser != null)
+            return dirtyUser;
+
+        synchronized (recentUsers) {
+            return recentUsers.get(username);
+        }
+    }
+
+    /**
+     * Add user read from the database to the cache
+     *
+     * @param user User instance
+     */
+    void put(User user) {
+        synchronized (recentUsers) {
+            recentUsers.put(user.getUsername(), user);
+        }
+    }
+
+    /**
+     * Mark user as changed: the user will be saved to the database with next flush
+     *
+     * @param user Changed user
+     */
+    void markDirty(User user) {
+        put(user);
+        dirtyUsers.put(user.getUsername(), user);
+
+        // Too many pending users: flush now without waiting for the timer
+        if(dirtyUsers.size() >= batchSize && !flushExecutor.isShutdown())
+            try {
+                flushExecutor.execute(this::flush);
+            } catch (RejectedExecutionException ree) {
+                // Cache is shutting down, last flush will save this user
+            }
+    }
+
+    /**
+     * Remove user from the cache dropping pending changes
+     *
+     * @param username Username of the user
+     */
+    void remove(String username) {
+        dirtyUsers.remove(username);
+
+        synchronized (recentUsers) {
+            recentUsers.remove(username);
+        }
+    }
+
+    /**
+     * Save all dirty users to the database in a single batch
+     */
+    void flush() {
+        synchronized (flushLock) {
+
+            if(dirtyUsers.isEmpty())
+                return;
+
+            final List<User> toSave = new ArrayList<>();
+            final List<Object[]> params = new ArrayList<>();
+
+            // Remove before reading values: changes made meanwhile mark the user dirty again
+            for (String username : dirtyUsers.keySet()) {
+                final User user = dirtyUsers.remove(username);
+
+                if(user == null)
+                    continue;
+
+                toSave.add(user);
+                params.add(new Object[] { user.getUsername(), user.getAvatar(), user.getWins(), user.getLosts(), user.getGameTime(),
+                        user.getRating(), user.getRatingDeviation() });
+            }
+
+            try {
+                database.callBatch("user_save", params);
+
+            } catch (SQLException se) {
+                Logger.log(Logger.LogLevel.Warning, "Can't save " + toSave.size() + " users to the database, retrying on next flush.\n" + se.getMessage());
+
+                // Keep users for next flush unless a newer change is already pending
+                toSave.forEach(user -> dirtyUsers.putIfAbsent(user.getUsername(), user));
+            }
+        }
+    }
+
+    /**
+     * Stop periodic flush and save all pending changes
+     */
+    void shutdown() {
+        flushExecutor.shutdown();
+
+        try {
+            flushExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+    }
+}
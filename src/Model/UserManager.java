@@ -5,8 +5,9 @@ import Model.User.*;
 import Server.Networking.SQL.Database;
 import org.jetbrains.annotations.Nullable;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by fiore on 10/05/2017.
@@ -30,7 +31,11 @@ public class UserManager implements UserAuthenticator {
 
     private final Database database;
 
-    private final List<String> authenticatedUsers = new ArrayList<>();
+    // Sessions of authenticated users by username
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    // Recently used users and pending updates
+    private final UserCache userCache;
 
     /**
      * Initialize user manager on given database instance
@@ -39,28 +44,35 @@ public class UserManager implements UserAuthenticator {
      */
     private UserManager(Database dbContext) {
         database = dbContext;
+        userCache = new UserCache(dbContext, 10000, 10000, 100);
     }
 
     @Override
     public User createUser(String username, String passwordHash) throws UserAlreadyExistentException {
 
-        // Check if user is present in the database
-        if(isPresent(username))
-            throw new UserAlreadyExistentException("User " + username + " already present in the database.");
-
         try {
-            List<User> userSet = database.call("user_create",
+            // Insert user and read new row with a single call (result tag in output parameter)
+            final Object[] result = new Object[] { 0 };
+            List<User> userSet = database.call("user_register",
                     new Object[] {username, passwordHash},
-                    User.class);
+                    User.class,
+                    result);
+
+            if(AuthResult.fromCode(result[0]) == AuthResult.AlreadyExistent)
+                throw new UserAlreadyExistentException("User " + username + " already present in the database.");
 
             // If response set is empty return
             if(userSet == null || userSet.isEmpty())
                 return null;
 
+            // New user is logged in right away
+            userCache.put(userSet.get(0));
+            sessions.put(username, new Session(userSet.get(0)));
+
             return userSet.get(0);
 
-        } catch (SQLException se) {
-            Logger.log(Logger.LogLevel.Warning, "Error during user creation on the database.\n" + se.getMessage());
+        } catch (SQLException | IllegalArgumentException e) {
+            Logger.log(Logger.LogLevel.Warning, "Error during user creation on the database.\n" + e.getMessage());
 
             return null;
         }
@@ -69,26 +81,43 @@ public class UserManager implements UserAuthenticator {
     @Override
     public @Nullable User authenticateUser(String username, String passwordHash) throws UserNotFoundException, UserAlreadyLoggedException, WrongPasswordException {
 
-        if(!isPresent(username))
-            throw new UserNotFoundException("User " + username + " isn't present in the database.");
-
-        if(authenticatedUsers.contains(username))
+        // Avoid database call when user is already logged
+        if(sessions.containsKey(username))
             throw new UserAlreadyLoggedException("User" + username + " has already logged on the server.");
 
         try {
-            List<User> loggedUser = database.call("user_login", new Object[] { username, passwordHash }, User.class);
+            // Check user presence and password with a single call (result tag in output parameter)
+            final Object[] result = new Object[] { 0 };
+            List<User> loggedUser = database.call("user_authenticate", new Object[] { username, passwordHash }, User.class, result);
+
+            switch (AuthResult.fromCode(result[0])) {
+                case NotFound:
+                    throw new UserNotFoundException("User " + username + " isn't present in the database.");
+
+                case WrongPassword:
+                    throw new WrongPasswordException("Wrong password for user " + username + ".");
+            }
 
             // If response set is empty return
             if(loggedUser == null || loggedUser.isEmpty())
-                throw new WrongPasswordException("Wrong password for user " + username + ".");
+                return null;
 
-            // Add authenticated user to user list
-            authenticatedUsers.add(loggedUser.get(0).getUsername());
+            // Cached user can have changes not saved to the database yet
+            User user = userCache.get(username);
 
-            return loggedUser.get(0);
+            if(user == null) {
+                user = loggedUser.get(0);
+                userCache.put(user);
+            }
 
-        } catch (SQLException se) {
-            Logger.log(Logger.LogLevel.Warning, "Error while authenticating user " + username + ".\n" + se.getMessage());
+            // Add session only if no other login for the same user completed meanwhile
+            if(sessions.putIfAbsent(username, new Session(user)) != null)
+                throw new UserAlreadyLoggedException("User" + username + " has already logged on the server.");
+
+            return user;
+
+        } catch (SQLException | IllegalArgumentException e) {
+            Logger.log(Logger.LogLevel.Warning, "Error while authenticating user " + username + ".\n" + e.getMessage());
 
             return null;
         }
@@ -97,27 +126,40 @@ public class UserManager implements UserAuthenticator {
     @Override
     public boolean updateUser(User updateUser) throws UserNotFoundException {
 
-        if(!isPresent(updateUser.getUsername()))
-            throw new UserNotFoundException("User " + updateUser.getUsername() + " isn't present in the database.");
+        // Known users are saved in background with next cache flush
+        if(sessions.containsKey(updateUser.getUsername()) || userCache.get(updateUser.getUsername()) != null) {
+            userCache.markDirty(updateUser);
+            return true;
+        }
+
+        List<User> updatedUser;
 
         try {
-            List<User> updatedUser = database.call("user_update",
+            updatedUser = database.call("user_update",
                     new Object[] { updateUser.getUsername(),
                             updateUser.getAvatar(),
                             updateUser.getWins(),
                             updateUser.getLosts(),
-                            updateUser.getGameTime()},
+                            updateUser.getGameTime(),
+                            updateUser.getRating(),
+                            updateUser.getRatingDeviation()},
                     User.class);
 
-            // user_update procedure returns 1 if user has been updated, 0 if user not present
-            if(updatedUser != null && !updatedUser.isEmpty())
-                return updatedUser.size() == 1;
-
         } catch (SQLException se) {
             Logger.log(Logger.LogLevel.Warning, "Can't update user " + updateUser.getUsername() + " in the database.\n" + se.getMessage());
+
+            return false;
         }
 
-        return false;
+        // user_update procedure returns updated user row, empty result if user is not present
+        if(updatedUser != null && updatedUser.isEmpty())
+            throw new UserNotFoundException("User " + updateUser.getUsername() + " isn't present in the database.");
+
+        if(updatedUser == null || updatedUser.size() != 1)
+            return false;
+
+        userCache.put(updateUser);
+        return true;
     }
 
     @Override
@@ -125,42 +167,87 @@ public class UserManager implements UserAuthenticator {
 
         try {
             database.call("user_delete", new Object[] { username }, true);
+            userCache.remove(username);
+
+            // After a successful delete the user isn't present anymore
+            return true;
 
         } catch (SQLException se) {
             Logger.log(Logger.LogLevel.Warning, "Can't delete user " + username + " from the database.\n" + se.getMessage());
         }
 
-        return !isPresent(username);
+        return false;
     }
 
     @Override
     public void disconnectUser(String username) {
-        if(!authenticatedUsers.contains(username))
+        final Session session = sessions.get(username);
+
+        if(session == null)
+            return;
+
+        // Clear session state before removing the session, which lets next login start
+        session.getUser().clearSession();
+
+        if(!sessions.remove(username, session))
             return;
 
-        authenticatedUsers.remove(username);
         Logger.log(Logger.LogLevel.Normal, "User " + username + " disconnected from server.");
     }
 
     /**
-     * Check if requested user is already present in user database
+     * Get session of given user
+     *
+     * @param username Username of the user
+     * @return User session, null if the user isn't logged
+     */
+    public @Nullable Session getSession(String username) {
+        return sessions.get(username);
+    }
+
+    /**
+     * Get number of users currently logged on the server
      *
-     * @param username Username to check
-     * @return True if present
+     * @return Live sessions number
      */
-    private boolean isPresent(String username) {
+    public int getSessionsCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Get user data, from the cache when possible
+     *
+     * @param username Username of the user
+     * @return User instance, null if not present in the database
+     */
+    public @Nullable User getUser(String username) {
+        User user = userCache.get(username);
+
+        if(user != null)
+            return user;
 
         try {
+            final List<User> users = database.call("user_present", new Object[] { username }, User.class);
 
-            List<User> users = database.call("user_present", new Object[] { username }, User.class);
+            if(users == null || users.isEmpty())
+                return null;
+
+            user = users.get(0);
+            userCache.put(user);
 
-            if(users == null || !users.isEmpty())
-                return true;
+            return user;
 
         } catch (SQLException se) {
-            Logger.log(Logger.LogLevel.Warning, "Can't check user presence in the database.\n" + se.getMessage());
+            Logger.log(Logger.LogLevel.Warning, "Can't read user " + username + " from the database.\n" + se.getMessage());
+
+            return null;
         }
+    }
 
-        return false;
+    /**
+     * Save all pending user updates to the database and stop background saving
+     */
+    public void shutdown() {
+        userCache.shutdown();
     }
 }
@@ -1,13 +1,20 @@
 package Networking;
 
 import Action.BaseAction;
+import Networking.Gson.EncodedMessage;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Created by fiore on 10/05/2017.
  */
 public interface CommLink {
 
+    /**
+     * Milliseconds between two heartbeats sent by clients to keep their link alive
+     */
+    long HEARTBEAT_INTERVAL = 15000;
+
     /**
      * Send given message on the comm link
      *
@@ -15,6 +22,16 @@ public interface CommLink {
      */
     void sendMessage(BaseAction message);
 
+    /**
+     * Send given message already wrapped for many links: its serialized form is shared with
+     * the other links it is sent to
+     *
+     * @param message Encoded message to send
+     */
+    default void sendEncoded(EncodedMessage message) {
+        sendMessage(message.getAction());
+    }
+
     /**
      * Set a callback method to be called on new received message
      *
@@ -22,6 +39,44 @@ public interface CommLink {
      */
     void setOnMessage(BiConsumer<CommLink, String> onMessageCallback);
 
+    /**
+     * Send next messages with compact encoding, once the peer asked for it during login.
+     * Links not supporting compact encoding keep sending json messages.
+     */
+    default void setCompactEncoding() {}
+
+    /**
+     * Send an empty frame to tell the peer this end is still alive: the peer only records it as activity
+     */
+    default void sendHeartbeat() {}
+
+    /**
+     * Get time last frame, message or heartbeat, has been received
+     *
+     * @return Time as returned by System.nanoTime(), current time if the link doesn't track activity
+     */
+    default long getLastReceived() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Check if the peer has sent at least one heartbeat: clients older than heartbeats send nothing
+     * while waiting, so their silence doesn't mean the link is dead
+     *
+     * @return True if a heartbeat has been received, false else or if the link doesn't track them
+     */
+    default boolean isHeartbeating() {
+        return false;
+    }
+
+    /**
+     * Set a callback method to be called once when the link is closed, either by the peer, by an
+     * error or by shutdown
+     *
+     * @param onCloseCallback Callback method reference
+     */
+    default void setOnClose(Consumer<CommLink> onCloseCallback) {}
+
     /**
      * Close connection on this link
      */
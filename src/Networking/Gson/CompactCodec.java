@@ -0,0 +1,220 @@
+package Networking.Gson;
+
+import Action.BaseAction;
+import Game.Cards.Card;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact encoding shared by all links: tagged objects carry a numeric type id instead of the class name,
+ * and cards are referenced by their number. Message bodies don't depend on the link they are sent on,
+ * while type names and card data are sent once per link by CompactEncoder, the first time they're used.
+ */
+final class CompactCodec {
+
+    // Prefix of compact frames: json frames always start with '{'
+    static final char FRAME_PREFIX = '~';
+
+    static final String TYPE_ID = "@t";
+
+    static final String DATA = "@d";
+
+    static final String CARD = "@c";
+
+    // Type ids by class name, assigned on first use
+    private static final Map<String, Integer> typeIds = new ConcurrentHashMap<>();
+
+    // Class names by type id
+    private static final List<String> typeNames = new ArrayList<>();
+
+    // Serialized card data (standard json) by card number
+    private static final Map<Integer, String> cardData = new ConcurrentHashMap<>();
+
+    // Body being encoded on current thread
+    private static final ThreadLocal<Body> currentBody = new ThreadLocal<>();
+
+    private static final Gson gson = new GsonBuilder()
+            .registerTypeAdapterFactory(new CompactTagAdapterFactory(GsonUtils.TAGGED_TYPES))
+            .create();
+
+    private CompactCodec() {}
+
+    /**
+     * Encode given message body, collecting type ids and cards it references
+     *
+     * @param message Message to encode
+     * @return Encoded body
+     */
+    static Body encodeBody(BaseAction message) {
+        final Body body = new Body();
+
+        currentBody.set(body);
+
+        try {
+            body.json = gson.toJson(message, BaseAction.class);
+        } finally {
+            currentBody.remove();
+        }
+
+        return body;
+    }
+
+    /**
+     * Get type id for given class name, assigning a new one the first time
+     *
+     * @param typeName Class name
+     * @return Type id
+     */
+    static int getTypeId(String typeName) {
+        final Integer id = typeIds.get(typeName);
+
+        if(id != null)
+            return id;
+
+        synchronized (typeNames) {
+            return typeIds.computeIfAbsent(typeName, name -> {
+                typeNames.add(name);
+                return typeNames.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Get class name for given type id
+     *
+     * @param typeId Type id assigned by getTypeId
+     * @return Class name
+     */
+    static String getTypeName(int typeId) {
+        synchronized (typeNames) {
+            return typeNames.get(typeId);
+        }
+    }
+
+    /**
+     * Get standard json data of the card with given number
+     *
+     * @param number Card number referenced by an encoded body
+     * @return Card data as json string
+     */
+    static String getCardData(int number) {
+        return cardData.get(number);
+    }
+
+    /**
+     * Message body encoded once and shareable between links
+     */
+    static final class Body {
+
+        String json;
+
+        // Type ids used in the body
+        final BitSet types = new BitSet();
+
+        // Card numbers referenced in the body
+        final BitSet cards = new BitSet();
+    }
+
+    /**
+     * Write-only counterpart of TypeTagAdapterFactory for the compact encoding.
+     * Compact frames are expanded to standard json by CompactDecoder, so they are never read back directly.
+     */
+    private static class CompactTagAdapterFactory implements TypeAdapterFactory {
+
+        private final Set<Class<?>> baseTypes;
+
+        private CompactTagAdapterFactory(Class<?>... baseTypes) {
+            this.baseTypes = new HashSet<>(Arrays.asList(baseTypes));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+            if(!(typeToken.getType() instanceof Class) || !baseTypes.contains(typeToken.getType()))
+                return null;
+
+            return (TypeAdapter<T>) new CompactTagAdapter<>(gson);
+        }
+
+        private class CompactTagAdapter<T> extends TypeAdapter<T> {
+
+            private final Gson gson;
+
+            // Concrete adapters by class
+            private final Map<Class<?>, TypeAdapter<T>> adapters = new ConcurrentHashMap<>();
+
+            private CompactTagAdapter(Gson gson) {
+                this.gson = gson;
+            }
+
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                if(value == null) {
+                    out.nullValue();
+                    return;
+                }
+
+                final Class<?> type = value.getClass();
+                final int typeId = getTypeId(type.getName());
+                final Body body = currentBody.get();
+
+                body.types.set(typeId);
+
+                out.beginObject();
+                out.name(TYPE_ID).value(typeId);
+
+                // Cards are static for each number: only the number is written
+                if(value instanceof Card && ((Card) value).getNumber() >= 0) {
+                    final int number = ((Card) value).getNumber();
+
+                    cardData.computeIfAbsent(number, n -> GsonUtils.toJson(value, type));
+                    body.cards.set(number);
+
+                    out.name(CARD).value(number);
+                }
+                else {
+                    out.name(DATA);
+                    getAdapter(type).write(out, value);
+                }
+
+                out.endObject();
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                throw new UnsupportedOperationException("Compact frames must be expanded by CompactDecoder.");
+            }
+
+            @SuppressWarnings("unchecked")
+            private TypeAdapter<T> getAdapter(Class<?> type) {
+                TypeAdapter<T> adapter = adapters.get(type);
+
+                if(adapter != null)
+                    return adapter;
+
+                // Skip this factory only when the concrete type is a base type itself, to avoid looping
+                adapter = (TypeAdapter<T>) (baseTypes.contains(type)
+                        ? gson.getDelegateAdapter(CompactTagAdapterFactory.this, TypeToken.get(type))
+                        : gson.getAdapter(type));
+
+                adapters.putIfAbsent(type, adapter);
+
+                return adapter;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package Networking.Gson;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Compact frame decoder for a single link.
+ * Frames are inflated and expanded back to standard json strings, so message handlers work the same
+ * whatever encoding the peer uses. Frames must be decoded in the same order they were received.
+ * The inflater holds native memory until the decoder is closed, when its link is shut down.
+ */
+public class CompactDecoder {
+
+    // Raw inflate stream shared by all frames of this link
+    private final Inflater inflater = new Inflater(true);
+
+    private final byte[] inflateBuffer = new byte[8192];
+
+    // Definitions received on this link
+    private final Map<Integer, String> typeNames = new HashMap<>();
+
+    private final Map<Integer, JsonElement> cards = new HashMap<>();
+
+    private boolean closed = false;
+
+    /**
+     * Expand given message to standard json if it is a compact frame
+     *
+     * @param frame Message received on the link
+     * @return Json message
+     * @throws JsonParseException If the frame is malformed or references unknown definitions
+     */
+    public synchronized String decode(String frame) throws JsonParseException {
+
+        // Json messages are passed as they are
+        if(frame.isEmpty() || frame.charAt(0) != CompactCodec.FRAME_PREFIX)
+            return frame;
+
+        // Frames still handled while the link shuts down can't be inflated anymore
+        if(closed)
+            throw new JsonParseException("Compact decoder has been closed.");
+
+        final JsonElement parsed = new JsonParser().parse(inflate(frame));
+
+        if(!parsed.isJsonObject() || !parsed.getAsJsonObject().has("m"))
+            throw new JsonParseException("Compact frame without message.");
+
+        final JsonObject compactFrame = parsed.getAsJsonObject();
+
+        // Store new definitions
+        if(compactFrame.has("types"))
+            compactFrame.getAsJsonObject("types").entrySet()
+                    .forEach(type -> typeNames.put(Integer.parseInt(type.getKey()), type.getValue().getAsString()));
+
+        if(compactFrame.has("cards"))
+            compactFrame.getAsJsonObject("cards").entrySet()
+                    .forEach(card -> cards.put(Integer.parseInt(card.getKey()), card.getValue()));
+
+        return expand(compactFrame.get("m")).toString();
+    }
+
+    /**
+     * Release inflater native memory, compact frames can't be decoded afterwards
+     */
+    public synchronized void close() {
+        if(closed)
+            return;
+
+        closed = true;
+        inflater.end();
+    }
+
+    /**
+     * Inflate frame payload with the history of previous frames
+     *
+     * @param frame Compact frame
+     * @return Uncompressed frame json
+     * @throws JsonParseException If the payload isn't a valid deflate block
+     */
+    private String inflate(String frame) throws JsonParseException {
+        final ByteArrayOutputStream inflated = new ByteArrayOutputStream(frame.length() * 4);
+
+        try {
+            inflater.setInput(Base64.getDecoder().decode(frame.substring(1)));
+
+            while (!inflater.needsInput()) {
+                final int count = inflater.inflate(inflateBuffer);
+
+                if(count == 0 && (inflater.finished() || inflater.needsDictionary()))
+                    throw new JsonParseException("Unexpected end of compact stream.");
+
+                inflated.write(inflateBuffer, 0, count);
+            }
+
+        } catch (IllegalArgumentException | DataFormatException e) {
+            throw new JsonParseException("Invalid compact frame payload.\n" + e.getMessage());
+        }
+
+        return new String(inflated.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replace compact tags in given element with standard type tags
+     *
+     * @param element Compact json element
+     * @return Standard json element
+     * @throws JsonParseException If a type id or card isn't defined
+     */
+    private JsonElement expand(JsonElement element) throws JsonParseException {
+
+        if(element.isJsonArray()) {
+            final JsonArray array = element.getAsJsonArray();
+
+            for (int i = 0; i < array.size(); i++)
+                array.set(i, expand(array.get(i)));
+
+            return array;
+        }
+
+        if(!element.isJsonObject())
+            return element;
+
+        final JsonObject object = element.getAsJsonObject();
+
+        // Plain object: expand its members
+        if(!object.has(CompactCodec.TYPE_ID)) {
+            object.entrySet().forEach(member -> member.setValue(expand(member.getValue())));
+            return object;
+        }
+
+        final String typeName = typeNames.get(object.get(CompactCodec.TYPE_ID).getAsInt());
+
+        if(typeName == null)
+            throw new JsonParseException("Undefined type id " + object.get(CompactCodec.TYPE_ID));
+
+        final JsonElement data;
+
+        if(object.has(CompactCodec.CARD)) {
+            data = cards.get(object.get(CompactCodec.CARD).getAsInt());
+
+            if(data == null)
+                throw new JsonParseException("Undefined card " + object.get(CompactCodec.CARD));
+        }
+        else
+            data = object.has(CompactCodec.DATA) ? expand(object.get(CompactCodec.DATA)) : null;
+
+        final JsonObject tagged = new JsonObject();
+        tagged.addProperty("type", typeName);
+        tagged.add("data", data);
+
+        return tagged;
+    }
+}
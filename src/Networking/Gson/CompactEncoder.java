@@ -0,0 +1,134 @@
+package Networking.Gson;
+
+import Action.BaseAction;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.zip.Deflater;
+
+/**
+ * Compact frame encoder for a single link.
+ * Each frame carries the definitions (type names and card data) the peer hasn't received yet, and
+ * is deflated with the history of previous frames on the same link. Frames must then be delivered
+ * in the same order they are encoded: links encode and queue each frame under the same lock, and
+ * encode a frame only after the queue has room for it, since a dropped frame would break the history.
+ * The deflater holds native memory until the encoder is closed, when its link is shut down.
+ */
+public class CompactEncoder {
+
+    // Raw deflate stream shared by all frames of this link
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+
+    private final byte[] deflateBuffer = new byte[8192];
+
+    // Definitions already sent on this link
+    private final BitSet sentTypes = new BitSet();
+
+    private final BitSet sentCards = new BitSet();
+
+    private boolean closed = false;
+
+    /**
+     * Encode given message as a compact frame
+     *
+     * @param message Message to encode
+     * @return Compact frame, without line terminator
+     */
+    public String encode(BaseAction message) {
+        return encode(new EncodedMessage(message));
+    }
+
+    /**
+     * Encode given message as a compact frame, reusing its shared compact body
+     *
+     * @param message Message to encode
+     * @return Compact frame, without line terminator
+     */
+    public synchronized String encode(EncodedMessage message) {
+        if(closed)
+            throw new IllegalStateException("Compact encoder has been closed.");
+
+        final byte[] frame = frame(message.getCompactBody()).getBytes(StandardCharsets.UTF_8);
+        final ByteArrayOutputStream deflated = new ByteArrayOutputStream(frame.length / 4 + 16);
+
+        deflater.setInput(frame);
+
+        // Sync flush makes the frame decodable on its own, given the previous ones
+        int count;
+
+        do {
+            count = deflater.deflate(deflateBuffer, 0, deflateBuffer.length, Deflater.SYNC_FLUSH);
+            deflated.write(deflateBuffer, 0, count);
+        } while (count == deflateBuffer.length);
+
+        // Base64 keeps frames printable and without line terminators
+        return CompactCodec.FRAME_PREFIX + Base64.getEncoder().encodeToString(deflated.toByteArray());
+    }
+
+    /**
+     * Release deflater native memory, no frame can be encoded afterwards
+     */
+    public synchronized void close() {
+        if(closed)
+            return;
+
+        closed = true;
+        deflater.end();
+    }
+
+    /**
+     * Build uncompressed frame with definitions not yet sent and message body
+     *
+     * @param body Encoded message body
+     * @return Frame json
+     */
+    private String frame(CompactCodec.Body body) {
+        final BitSet newTypes = (BitSet) body.types.clone();
+        newTypes.andNot(sentTypes);
+
+        final BitSet newCards = (BitSet) body.cards.clone();
+        newCards.andNot(sentCards);
+
+        final StringBuilder frame = new StringBuilder(body.json.length() + 16).append('{');
+
+        // Type names: {"id":"class name",...}
+        if(!newTypes.isEmpty()) {
+            final StringWriter types = new StringWriter();
+
+            try (JsonWriter typesWriter = new JsonWriter(types)) {
+                typesWriter.beginObject();
+
+                for (int id = newTypes.nextSetBit(0); id >= 0; id = newTypes.nextSetBit(id + 1))
+                    typesWriter.name(String.valueOf(id)).value(CompactCodec.getTypeName(id));
+
+                typesWriter.endObject();
+            } catch (IOException ioe) {
+                throw new IllegalStateException("Can't write type definitions.", ioe);
+            }
+
+            frame.append("\"types\":").append(types).append(',');
+        }
+
+        // Card data: {"number":{...},...}
+        if(!newCards.isEmpty()) {
+            frame.append("\"cards\":{");
+
+            for (int number = newCards.nextSetBit(0); number >= 0; number = newCards.nextSetBit(number + 1))
+                frame.append('"').append(number).append("\":").append(CompactCodec.getCardData(number)).append(',');
+
+            frame.setCharAt(frame.length() - 1, '}');
+            frame.append(',');
+        }
+
+        frame.append("\"m\":").append(body.json).append('}');
+
+        sentTypes.or(newTypes);
+        sentCards.or(newCards);
+
+        return frame.toString();
+    }
+}
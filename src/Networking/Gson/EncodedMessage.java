@@ -0,0 +1,103 @@
+package Networking.Gson;
+
+import Action.BaseAction;
+import Action.Droppable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Message serialized once for many links.
+ * Json text and compact body are built the first time a link asks for them and then shared by all
+ * links the message is sent to: compact links only add their own definitions and compression.
+ */
+public final class EncodedMessage {
+
+    private final BaseAction action;
+
+    private volatile String json;
+
+    // Json text with line terminator, as UTF-8 bytes
+    private volatile ByteBuffer jsonLine;
+
+    private volatile CompactCodec.Body compactBody;
+
+    /**
+     * Wrap given message, no serialization is done until a link needs it
+     *
+     * @param action Message to send
+     */
+    public EncodedMessage(BaseAction action) {
+        this.action = action;
+    }
+
+    public BaseAction getAction() {
+        return action;
+    }
+
+    /**
+     * Check if a congested link can discard this message
+     *
+     * @return True if the message is droppable
+     */
+    public boolean isDroppable() {
+        return action instanceof Droppable;
+    }
+
+    /**
+     * Get message as json text
+     *
+     * @return Json message
+     */
+    public String getJson() {
+        String encoded = json;
+
+        if(encoded == null)
+            synchronized (this) {
+                if(json == null)
+                    json = GsonUtils.toGson(action);
+
+                encoded = json;
+            }
+
+        return encoded;
+    }
+
+    /**
+     * Get message as a json line
+     *
+     * @return Read-only buffer over shared UTF-8 bytes, positioned at the start of the line
+     */
+    public ByteBuffer getJsonLine() {
+        ByteBuffer line = jsonLine;
+
+        if(line == null)
+            synchronized (this) {
+                if(jsonLine == null)
+                    jsonLine = ByteBuffer.wrap((getJson() + "\n").getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+
+                line = jsonLine;
+            }
+
+        // Each link gets its own position over the same bytes
+        return line.duplicate();
+    }
+
+    /**
+     * Get compact body of the message
+     *
+     * @return Compact body, must not be modified
+     */
+    CompactCodec.Body getCompactBody() {
+        CompactCodec.Body body = compactBody;
+
+        if(body == null)
+            synchronized (this) {
+                if(compactBody == null)
+                    compactBody = CompactCodec.encodeBody(action);
+
+                body = compactBody;
+            }
+
+        return body;
+    }
+}
@@ -16,19 +16,24 @@ import com.google.gson.GsonBuilder;
  * Created by andrea on 06/05/17.
  */
 public class GsonUtils {
-    private static Gson gson = null;//gson obj
+    //Declared types written together with their dynamic type
+    static final Class<?>[] TAGGED_TYPES = {
+            BaseAction.class,
+            Game.Effects.Effect.class,
+            Effect.class,
+            Position.class,
+            GameUser.class,
+            PlayerState.class,
+            Choosable.class,
+            Card.class
+    };
+
+    private static final Gson gson = createGson();//gson obj, created once when the class is loaded
 
     //Creates gson builder
-    private static void createGson() {
-        gson = new GsonBuilder()
-                .registerTypeAdapter(BaseAction.class, new MySerializer<BaseAction>())
-                .registerTypeAdapter(Game.Effects.Effect.class, new MySerializer<Game.Effects.Effect>())
-                .registerTypeAdapter(Effect.class, new MySerializer<Effect>())
-                .registerTypeAdapter(Position.class, new MySerializer<Position>())
-                .registerTypeAdapter(GameUser.class, new MySerializer<GameUser>())
-                .registerTypeAdapter(PlayerState.class, new MySerializer<PlayerState>())
-                .registerTypeAdapter(Choosable.class, new MySerializer<Choosable>())
-                .registerTypeAdapter(Card.class, new MySerializer<Card>())
+    private static Gson createGson() {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new TypeTagAdapterFactory(TAGGED_TYPES))
                 .create();//Gson Builder to serialize communication
     }
 
@@ -39,9 +44,6 @@ public class GsonUtils {
      * @return deserialized obj
      */
     public static BaseAction fromGson(String string) {
-        if (gson == null)
-            createGson();
-
         return gson.fromJson(string, BaseAction.class);
     }
 
@@ -52,9 +54,17 @@ public class GsonUtils {
      * @return serialized obj
      */
     public static String toGson(BaseAction baseAction) {
-        if (gson == null)
-            createGson();
-
         return gson.toJson(baseAction, BaseAction.class);
     }
+
+    /**
+     * Serializes given object as declared type
+     *
+     * @param value Object to serialize
+     * @param type Declared type of the object
+     * @return serialized obj
+     */
+    static String toJson(Object value, Class<?> type) {
+        return gson.toJson(value, type);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package Networking.Gson;
+
+import Action.BaseAction;
+import Action.PlayerStateUpdate;
+import Action.PositionChoosables;
+import Game.UserObjects.DomesticColor;
+import Game.UserObjects.FamilyColor;
+import Logging.Logger;
+import Model.User.User;
+import Server.Game.Cards.SplitDeck;
+import Server.Game.Effects.Faith.FaithDeck;
+import Server.Game.GameHelper;
+import Server.Game.UserObjects.GameTable;
+import Server.Game.UserObjects.GameUser;
+import Server.Game.UserObjects.PlayerState;
+import com.google.gson.*;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This main is used for testing purpose only: it compares encoding and decoding of the largest game
+ * messages (PlayerStateUpdate, TowersUpdate, PositionChoosables) through the streaming type tag
+ * factory with the tree based serializer it replaced.
+ * <p>
+ * Run with "TypeTag|Tree" (a separate process for each serializer keeps results independent).
+ */
+public class TestGsonSerialization {
+
+    private static final long WARMUP = TimeUnit.SECONDS.toNanos(3);
+
+    private static final int ROUNDS = 5;
+
+    private static final int OPERATIONS = 20000;
+
+    private static long sink = 0;
+
+    public static void main(String[] args) throws Exception {
+        Logger.setLogLevel(Logger.LogLevel.Warning);
+
+        if(args.length < 1 || !(args[0].equals("TypeTag") || args[0].equals("Tree"))) {
+            System.out.println("Usage: TypeTag|Tree");
+            return;
+        }
+
+        final Gson gson = args[0].equals("TypeTag") ? new GsonBuilder().registerTypeAdapterFactory(new TypeTagAdapterFactory(GsonUtils.TAGGED_TYPES)).create() : treeGson();
+
+        // Messages of the first turn of a four players match
+        final GameUser gameUser = new GameUser(new User("TestUser", 0, 0, 0), FamilyColor.Green);
+        final Map<DomesticColor, Integer> domestics = new HashMap<>();
+        domestics.put(DomesticColor.Orange, 5);
+        domestics.put(DomesticColor.Black, 4);
+        domestics.put(DomesticColor.White, 6);
+        domestics.put(DomesticColor.Neutral, 0);
+        gameUser.setDomestics(domestics);
+
+        final PlayerState state = GameHelper.getInstance().getInitialPS(gameUser, 0);
+        state.setInUseDomestic(gameUser.getDomestics().get(DomesticColor.Black));
+        gameUser.updateUserState(state);
+
+        final SplitDeck deck = new SplitDeck();
+        final GameTable table = GameTable.load(4);
+
+        final BaseAction[] messages = {
+                new PlayerStateUpdate("TestUser", state),
+                table.changeTurn(deck.getCardPerTurn(1), new FaithDeck().getFaithEffect().get(2)),
+                new PositionChoosables(table.getPositions(gameUser, null))
+        };
+
+        System.out.println("serializer  message             round  encode(us)  decode(us)  encode(B)  decode(B)  json(B)");
+
+        for (BaseAction message : messages)
+            run(args[0], gson, message);
+
+        System.out.println(sink);
+    }
+
+    /**
+     * Warm up, then time encoding and decoding of given message for a few rounds
+     *
+     * @param name Serializer name
+     * @param gson Gson instance to test
+     * @param message Message to encode and decode
+     */
+    private static void run(String name, Gson gson, BaseAction message) {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        final String json = gson.toJson(message, BaseAction.class);
+
+        final long warmupEnd = System.nanoTime() + WARMUP;
+
+        while (System.nanoTime() < warmupEnd) {
+            sink += gson.toJson(message, BaseAction.class).length();
+            sink += gson.fromJson(json, BaseAction.class).hashCode();
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+
+            for (int i = 0; i < OPERATIONS; i++)
+                sink += gson.toJson(message, BaseAction.class).length();
+
+            final long encodeTime = System.nanoTime() - start;
+            final long encodeBytes = threads.getThreadAllocatedBytes(thread) - allocated;
+
+            allocated = threads.getThreadAllocatedBytes(thread);
+            start = System.nanoTime();
+
+            for (int i = 0; i < OPERATIONS; i++)
+                sink += gson.fromJson(json, BaseAction.class).hashCode();
+
+            final long decodeTime = System.nanoTime() - start;
+            final long decodeBytes = threads.getThreadAllocatedBytes(thread) - allocated;
+
+            System.out.printf("%-10s  %-18s  %5d  %10.1f  %10.1f  %9d  %9d  %7d%n", name, message.getClass().getSimpleName(), round,
+                    encodeTime / 1000.0 / OPERATIONS, decodeTime / 1000.0 / OPERATIONS,
+                    encodeBytes / OPERATIONS, decodeBytes / OPERATIONS, json.length());
+        }
+    }
+
+    /**
+     * Gson instance with the serializer used before the type tag factory: each tagged value is built as
+     * a json tree, then written
+     *
+     * @return Gson instance
+     */
+    private static Gson treeGson() {
+        final GsonBuilder builder = new GsonBuilder();
+
+        for (Class<?> type : GsonUtils.TAGGED_TYPES)
+            builder.registerTypeAdapter(type, new TreeSerializer<>());
+
+        return builder.create();
+    }
+
+    /**
+     * Serializer replaced by the type tag factory
+     */
+    private static class TreeSerializer<T> implements JsonSerializer<T>, JsonDeserializer<T> {
+
+        @Override
+        public JsonElement serialize(final T o, final Type typeOfSrc, final JsonSerializationContext context) {
+            final JsonObject jsonObject = new JsonObject();
+            jsonObject.addProperty("type", o.getClass().getName());
+            jsonObject.add("data", context.serialize(o, o.getClass()).getAsJsonObject());
+            return jsonObject;
+        }
+
+        @Override
+        public T deserialize(final JsonElement json, final Type typeOfT, final JsonDeserializationContext context) throws JsonParseException {
+            final JsonObject jsonObject = json.getAsJsonObject();
+            final String type = jsonObject.get("type").getAsString();
+
+            try {
+                return context.deserialize(jsonObject.get("data"), Class.forName(type));
+            } catch (ClassNotFoundException e) {
+                throw new JsonParseException("Cannot find class " + type);
+            }
+        }
+    }
+}
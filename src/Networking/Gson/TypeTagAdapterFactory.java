@@ -0,0 +1,163 @@
+package Networking.Gson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gson factory for serialize/deserialize objects keeping dynamic type unmodified.
+ * Objects declared with one of the registered base types are written as {"type": class name, "data": object}.
+ * Concrete type adapters are resolved once for each type name and cached, and values are streamed
+ * directly without building intermediate json trees.
+ */
+public class TypeTagAdapterFactory implements TypeAdapterFactory {
+
+    private final Set<Class<?>> baseTypes;
+
+    /**
+     * Initialize factory for given base types
+     *
+     * @param baseTypes Declared types to write with their dynamic type name
+     */
+    public TypeTagAdapterFactory(Class<?>... baseTypes) {
+        this.baseTypes = new HashSet<>(Arrays.asList(baseTypes));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+
+        // Only exactly declared base types are tagged, as for registered type adapters
+        if(!(typeToken.getType() instanceof Class) || !baseTypes.contains(typeToken.getType()))
+            return null;
+
+        return (TypeAdapter<T>) new TypeTagAdapter<>(gson, (Class<?>) typeToken.getType());
+    }
+
+    /**
+     * Adapter for a single base type, with its cache of concrete type adapters
+     *
+     * @param <T> Base type
+     */
+    private class TypeTagAdapter<T> extends TypeAdapter<T> {
+
+        private final Gson gson;
+
+        private final Class<T> baseType;
+
+        // Concrete adapters by class name
+        private final Map<String, TypeAdapter<T>> adapters = new ConcurrentHashMap<>();
+
+        private TypeTagAdapter(Gson gson, Class<T> baseType) {
+            this.gson = gson;
+            this.baseType = baseType;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if(value == null) {
+                out.nullValue();
+                return;
+            }
+
+            final String type = value.getClass().getName();
+
+            out.beginObject();
+            out.name("type").value(type);
+            out.name("data");
+            getAdapter(type).write(out, value);
+            out.endObject();
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if(in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            String type = null;
+            JsonElement bufferedData = null;
+            T value = null;
+
+            in.beginObject();
+
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "type":
+                        type = in.nextString();
+                        break;
+
+                    case "data":
+                        // Data is streamed when type is already known, else it's kept until type is read
+                        if(type != null)
+                            value = getAdapter(type).read(in);
+                        else
+                            bufferedData = gson.getAdapter(JsonElement.class).read(in);
+                        break;
+
+                    default:
+                        in.skipValue();
+                }
+            }
+
+            in.endObject();
+
+            if(type == null)
+                throw new JsonParseException("Missing type for " + baseType.getName() + " object.");
+
+            if(bufferedData != null)
+                value = getAdapter(type).fromJsonTree(bufferedData);
+
+            return value;
+        }
+
+        /**
+         * Get adapter for given concrete type, resolving it only the first time
+         *
+         * @param type Concrete class name
+         * @return Type adapter for requested class
+         * @throws JsonParseException If the class doesn't exist or isn't a subtype of the base type
+         */
+        private TypeAdapter<T> getAdapter(String type) throws JsonParseException {
+            TypeAdapter<T> adapter = adapters.get(type);
+
+            if(adapter != null)
+                return adapter;
+
+            final Class<?> concreteType;
+
+            // Type name comes from the wire: the class is initialized only once it is known to be a subtype
+            try {
+                concreteType = Class.forName(type, false, baseType.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new JsonParseException("Cannot find class " + type);
+            }
+
+            if(!baseType.isAssignableFrom(concreteType))
+                throw new JsonParseException("Class " + type + " isn't a " + baseType.getName());
+
+            // Skip this factory only when the concrete type is a base type itself, to avoid looping
+            @SuppressWarnings("unchecked")
+            final TypeAdapter<T> concreteAdapter = (TypeAdapter<T>) (baseTypes.contains(concreteType)
+                    ? gson.getDelegateAdapter(TypeTagAdapterFactory.this, TypeToken.get(concreteType))
+                    : gson.getAdapter(concreteType));
+
+            adapters.putIfAbsent(type, concreteAdapter);
+
+            return concreteAdapter;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package Networking;
+
+import Logging.Logger;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Execution mode for threads owned by links (socket reader loops and message executors).
+ * Platform threads are used by default; virtual threads can be enabled with system property
+ * "lorifico.virtualThreads=true" or setMode when the runtime supports them (JDK 21+), so blocking
+ * link code stops costing a platform thread per loop.
+ * Only executors created after a mode change use the new mode.
+ */
+public final class LinkThreads {
+
+    public enum Mode {
+        Platform,
+        Virtual
+    }
+
+    public static final String VIRTUAL_THREADS_PROPERTY = "lorifico.virtualThreads";
+
+    // Virtual thread factory, null if the runtime doesn't support virtual threads
+    private static final ThreadFactory virtualFactory = createVirtualFactory();
+
+    private static volatile Mode mode = Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY) && virtualFactory != null
+            ? Mode.Virtual
+            : Mode.Platform;
+
+    private LinkThreads() {}
+
+    /**
+     * Get current execution mode
+     *
+     * @return Mode used for new link executors
+     */
+    public static Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Set execution mode for link executors created from now on
+     *
+     * @param newMode Requested mode
+     * @return True if the mode has been set, false if virtual threads aren't supported by the runtime
+     */
+    public static boolean setMode(Mode newMode) {
+        if(newMode == Mode.Virtual && virtualFactory == null) {
+            Logger.log(Logger.LogLevel.Warning, "Virtual threads need JDK 21 or later, platform threads will be used.");
+            return false;
+        }
+
+        mode = newMode;
+        return true;
+    }
+
+    /**
+     * Create a new single thread executor running on a thread of current mode
+     *
+     * @return New serial executor
+     */
+    public static ExecutorService newSerialExecutor() {
+        return Executors.newSingleThreadExecutor(mode == Mode.Virtual ? virtualFactory : Executors.defaultThreadFactory());
+    }
+
+    /**
+     * Get virtual thread factory through reflection, so the code still runs on older runtimes
+     *
+     * @return Thread factory creating virtual threads named Link-n, or null if not supported
+     */
+    private static ThreadFactory createVirtualFactory() {
+        try {
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+
+            // Thread.ofVirtual().name("Link-", 0).factory()
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "Link-", 0L);
+
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
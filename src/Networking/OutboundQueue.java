@@ -0,0 +1,220 @@
+package Networking;
+
+import Logging.Logger;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded queue of frames waiting to be written on a link.
+ * Any thread can add frames without blocking, while a single I/O drainer removes them, so a slow
+ * peer only fills its own queue. When the queue is full the overflow policy decides whether droppable
+ * messages are discarded or the link must be closed; critical messages over capacity always close it.
+ * Default capacity and policy can be set with system properties "lorifico.outboundCapacity" and
+ * "lorifico.outboundOverflow" (DropDroppable or Disconnect).
+ *
+ * @param <T> Frame type
+ */
+public class OutboundQueue<T> {
+
+    public enum OverflowPolicy {
+        DropDroppable,
+        Disconnect
+    }
+
+    public enum Result {
+        Queued,
+        Dropped,
+        Overflow
+    }
+
+    public static final String CAPACITY_PROPERTY = "lorifico.outboundCapacity";
+
+    public static final String OVERFLOW_PROPERTY = "lorifico.outboundOverflow";
+
+    private static volatile int defaultCapacity = Integer.getInteger(CAPACITY_PROPERTY, 1024);
+
+    private static volatile OverflowPolicy defaultPolicy = readPolicy();
+
+    private final int capacity;
+
+    private final OverflowPolicy policy;
+
+    private final Queue<T> frames = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    private final AtomicLong dropped = new AtomicLong(0);
+
+    /**
+     * Initialize a new queue with default capacity and policy
+     */
+    public OutboundQueue() {
+        this(defaultCapacity, defaultPolicy);
+    }
+
+    /**
+     * Initialize a new queue
+     *
+     * @param capacity Maximum number of queued frames
+     * @param policy Policy applied when the queue is full
+     */
+    public OutboundQueue(int capacity, OverflowPolicy policy) {
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Set capacity and policy of queues created from now on
+     *
+     * @param capacity Maximum number of queued frames
+     * @param policy Policy applied when the queue is full
+     */
+    public static void setDefaults(int capacity, OverflowPolicy policy) {
+        defaultCapacity = capacity;
+        defaultPolicy = policy;
+    }
+
+    /**
+     * Add given frame if there is room for it
+     *
+     * @param frame Frame to write
+     * @param droppable True if the message can be discarded when the queue is full
+     * @return Queued, Dropped if a droppable frame has been discarded, Overflow if the link must be closed
+     */
+    public Result offer(T frame, boolean droppable) {
+        final Result result = reserve(droppable);
+
+        if(result == Result.Queued)
+            frames.add(frame);
+
+        return result;
+    }
+
+    /**
+     * Build and add a frame only if there is room for it.
+     * Encoders keeping per-link state, as compact encoders do, must not encode frames that are then
+     * dropped: the peer would never see the state change they made.
+     *
+     * @param encoder Builds the frame once its slot is reserved
+     * @param droppable True if the message can be discarded when the queue is full
+     * @return Queued, Dropped if a droppable frame has been discarded, Overflow if the link must be closed
+     */
+    public Result offer(Supplier<? extends T> encoder, boolean droppable) {
+        final Result result = reserve(droppable);
+
+        if(result != Result.Queued)
+            return result;
+
+        final T frame;
+
+        try {
+            frame = encoder.get();
+        } catch (RuntimeException re) {
+            size.decrementAndGet();
+            throw re;
+        }
+
+        frames.add(frame);
+        return Result.Queued;
+    }
+
+    /**
+     * Reserve room for a new frame
+     *
+     * @param droppable True if the message can be discarded when the queue is full
+     * @return Queued if a slot has been reserved, Dropped or Overflow else
+     */
+    private Result reserve(boolean droppable) {
+
+        if(size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+
+            if(droppable && policy == OverflowPolicy.DropDroppable) {
+                dropped.incrementAndGet();
+                return Result.Dropped;
+            }
+
+            return Result.Overflow;
+        }
+
+        return Result.Queued;
+    }
+
+    /**
+     * Get first frame without removing it (drainer only)
+     *
+     * @return First frame or null if empty
+     */
+    public T peek() {
+        return frames.peek();
+    }
+
+    /**
+     * Fill given array with first frames without removing them (drainer only)
+     *
+     * @param batch Array to fill
+     * @return Number of frames copied
+     */
+    public int peek(T[] batch) {
+        final Iterator<T> iterator = frames.iterator();
+        int count = 0;
+
+        while (count < batch.length && iterator.hasNext())
+            batch[count++] = iterator.next();
+
+        return count;
+    }
+
+    /**
+     * Remove first frame (drainer only)
+     *
+     * @return Removed frame or null if empty
+     */
+    public T poll() {
+        final T frame = frames.poll();
+
+        if(frame != null)
+            size.decrementAndGet();
+
+        return frame;
+    }
+
+    public boolean isEmpty() {
+        return frames.isEmpty();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Get number of droppable frames discarded because the queue was full
+     *
+     * @return Dropped frames
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Remove all frames
+     */
+    public void clear() {
+        while (poll() != null);
+    }
+
+    private static OverflowPolicy readPolicy() {
+        final String policy = System.getProperty(OVERFLOW_PROPERTY, OverflowPolicy.DropDroppable.name());
+
+        try {
+            return OverflowPolicy.valueOf(policy);
+        } catch (IllegalArgumentException iae) {
+            Logger.log(Logger.LogLevel.Warning, "Unknown outbound overflow policy " + policy + ", dropping droppable messages.");
+            return OverflowPolicy.DropDroppable;
+        }
+    }
+}
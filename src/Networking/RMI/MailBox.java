@@ -2,6 +2,7 @@ package Networking.RMI;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
 
 /**
  * Created by fiore on 10/05/2017.
@@ -24,6 +25,22 @@ public interface MailBox extends Remote {
      */
     void serverPost(String message) throws RemoteException;
 
+    /**
+     * Post given messages in order with a single call to server receiver
+     *
+     * @param messages Messages to send
+     * @throws RemoteException If rmi is dumb
+     */
+    void clientPostBatch(List<String> messages) throws RemoteException;
+
+    /**
+     * Post given messages in order with a single call to client receiver
+     *
+     * @param messages Messages to send
+     * @throws RemoteException If rmi is dumb
+     */
+    void serverPostBatch(List<String> messages) throws RemoteException;
+
     /**
      * Set callback method for message received event on client
      *
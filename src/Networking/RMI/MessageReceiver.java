@@ -2,6 +2,7 @@ package Networking.RMI;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
 
 /**
  * Created by fiore on 10/05/2017.
@@ -9,4 +10,12 @@ import java.rmi.RemoteException;
 public interface MessageReceiver extends Remote {
 
     void messageReceived(final String message) throws RemoteException;
+
+    /**
+     * Receive messages posted together, in order
+     *
+     * @param messages Received messages
+     * @throws RemoteException If rmi is dumb
+     */
+    void messagesReceived(final List<String> messages) throws RemoteException;
 }
@@ -3,26 +3,110 @@ package Networking.RMI;
 import Action.BaseAction;
 import Logging.Logger;
 import Networking.CommLink;
-import Networking.Gson.GsonUtils;
+import Networking.LinkThreads;
+import Networking.OutboundQueue;
+import Networking.Gson.CompactDecoder;
+import Networking.Gson.CompactEncoder;
+import Networking.Gson.EncodedMessage;
+import com.google.gson.JsonParseException;
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
+import java.rmi.NoSuchObjectException;
 import java.rmi.RemoteException;
+import java.rmi.UnmarshalException;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Created by fiore on 10/05/2017.
  */
 public class RMIComm extends UnicastRemoteObject implements CommLink, MessageReceiver {
 
+    public static final String FLUSH_WINDOW_PROPERTY = "lorifico.rmiFlushWindow";
+
+    // Milliseconds the poster waits for a burst to be queued before posting (messages queued during a post always wait for the next one)
+    private static final long FLUSH_WINDOW = Long.getLong(FLUSH_WINDOW_PROPERTY, 0);
+
+    // Maximum number of messages posted in a single call
+    private static final int MAX_BATCH = 256;
+
     private final transient RemoteConsumer<String> postMethod;
 
+    // Batch post method, null if messages are posted one at a time
+    private final transient RemoteConsumer<List<String>> batchPostMethod;
+
+    // False once the peer turned out not to support batched delivery
+    private volatile transient boolean batchSupported = true;
+
     private volatile transient BiConsumer<CommLink, String> onMessage;
 
-    private final transient ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final transient ExecutorService executor = LinkThreads.newSerialExecutor();
+
+    // Poster thread draining outgoing frames, so senders never wait for remote calls
+    private final transient ExecutorService poster = LinkThreads.newSerialExecutor();
+
+    private final transient OutboundQueue<String> outQueue = new OutboundQueue<>();
+
+    private final transient AtomicBoolean drainScheduled = new AtomicBoolean(false);
+
+    // Encoder for outgoing messages, null while sending json
+    private volatile transient CompactEncoder compactEncoder = null;
+
+    // Held while encoding and queuing a compact frame
+    private final transient ReentrantLock sendLock = new ReentrantLock();
+
+    // Decoder for incoming compact frames (accessed by executor thread only)
+    private final transient CompactDecoder compactDecoder = new CompactDecoder();
+
+    // Time last message has been received, as returned by System.nanoTime()
+    private volatile transient long lastReceived = System.nanoTime();
+
+    // Set once the first heartbeat, an empty message, has been received
+    private volatile transient boolean heartbeating = false;
+
+    private final transient AtomicBoolean closed = new AtomicBoolean(false);
 
+    // Callback for link close, called once
+    private volatile transient Consumer<CommLink> onClose;
+
+    /**
+     * Initialize a new link posting each message with its own remote call
+     *
+     * @param postMethod Single message post method
+     * @throws RemoteException If the link can't be exported
+     */
     public RMIComm(RemoteConsumer<String> postMethod) throws RemoteException {
+        this(postMethod, null);
+    }
+
+    /**
+     * Initialize a new link posting queued messages together: messages queued while a post is in
+     * progress, or within the flush window, are delivered with a single remote call
+     *
+     * @param postMethod Single message post method, used if the peer doesn't support batches
+     * @param batchPostMethod Batch post method
+     * @throws RemoteException If the link can't be exported
+     */
+    public RMIComm(RemoteConsumer<String> postMethod, RemoteConsumer<List<String>> batchPostMethod) throws RemoteException {
         this.postMethod = postMethod;
+        this.batchPostMethod = batchPostMethod;
+    }
+
+    /**
+     * Check if given exception has been thrown because the remote object doesn't have the called method
+     *
+     * @param re Exception thrown by a remote call
+     * @return True if the peer is running a version without the method
+     */
+    public static boolean isUnsupportedCall(RemoteException re) {
+        return re instanceof UnmarshalException || re.getCause() instanceof UnmarshalException;
     }
 
     @Override
@@ -30,11 +114,70 @@ public class RMIComm extends UnicastRemoteObject implements CommLink, MessageRec
         onMessage = onMessageCallback;
     }
 
+    /**
+     * Check if given exception has been thrown because the peer isn't reachable anymore
+     *
+     * @param re Exception thrown by a remote call
+     * @return True if the peer has closed or lost the connection
+     */
+    public static boolean isPeerGone(RemoteException re) {
+        return re instanceof ConnectException || re instanceof ConnectIOException || re instanceof NoSuchObjectException;
+    }
+
     @Override
     public void messageReceived(final String message) {
+        lastReceived = System.nanoTime();
+
+        // Empty messages are heartbeats
+        if(message.equals(""))
+            heartbeating = true;
+        else if(onMessage != null)
+            handleLater(() -> handleMessage(message));
+    }
+
+    @Override
+    public void messagesReceived(final List<String> messages) {
+        lastReceived = System.nanoTime();
+
+        if(messages.contains(""))
+            heartbeating = true;
 
         if(onMessage != null)
-            executor.execute(() -> onMessage.accept(this, message));
+            handleLater(() -> messages.forEach(message -> {
+                if(!message.equals(""))
+                    handleMessage(message);
+            }));
+    }
+
+    /**
+     * Run given handling task on link executor
+     *
+     * @param task Task handling received messages
+     */
+    private void handleLater(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ree) {
+            // Link has been shut down
+        }
+    }
+
+    /**
+     * Expand received message if needed and pass it to the message handler
+     *
+     * @param message Message received from the mailbox
+     */
+    private void handleMessage(String message) {
+        final String json;
+
+        try {
+            json = compactDecoder.decode(message);
+        } catch (JsonParseException jpe) {
+            Logger.log(Logger.LogLevel.Warning, "Malformed compact frame dropped.\n" + jpe.getMessage());
+            return;
+        }
+
+        onMessage.accept(this, json);
     }
 
     @Override
@@ -42,16 +185,224 @@ public class RMIComm extends UnicastRemoteObject implements CommLink, MessageRec
         if(message == null)
             return;
 
+        sendEncoded(new EncodedMessage(message));
+    }
+
+    @Override
+    public void sendEncoded(EncodedMessage message) {
+        final CompactEncoder encoder = compactEncoder;
+        final OutboundQueue.Result result;
+
+        if(encoder == null)
+            result = outQueue.offer(message.getJson(), message.isDroppable());
+        else {
+            // Compact frames must be queued in the same order they are encoded, and never encoded if dropped
+            sendLock.lock();
+
+            try {
+                // Encoder is released by shutdown under the same lock
+                if(closed.get())
+                    return;
+
+                result = outQueue.offer(() -> encoder.encode(message), message.isDroppable());
+            } finally {
+                sendLock.unlock();
+            }
+        }
+
+        if(result == OutboundQueue.Result.Overflow) {
+            Logger.log(Logger.LogLevel.Warning, "Outgoing queue full, closing slow rmi link.");
+            shutdown();
+            return;
+        }
+
+        scheduleDrain();
+    }
+
+    @Override
+    public void sendHeartbeat() {
+
+        // An empty message is skipped by the link on the other end, a congested link can drop it
+        if(outQueue.offer("", true) == OutboundQueue.Result.Queued)
+            scheduleDrain();
+    }
+
+    @Override
+    public long getLastReceived() {
+        return lastReceived;
+    }
+
+    @Override
+    public boolean isHeartbeating() {
+        return heartbeating;
+    }
+
+    @Override
+    public void setOnClose(Consumer<CommLink> onCloseCallback) {
+        onClose = onCloseCallback;
+    }
+
+    /**
+     * Start poster thread unless it is already draining the queue
+     */
+    private void scheduleDrain() {
+        if(drainScheduled.compareAndSet(false, true))
+            try {
+                poster.execute(this::drain);
+            } catch (RejectedExecutionException ree) {
+                // Link has been shut down
+            }
+    }
+
+    /**
+     * Post all queued frames in order (called on poster thread)
+     */
+    private void drain() {
+
+        while (true) {
+            if(batchPostMethod != null && batchSupported)
+                postBatches();
+            else
+                postSingle();
+
+            drainScheduled.set(false);
+
+            // Another frame could have been queued before the flag was reset
+            if(outQueue.isEmpty() || !drainScheduled.compareAndSet(false, true))
+                return;
+        }
+    }
+
+    /**
+     * Post queued frames one at a time
+     */
+    private void postSingle() {
+        String frame;
+
         try {
-            postMethod.accept(GsonUtils.toGson(message));
+            while ((frame = outQueue.peek()) != null) {
+                postMethod.accept(frame);
+                outQueue.poll();
+            }
+
         } catch (RemoteException re) {
+            if(isPeerGone(re)) {
+                peerGone(re);
+                return;
+            }
+
             Logger.log(Logger.LogLevel.Warning, "Can't send message through rmi mailbox.\n" + re.getMessage());
+
+            // Frame can't be delivered, go on with next ones
+            outQueue.poll();
+        }
+    }
+
+    /**
+     * Wait for the flush window, then post queued frames with as few calls as possible
+     */
+    private void postBatches() {
+
+        if(FLUSH_WINDOW > 0)
+            try {
+                Thread.sleep(FLUSH_WINDOW);
+            } catch (InterruptedException ie) {
+                // Link is shutting down
+                return;
+            }
+
+        while (!outQueue.isEmpty()) {
+            final List<String> batch = new ArrayList<>();
+            String frame;
+
+            while (batch.size() < MAX_BATCH && (frame = outQueue.poll()) != null)
+                batch.add(frame);
+
+            try {
+                batchPostMethod.accept(batch);
+
+            } catch (RemoteException re) {
+                if(isPeerGone(re)) {
+                    peerGone(re);
+                    return;
+                }
+
+                if(!isUnsupportedCall(re)) {
+                    Logger.log(Logger.LogLevel.Warning, "Can't send messages through rmi mailbox.\n" + re.getMessage());
+                    continue;
+                }
+
+                batchSupported = false;
+                Logger.log(Logger.LogLevel.Normal, "Rmi peer doesn't support batched delivery, posting messages one at a time.");
+
+                // Deliver this batch with single posts
+                for (String message : batch)
+                    try {
+                        postMethod.accept(message);
+                    } catch (RemoteException pre) {
+                        Logger.log(Logger.LogLevel.Warning, "Can't send message through rmi mailbox.\n" + pre.getMessage());
+                    }
+
+                return;
+            }
         }
     }
 
+    @Override
+    public void setCompactEncoding() {
+        if(compactEncoder == null)
+            compactEncoder = new CompactEncoder();
+    }
+
+    /**
+     * Close the link after a failed post to an unreachable peer
+     *
+     * @param re Exception thrown by the post
+     */
+    private void peerGone(RemoteException re) {
+        Logger.log(Logger.LogLevel.Warning, "Rmi peer unreachable, closing link.\n" + re.getMessage());
+        shutdown();
+    }
+
     @Override
     public void shutdown() {
 
+        // Close only once, whoever asks first
+        if(!closed.compareAndSet(false, true))
+            return;
+
         executor.shutdownNow();
+        poster.shutdownNow();
+        outQueue.clear();
+
+        releaseCodecs();
+
+        // Stop receiving remote calls, so the peer can't keep this link alive
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException nsoe) {
+            // Link wasn't exported
+        }
+
+        final Consumer<CommLink> callback = onClose;
+
+        if(callback != null)
+            callback.accept(this);
+    }
+
+    /**
+     * Release native compression memory of compact codecs, once no frame can be encoded anymore
+     */
+    private void releaseCodecs() {
+        sendLock.lock();
+
+        try {
+            if(compactEncoder != null)
+                compactEncoder.close();
+        } finally {
+            sendLock.unlock();
+        }
+
+        compactDecoder.close();
     }
 }
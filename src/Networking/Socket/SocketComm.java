@@ -3,16 +3,26 @@ package Networking.Socket;
 import Action.BaseAction;
 import Logging.Logger;
 import Networking.CommLink;
-import Networking.Gson.GsonUtils;
+import Networking.LinkThreads;
+import Networking.OutboundQueue;
+import Networking.Gson.CompactDecoder;
+import Networking.Gson.CompactEncoder;
+import Networking.Gson.EncodedMessage;
+import com.google.gson.JsonParseException;
 
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.net.Socket;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import static Logging.Logger.LogLevel;
 
 /**
@@ -23,10 +33,17 @@ public class SocketComm implements CommLink {
     private final Socket socket;
 
     // Listener thread for incoming messages on socket
-    private final ExecutorService postman = Executors.newSingleThreadExecutor();
+    private final ExecutorService postman = LinkThreads.newSerialExecutor();
 
     // Executor thread for message handling
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ExecutorService executor = LinkThreads.newSerialExecutor();
+
+    // Writer thread draining outgoing frames, so senders never block on the socket
+    private final ExecutorService writer = LinkThreads.newSerialExecutor();
+
+    private final OutboundQueue<String> outQueue = new OutboundQueue<>();
+
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
 
     private PrintWriter out;
 
@@ -37,13 +54,34 @@ public class SocketComm implements CommLink {
 
     private volatile boolean listen = false;
 
+    // Time last line has been read, as returned by System.nanoTime()
+    private volatile long lastReceived = System.nanoTime();
+
+    // Set once the first heartbeat, an empty line, has been read
+    private volatile boolean heartbeating = false;
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    // Callback for link close, called once
+    private volatile Consumer<CommLink> onClose;
+
+    // Encoder for outgoing messages, null while sending json
+    private volatile CompactEncoder compactEncoder = null;
+
+    // Held while encoding and queuing a compact frame
+    private final ReentrantLock sendLock = new ReentrantLock();
+
+    // Decoder for incoming compact frames (accessed by executor thread only)
+    private final CompactDecoder compactDecoder = new CompactDecoder();
+
     public SocketComm(Socket socketLink) {
 
         socket = socketLink;
 
         // Initialize output and input stream with corresponding streams from socket
         try {
-            out = new PrintWriter(socketLink.getOutputStream(), true);
+            // Frames are flushed once for each drained batch
+            out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(socketLink.getOutputStream())), false);
 
             in = new BufferedReader(new InputStreamReader(socketLink.getInputStream()));
 
@@ -61,25 +99,68 @@ public class SocketComm implements CommLink {
         onMessage = onMessageCallback;
     }
 
+    /**
+     * Read messages until the peer closes the connection or the link is shut down, then close the link
+     */
     private void inReader() {
 
-        while (true) {
+        while (listen) {
+            final String message;
 
             try {
-                final String message = in.readLine();
-
-                // Every time a non-empty message is read call handler method if has been set
-                if(message != null && !message.equals("") && onMessage != null)
-                    executor.execute(() -> onMessage.accept(this, message));
+                message = in.readLine();
 
             } catch (IOException ioe) {
 
-                // If any exception is thrown check for current status and stop listening if necessary
-                if(!listen)
-                    return;
+                // Exceptions after shutdown are expected: the socket has been closed under the reader
+                if(listen)
+                    Logger.log(LogLevel.Warning, "Error reading from socket.\n" + ioe.getMessage());
+
+                break;
             }
 
+            // End of stream: peer closed the connection
+            if(message == null)
+                break;
+
+            lastReceived = System.nanoTime();
+
+            // Empty lines are heartbeats, every other message is passed to the handler if it has been set
+            if(message.equals("")) {
+                heartbeating = true;
+                continue;
+            }
+
+            if(onMessage == null)
+                continue;
+
+            try {
+                executor.execute(() -> handleMessage(message));
+            } catch (RejectedExecutionException ree) {
+                // Link has been shut down
+                break;
+            }
         }
+
+        shutdown();
+    }
+
+    /**
+     * Expand received message if needed and pass it to the message handler
+     *
+     * @param message Message read from the socket
+     */
+    private void handleMessage(String message) {
+        final String json;
+
+        try {
+            json = compactDecoder.decode(message);
+        } catch (JsonParseException jpe) {
+            Logger.log(LogLevel.Warning, "Malformed compact frame dropped.\n" + jpe.getMessage());
+            return;
+        }
+
+        onMessage.accept(this, json);
     }
 
     @Override
@@ -87,11 +168,116 @@ public class SocketComm implements CommLink {
         if(message == null)
             return;
 
-        out.println(GsonUtils.toGson(message));
+        sendEncoded(new EncodedMessage(message));
+    }
+
+    @Override
+    public void sendEncoded(EncodedMessage message) {
+        final CompactEncoder encoder = compactEncoder;
+        final OutboundQueue.Result result;
+
+        if(encoder == null)
+            result = outQueue.offer(message.getJson(), message.isDroppable());
+        else {
+            // Compact frames must be queued in the same order they are encoded, and never encoded if dropped
+            sendLock.lock();
+
+            try {
+                // Encoder is released by shutdown under the same lock
+                if(closed.get())
+                    return;
+
+                result = outQueue.offer(() -> encoder.encode(message), message.isDroppable());
+            } finally {
+                sendLock.unlock();
+            }
+        }
+
+        if(result == OutboundQueue.Result.Overflow) {
+            Logger.log(LogLevel.Warning, "Outgoing queue full, closing slow socket link.");
+            shutdown();
+            return;
+        }
+
+        scheduleDrain();
+    }
+
+    @Override
+    public void sendHeartbeat() {
+
+        // An empty line is skipped by the reader on the other end, a congested link can drop it
+        if(outQueue.offer("", true) == OutboundQueue.Result.Queued)
+            scheduleDrain();
+    }
+
+    @Override
+    public long getLastReceived() {
+        return lastReceived;
+    }
+
+    @Override
+    public boolean isHeartbeating() {
+        return heartbeating;
+    }
+
+    @Override
+    public void setOnClose(Consumer<CommLink> onCloseCallback) {
+        onClose = onCloseCallback;
+    }
+
+    /**
+     * Start writer thread unless it is already draining the queue
+     */
+    private void scheduleDrain() {
+        if(drainScheduled.compareAndSet(false, true))
+            try {
+                writer.execute(this::drain);
+            } catch (RejectedExecutionException ree) {
+                // Link has been shut down
+            }
+    }
+
+    /**
+     * Write all queued frames and flush them together (called on writer thread)
+     */
+    private void drain() {
+
+        while (true) {
+            String frame;
+
+            while ((frame = outQueue.poll()) != null)
+                out.println(frame);
+
+            out.flush();
+
+            // Print writer doesn't throw: an error on an open link means the connection is broken
+            if(out.checkError() && listen) {
+                Logger.log(LogLevel.Warning, "Error writing on socket, closing link.");
+                shutdown();
+                return;
+            }
+
+            drainScheduled.set(false);
+
+            // Another frame could have been queued before the flag was reset
+            if(outQueue.isEmpty() || !drainScheduled.compareAndSet(false, true))
+                return;
+        }
+    }
+
+    @Override
+    public void setCompactEncoding() {
+        if(compactEncoder == null)
+            compactEncoder = new CompactEncoder();
     }
 
     @Override
     public void shutdown() {
+
+        // Close only once, whoever asks first
+        if(!closed.compareAndSet(false, true))
+            return;
+
         listen = false;
 
         // Close socket connection
@@ -104,5 +290,30 @@ public class SocketComm implements CommLink {
         // Stop all executor threads for this link
         postman.shutdownNow();
         executor.shutdownNow();
+        writer.shutdownNow();
+        outQueue.clear();
+
+        releaseCodecs();
+
+        final Consumer<CommLink> callback = onClose;
+
+        if(callback != null)
+            callback.accept(this);
+    }
+
+    /**
+     * Release native compression memory of compact codecs, once no frame can be encoded anymore
+     */
+    private void releaseCodecs() {
+        sendLock.lock();
+
+        try {
+            if(compactEncoder != null)
+                compactEncoder.close();
+        } finally {
+            sendLock.unlock();
+        }
+
+        compactDecoder.close();
     }
 }
@@ -3,6 +3,7 @@ package Server.Game.Cards;
 import Game.Cards.CardType;
 import Game.Effects.Effect;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.PlayerState;
 import Server.Game.GameHelper;
 import Server.Game.Usable.Cost;
@@ -10,7 +11,6 @@ import Server.Game.Usable.UsableHelper;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -119,7 +119,7 @@ public class Card implements Game.Cards.Card {
         }
 
         // Apply resource discount for this type of card if any
-        Map<ResourceType, Integer> currentResources = currentState.getResources();
+        final ResourceVector currentResources = currentState.getResourceVector();
         UsableHelper.editResources(currentState.getCostBonus(type), currentResources, true);
         currentState.setResources(currentResources, false);
 
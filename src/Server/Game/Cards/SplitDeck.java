@@ -4,7 +4,7 @@ import Game.Cards.*;
 import Game.Effects.Effect;
 import Game.Positions.PositionType;
 import Game.Usable.ResourceType;
-import Networking.Gson.MySerializer;
+import Networking.Gson.TypeTagAdapterFactory;
 import Server.Game.Effects.*;
 import Server.Game.Usable.Cost;
 import com.google.gson.Gson;
@@ -40,7 +40,7 @@ public class SplitDeck {
         Type splitDeckType = new TypeToken<Map<Integer, Map<CardType, List<Card>>>>(){}.getType();
 
         Gson gson = new GsonBuilder()
-                .registerTypeAdapter(Effect.class, new MySerializer<Effect>())
+                .registerTypeAdapterFactory(new TypeTagAdapterFactory(Effect.class))
                 .create();
 
         cardPerTurn = gson.fromJson(new InputStreamReader(splitDeckJson), splitDeckType);
@@ -101,7 +101,7 @@ public class SplitDeck {
 
         Gson gson = new GsonBuilder()
                 .setPrettyPrinting()
-                .registerTypeAdapter(Effect.class, new MySerializer<Effect>())
+                .registerTypeAdapterFactory(new TypeTagAdapterFactory(Effect.class))
                 .create();
 
         String splitDeckJson = gson.toJson(splitDeck, splitDeckType);
@@ -3,6 +3,7 @@ package Server.Game.Effects;
 import Game.Effects.EffectType;
 import Game.Positions.PositionType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Server.Game.Usable.UsableHelper;
 import Game.UserObjects.PlayerState;
 import java.util.Map;
@@ -14,7 +15,7 @@ public class AddResourcesEffect extends Effect {
 
     private final PositionType position;
 
-    private final Map<ResourceType, Integer> resources;
+    private final ResourceVector resources;
 
     /**
      * Initialize new add resources effect
@@ -26,7 +27,7 @@ public class AddResourcesEffect extends Effect {
     public AddResourcesEffect(Map<ResourceType, Integer> resources, int activationValue, PositionType positionType) {
         super(EffectType.Activable, activationValue);
         position = positionType;
-        this.resources = resources;
+        this.resources = new ResourceVector(resources);
     }
 
     /**
@@ -45,7 +46,7 @@ public class AddResourcesEffect extends Effect {
     @Override
     public void apply(PlayerState currentMove) {
         // Get current resources
-        Map<ResourceType, Integer> currentResources = currentMove.getResources();
+        final ResourceVector currentResources = currentMove.getResourceVector();
 
         // Add resources from effect
         UsableHelper.editResources(resources, currentResources, true);
@@ -60,14 +61,11 @@ public class AddResourcesEffect extends Effect {
         if(resources == null || resources.isEmpty())
             return "Ricevi nulla.";
 
-        StringBuilder description = new StringBuilder("Ricevi ");
+        final StringBuilder description = new StringBuilder("Ricevi ");
 
-        for (Map.Entry<ResourceType, Integer> entry : resources.entrySet()) {
-
-            description
-                    .append(entry.getKey().toCostString(entry.getValue()))
-                    .append(", ");
-        }
+        resources.forEach((type, quantity) -> description
+                .append(type.toCostString(quantity))
+                .append(", "));
 
         description
                 .delete(description.length() - 2, description.length())
@@ -4,6 +4,7 @@ import Action.BonusDomesticMove;
 import Game.Effects.EffectType;
 import Game.Positions.PositionType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.PlayerState;
 import Server.Game.Usable.Cost;
 import Server.Game.UserObjects.Domestic;
@@ -20,7 +21,7 @@ public class BonusDomesticEffect extends Effect {
 
     private final int value;
 
-    private final Map<ResourceType, Integer> costBonus;
+    private final ResourceVector costBonus;
 
     /**
      * Additional placement with special domestic of given value in specified positions
@@ -34,7 +35,7 @@ public class BonusDomesticEffect extends Effect {
         super(EffectType.Immediate, 0);
         this.positionsType = positions;
         value = domesticValue;
-        this.costBonus = costBonus;
+        this.costBonus = new ResourceVector(costBonus);
     }
 
     /**
@@ -61,7 +62,7 @@ public class BonusDomesticEffect extends Effect {
 
         Cost bonus = null;
         if(costBonus != null && !costBonus.isEmpty())
-            bonus = new Cost(costBonus);
+            bonus = new Cost(costBonus.toMap());
 
         // Set not moved for current user
         currentUser.setHasMoved(false);
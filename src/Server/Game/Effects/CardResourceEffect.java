@@ -4,8 +4,8 @@ import Game.Cards.CardType;
 import Game.Effects.EffectType;
 import Game.Positions.PositionType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.PlayerState;
-import java.util.Map;
 
 /**
  * Created by fiore on 21/05/2017.
@@ -70,11 +70,11 @@ public class CardResourceEffect extends Effect {
     @Override
     public void apply(PlayerState currentMove) {
 
-        Map<ResourceType, Integer> currentResources = currentMove.getResources();
+        final ResourceVector currentResources = currentMove.getResourceVector();
 
         int ownedCards = currentMove.getCards(cardType).size();
 
-        currentResources.replace(resource, currentResources.get(resource) + (ownedCards * quantity));
+        currentResources.add(resource, ownedCards * quantity);
 
         currentMove.setResources(currentResources, true);
 
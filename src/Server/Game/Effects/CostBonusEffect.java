@@ -3,6 +3,7 @@ package Server.Game.Effects;
 import Game.Cards.CardType;
 import Game.Effects.EffectType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.PlayerState;
 import java.util.Map;
 
@@ -13,9 +14,9 @@ public class CostBonusEffect extends Effect {
 
     private final CardType cardType;
 
-    private final Map<ResourceType, Integer> bonus;
+    private final ResourceVector bonus;
 
-    private volatile boolean isApplied = false;
+    private boolean isApplied = false;
 
     /**
      * Get resource discount on specified type of card
@@ -26,7 +27,7 @@ public class CostBonusEffect extends Effect {
     public CostBonusEffect(CardType cardType, Map<ResourceType, Integer> bonus) {
         super(EffectType.Permanent, 0);
         this.cardType = cardType;
-        this.bonus = bonus;
+        this.bonus = new ResourceVector(bonus);
     }
 
     /**
@@ -9,7 +9,7 @@ public abstract class Effect implements Game.Effects.Effect {
 
     private final EffectType type;
 
-    private volatile int cardNumber;
+    private int cardNumber;
 
     final int activationValue;
 
@@ -4,11 +4,11 @@ import Game.Cards.CardType;
 import Server.Game.Effects.Effect;
 import Game.Effects.EffectType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.PlayerState;
 import Server.Game.Usable.Cost;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -22,7 +22,7 @@ public class CardCostPenaltyEffect extends Effect {
 
     private final int removedPoints;
 
-    private volatile boolean isApplied = false;
+    private boolean isApplied = false;
 
     /**
      * Remove specified amount of victory points for each of the specified resources present in
@@ -59,21 +59,21 @@ public class CardCostPenaltyEffect extends Effect {
         cardCosts.forEach(cost -> {
 
             // Current cost resources
-            final Map<ResourceType, Integer> current = cost.getResources();
+            final ResourceVector current = cost.getResourceVector();
 
             // If requested resource is present increment pointsToRemove
             resourcesType.forEach(resource -> {
-                if(current.containsKey(resource))
+                if(current.has(resource))
                     pointsToRemove.set(current.get(resource) * removedPoints);
             });
 
         });
 
         // Get current user resources
-        Map<ResourceType, Integer> currentResources = currentMove.getResources();
+        final ResourceVector currentResources = currentMove.getResourceVector();
 
         // Remove victory points
-        currentResources.replace(ResourceType.VictoryPoint, currentResources.get(ResourceType.VictoryPoint) - pointsToRemove.get());
+        currentResources.add(ResourceType.VictoryPoint, -pointsToRemove.get());
 
         // Update user resources
         currentMove.setResources(currentResources, false);
@@ -4,6 +4,7 @@ import Game.Cards.CardType;
 import Server.Game.Effects.Effect;
 import Game.Effects.EffectType;
 import Game.UserObjects.PlayerState;
+import java.util.Collections;
 
 /**
  * Created by fiore on 20/05/2017.
@@ -31,9 +32,9 @@ public class CardRemoveEffect extends Effect {
     public void apply(PlayerState currentMove) {
 
         if(cardType == CardType.Challenge)
-            currentMove.getEffects(EffectType.Final).clear();
+            currentMove.setEffects(EffectType.Final, Collections.emptyList());
         else
-            currentMove.getCards(cardType).clear();
+            currentMove.setCards(cardType, Collections.emptyList());
 
     }
 
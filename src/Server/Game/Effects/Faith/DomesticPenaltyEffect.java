@@ -13,7 +13,7 @@ public class DomesticPenaltyEffect extends Effect {
 
     private final int penalty;
 
-    private volatile boolean isApplied = false;
+    private boolean isApplied = false;
 
     /**
      * Apply specified value penalty to all non neutral domestics
@@ -4,7 +4,7 @@ import Game.Cards.CardType;
 import Game.Effects.Effect;
 import Game.Positions.PositionType;
 import Game.Usable.ResourceType;
-import Networking.Gson.MySerializer;
+import Networking.Gson.TypeTagAdapterFactory;
 import Server.Game.Effects.PositionBonusEffect;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -30,7 +30,7 @@ public class FaithDeck {
         Type deckType = new TypeToken<Map<Integer, List<Effect>>>(){}.getType();
 
         Gson gson = new GsonBuilder()
-                .registerTypeAdapter(Effect.class, new MySerializer<Effect>())
+                .registerTypeAdapterFactory(new TypeTagAdapterFactory(Effect.class))
                 .create();
 
         InputStream faithDeckJson = Files
@@ -137,7 +137,7 @@ public class FaithDeck {
 
         Gson gson = new GsonBuilder()
                 .setPrettyPrinting()
-                .registerTypeAdapter(Effect.class, new MySerializer<Effect>())
+                .registerTypeAdapterFactory(new TypeTagAdapterFactory(Effect.class))
                 .create();
 
         String faithDeckJson = gson.toJson(faithDeck, deckType);
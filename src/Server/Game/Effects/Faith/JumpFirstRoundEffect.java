@@ -10,7 +10,7 @@ import Server.Game.UserObjects.GameUser;
  */
 public class JumpFirstRoundEffect extends Effect {
 
-    private volatile boolean applied = false;
+    private boolean applied = false;
 
     public JumpFirstRoundEffect() {
         super(EffectType.Permanent, 0);
@@ -10,7 +10,7 @@ import Game.UserObjects.PlayerState;
  */
 public class MarketDenyEffect extends Effect {
 
-    public volatile boolean isApplied = false;
+    public boolean isApplied = false;
 
     public MarketDenyEffect() {
         super(EffectType.Permanent, 0);
@@ -3,19 +3,21 @@ package Server.Game.Effects.Faith;
 import Server.Game.Effects.Effect;
 import Game.Effects.EffectType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.PlayerState;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by fiore on 20/05/2017.
  */
 public class PointLossEffect extends Effect {
 
-    private final Map<ResourceType, Integer> requestedResources;
+    private final ResourceVector requestedResources;
 
     private final int removedPoints;
 
-    private volatile boolean isApplied = false;
+    private boolean isApplied = false;
 
     /**
      * Remove 'removedValue' victory points for each quantity of specified resources in player state
@@ -25,7 +27,7 @@ public class PointLossEffect extends Effect {
      */
     public PointLossEffect(Map<ResourceType, Integer> requestedResources, int removedValue) {
         super(EffectType.Permanent, 0);
-        this.requestedResources = requestedResources;
+        this.requestedResources = new ResourceVector(requestedResources);
         removedPoints = removedValue;
     }
 
@@ -41,17 +43,16 @@ public class PointLossEffect extends Effect {
             return;
 
         // Get current resources
-        Map<ResourceType, Integer> currentResources = currentMove.getResources();
+        final ResourceVector currentResources = currentMove.getResourceVector();
 
         // Calculate how many victory points to remove
-        int pointsToRemove = 0;
-
-        for (Map.Entry<ResourceType, Integer> resource: requestedResources.entrySet())
-            pointsToRemove += (currentResources.get(resource.getKey()) / resource.getValue()) * removedPoints;
+        final AtomicInteger pointsToRemove = new AtomicInteger(0);
 
+        requestedResources.forEach((type, quantity) ->
+                pointsToRemove.addAndGet((currentResources.get(type) / quantity) * removedPoints));
 
         // Remove victory points
-        currentResources.replace(ResourceType.VictoryPoint, currentResources.get(ResourceType.VictoryPoint) - pointsToRemove);
+        currentResources.add(ResourceType.VictoryPoint, -pointsToRemove.get());
 
         // Set resources in current state
         currentMove.setResources(currentResources, false);
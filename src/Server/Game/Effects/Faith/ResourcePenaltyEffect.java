@@ -3,8 +3,8 @@ package Server.Game.Effects.Faith;
 import Server.Game.Effects.Effect;
 import Game.Effects.EffectType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.PlayerState;
-import Server.Game.Usable.UsableHelper;
 import java.util.Map;
 
 /**
@@ -12,9 +12,9 @@ import java.util.Map;
  */
 public class ResourcePenaltyEffect extends Effect {
 
-    private final Map<ResourceType, Integer> resources;
+    private final ResourceVector resources;
 
-    private volatile boolean isApplied = false;
+    private boolean isApplied = false;
 
     /**
      * Apply a permanent penalty to specified resources
@@ -24,7 +24,7 @@ public class ResourcePenaltyEffect extends Effect {
      */
     public ResourcePenaltyEffect(Map<ResourceType, Integer> penalties) {
         super(EffectType.Permanent, 0);
-        resources = UsableHelper.cloneMap(penalties);
+        resources = new ResourceVector(penalties);
     }
 
     @Override
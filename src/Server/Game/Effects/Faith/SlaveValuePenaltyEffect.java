@@ -11,7 +11,7 @@ public class SlaveValuePenaltyEffect extends Effect {
 
     private final int slavePerValue;
 
-    private volatile boolean isApplied = false;
+    private boolean isApplied = false;
 
     /**
      * Initialize penalty effect on domestic value increment using slaves
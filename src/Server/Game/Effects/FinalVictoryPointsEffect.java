@@ -2,8 +2,8 @@ package Server.Game.Effects;
 
 import Game.Effects.EffectType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.PlayerState;
-import java.util.Map;
 
 /**
  * Created by fiore on 22/05/2017.
@@ -37,9 +37,9 @@ public class FinalVictoryPointsEffect extends Effect {
     @Override
     public void apply(PlayerState currentMove) {
 
-        Map<ResourceType, Integer> currentResources = currentMove.getResources();
+        final ResourceVector currentResources = currentMove.getResourceVector();
 
-        currentResources.replace(ResourceType.VictoryPoint, currentResources.get(ResourceType.VictoryPoint) + quantity);
+        currentResources.add(ResourceType.VictoryPoint, quantity);
 
         currentMove.setResources(currentResources, true);
     }
@@ -2,9 +2,9 @@ package Server.Game.Effects;
 
 import Game.Effects.EffectType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Server.Game.Usable.UsableHelper;
 import Game.UserObjects.PlayerState;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -12,7 +12,7 @@ import java.util.Map;
  */
 public class ImmediateEffect extends Effect {
 
-    private final Map<ResourceType, Integer> resources;
+    private final ResourceVector resources;
 
     /**
      * Initialize an immediate effect with given resources to add
@@ -21,7 +21,7 @@ public class ImmediateEffect extends Effect {
      */
     public ImmediateEffect(Map<ResourceType, Integer> resources) {
         super(EffectType.Immediate, 0);
-        this.resources = resources == null ? new HashMap<>() : resources;
+        this.resources = new ResourceVector(resources);
     }
 
     /**
@@ -40,7 +40,7 @@ public class ImmediateEffect extends Effect {
     public void apply(PlayerState currentMove) {
 
         // Get current resources
-        Map<ResourceType, Integer> currentResources = currentMove.getResources();
+        final ResourceVector currentResources = currentMove.getResourceVector();
 
         // Add resources from effect
         UsableHelper.editResources(resources, currentResources, true);
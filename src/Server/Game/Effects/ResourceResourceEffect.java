@@ -2,8 +2,8 @@ package Server.Game.Effects;
 
 import Game.Effects.EffectType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.PlayerState;
-import java.util.Map;
 
 /**
  * Created by fiore on 21/05/2017.
@@ -44,11 +44,11 @@ public class ResourceResourceEffect extends Effect {
     @Override
     public void apply(PlayerState currentMove) {
 
-        Map<ResourceType, Integer> currentResources = currentMove.getResources();
+        final ResourceVector currentResources = currentMove.getResourceVector();
 
         int toAdd = (currentResources.get(fromResource) / fromQuantity) * toQuantity;
 
-        currentResources.replace(toResource, currentResources.get(toResource) + toAdd);
+        currentResources.add(toResource, toAdd);
 
         currentMove.setResources(currentResources, true);
 
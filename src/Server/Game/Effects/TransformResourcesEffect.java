@@ -3,6 +3,7 @@ package Server.Game.Effects;
 import Game.Effects.EffectType;
 import Game.Positions.PositionType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.PlayerState;
 import Server.Game.Usable.UsableHelper;
 import java.util.Map;
@@ -14,9 +15,9 @@ public class TransformResourcesEffect extends Effect {
 
     private final PositionType position = PositionType.ProductionAction;
 
-    private final Map<ResourceType, Integer> requested;
+    private final ResourceVector requested;
 
-    private final Map<ResourceType, Integer> toAdd;
+    private final ResourceVector toAdd;
 
     /**
      * Transform specified resources
@@ -27,8 +28,8 @@ public class TransformResourcesEffect extends Effect {
      */
     public TransformResourcesEffect(Map<ResourceType, Integer> requested, Map<ResourceType, Integer> toAdd, int activationValue) {
         super(EffectType.Activable, activationValue);
-        this.requested = requested;
-        this.toAdd = toAdd;
+        this.requested = new ResourceVector(requested);
+        this.toAdd = new ResourceVector(toAdd);
     }
 
     /**
@@ -42,21 +43,15 @@ public class TransformResourcesEffect extends Effect {
     @Override
     public boolean canApply(PlayerState currentMove) {
 
-        final Map<ResourceType, Integer> currentResources = currentMove.getResources();
-
         return currentMove.getInUseDomestic().getValue() >= activationValue
                 && currentMove.getCheckingPositionType() == position
-                && requested.entrySet()
-                .parallelStream()
-                .filter(resource ->
-                        currentResources.get(resource.getKey()) < resource.getValue())
-                .count() == 0;
+                && currentMove.hasResources(requested);
     }
 
     @Override
     public void apply(PlayerState currentMove) {
 
-        Map<ResourceType, Integer> currentResources = currentMove.getResources();
+        final ResourceVector currentResources = currentMove.getResourceVector();
 
         UsableHelper.editResources(requested, currentResources, false);
         UsableHelper.editResources(toAdd, currentResources, true);
@@ -67,25 +62,19 @@ public class TransformResourcesEffect extends Effect {
     @Override
     public String getDescription() {
 
-        StringBuilder description = new StringBuilder("Trasforma ");
-
-        for (Map.Entry<ResourceType, Integer> entry : requested.entrySet()) {
+        final StringBuilder description = new StringBuilder("Trasforma ");
 
-            description
-                    .append(entry.getKey().toCostString(entry.getValue()))
-                    .append(", ");
-        }
+        requested.forEach((type, quantity) -> description
+                .append(type.toCostString(quantity))
+                .append(", "));
 
         description
                 .delete(description.length() - 2, description.length())
                 .append(" in ");
 
-        for (Map.Entry<ResourceType, Integer> entry : toAdd.entrySet()) {
-
-            description
-                    .append(entry.getKey().toCostString(entry.getValue()))
-                    .append(", ");
-        }
+        toAdd.forEach((type, quantity) -> description
+                .append(type.toCostString(quantity))
+                .append(", "));
 
         description
                 .delete(description.length() - 2, description.length())
@@ -4,7 +4,7 @@ import Game.Cards.CardType;
 import Game.Effects.Effect;
 import Game.Usable.ResourceType;
 import Logging.Logger;
-import Networking.Gson.MySerializer;
+import Networking.Gson.TypeTagAdapterFactory;
 import Server.Game.UserObjects.GameUser;
 import Server.Game.UserObjects.PlayerState;
 import com.google.gson.Gson;
@@ -52,7 +52,7 @@ public class GameHelper {
         }
 
         Gson gson = new GsonBuilder()
-                .registerTypeAdapter(Effect.class, new MySerializer<Effect>())
+                .registerTypeAdapterFactory(new TypeTagAdapterFactory(Effect.class))
                 .create();
 
         gameHelper = gson.fromJson(jsonInputStream, GameHelper.class);
@@ -135,7 +135,7 @@ public class GameHelper {
     public PlayerState getInitialPS(GameUser boundUser, int bonusGold) {
         final PlayerState newState = initialState.clone();
 
-        bonusGold = newState.getResources().get(ResourceType.Gold) + bonusGold;
+        bonusGold = newState.getResource(ResourceType.Gold) + bonusGold;
 
         newState.setResources(Collections.singletonMap(ResourceType.Gold, bonusGold), false);
 
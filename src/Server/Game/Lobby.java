@@ -1,13 +1,20 @@
 package Server.Game;
 
 import Model.User.User;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Optional;
+import Server.Game.Matchmaking.FifoFillPolicy;
+import Server.Game.Matchmaking.MatchmakingPolicy;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Created by fiore on 10/05/2017.
+ * <p>
+ * Joining users are enqueued without locking, then placed one at a time by the calling thread which
+ * finds the queue idle: the matchmaking policy picks a match from open matches indexed by free seats.
+ * Matches where a leaving user freed a seat are given back to the policy by the same thread.
  */
 public class Lobby extends UserHandler {
 
@@ -23,25 +30,122 @@ public class Lobby extends UserHandler {
 
     }
 
-    private final List<Match> matches = Collections.synchronizedList(new ArrayList<>());
+    private final Set<Match> matches = ConcurrentHashMap.newKeySet();
+
+    private final Queue<User> joiningUsers = new ConcurrentLinkedQueue<>();
+
+    // Matches with a seat freed by a leaving user, to be offered again by the policy
+    private final Queue<Match> reopenedMatches = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean isPlacing = new AtomicBoolean(false);
+
+    private volatile MatchmakingPolicy policy = new FifoFillPolicy();
+
+    /**
+     * Set policy used to choose the match for users joining from now on.
+     * Matches opened by previous policy aren't offered to new users, so this should be set at startup.
+     *
+     * @param newPolicy Matchmaking policy
+     */
+    public void setPolicy(MatchmakingPolicy newPolicy) {
+        policy = newPolicy;
+    }
 
     @Override
-    public synchronized void addUser(User newUser) {
+    public void addUser(User newUser) {
 
         // Add new user to global list
         users.add(newUser);
 
-        // Find the first match where a user can be added or create a new one
-        Optional<Match> firstFreeMatch = matches.parallelStream().filter(match -> !match.isStarted()).findFirst();
+        joiningUsers.add(newUser);
+
+        placeJoiningUsers();
+    }
+
+    /**
+     * Remove given user, who left the server, and free its seat in the match it was waiting in
+     *
+     * @param leftUser User to remove
+     */
+    public void removeUser(User leftUser) {
+
+        // User could have been removed already by another disconnection path
+        if(!users.remove(leftUser))
+            return;
+
+        joiningUsers.remove(leftUser);
+
+        final Match match = leftUser.getMatch();
+
+        if(match != null && match.removeUser(leftUser)) {
+            reopenedMatches.add(match);
+            placeJoiningUsers();
+        }
+    }
+
+    /**
+     * Place all joining users, unless another thread is already doing it
+     */
+    private void placeJoiningUsers() {
+
+        while (isPlacing.compareAndSet(false, true)) {
+            final MatchmakingPolicy currentPolicy = policy;
+            Match reopened;
+            User joiningUser;
+
+            while ((reopened = reopenedMatches.poll()) != null)
+                currentPolicy.add(reopened);
+
+            while ((joiningUser = joiningUsers.poll()) != null)
+                place(joiningUser);
+
+            isPlacing.set(false);
+
+            // Another user could have joined or left before the flag was reset
+            if(joiningUsers.isEmpty() && reopenedMatches.isEmpty())
+                return;
+        }
+    }
+
+    /**
+     * Add given user to the match chosen by current policy or to a new match
+     *
+     * @param newUser User to place
+     */
+    private void place(User newUser) {
+        final MatchmakingPolicy currentPolicy = policy;
+
+        Match match = currentPolicy.select(newUser);
 
-        // If match is present add user else create a new match, add user and add match to matches' list
-        if(firstFreeMatch.isPresent())
-            firstFreeMatch.get().addUser(newUser);
-        else {
-            Match newMatch = new Match(30000, 70000);
-            newMatch.addUser(newUser);
-            matches.add(newMatch);
+        // Selected match could have been started by its countdown in the meantime
+        while (match != null && !match.tryAddUser(newUser))
+            match = currentPolicy.select(newUser);
+
+        if(match == null) {
+            match = new Match(30000, 70000);
+            matches.add(match);
+            match.tryAddUser(newUser);
         }
+
+        currentPolicy.add(match);
+    }
+
+    /**
+     * Notify matchmaking policy that given match doesn't wait for players anymore
+     *
+     * @param started Started match
+     */
+    void matchStarted(Match started) {
+        policy.matchStarted(started);
+    }
+
+    /**
+     * Get matchmaking statistics
+     *
+     * @return Printable statistics of current policy
+     */
+    public String getStatistics() {
+        return "Matches: " + matches.size() + "\n" + policy.getStatistics();
     }
 
     /**
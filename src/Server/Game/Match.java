@@ -5,19 +5,22 @@ import Game.Cards.CardType;
 import Game.Effects.Effect;
 import Game.Effects.EffectType;
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.DomesticColor;
 import Game.UserObjects.FamilyColor;
 import Logging.Logger;
+import Model.User.GlickoRating;
 import Model.User.User;
+import Model.User.UserNotFoundException;
+import Model.UserManager;
 import Server.Game.Cards.SplitDeck;
 import Server.Game.Effects.Faith.FaithDeck;
 import Server.Game.UserObjects.GameTable;
 import Server.Game.UserObjects.GameUser;
 import Server.Game.UserObjects.PlayerState;
-import Server.SingleThreadSchedExErr;
+import Server.HashedWheelTimer;
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -26,6 +29,8 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class Match extends UserHandler {
 
+    public static final int MAX_PLAYERS = 4;
+
     private static AtomicInteger matchCounter = new AtomicInteger(0);
 
     private final int matchNumber = matchCounter.getAndIncrement();
@@ -34,15 +39,30 @@ public class Match extends UserHandler {
 
     private final long moveTimeout;
 
-    private volatile ScheduledExecutorService matchExecutor = new SingleThreadSchedExErr(this::executionErrorHandler);
+    private final MatchExecutor matchExecutor = new MatchExecutor(this::executionErrorHandler);
+
+    private final long openTime = System.nanoTime();
+
+    // Time each user joined the match, as returned by System.nanoTime()
+    private final Map<User, Long> joinTimes = new HashMap<>();
+
+    private volatile HashedWheelTimer.Timeout startCountdown = null;
 
     private volatile boolean isStarted = false;
 
-    private volatile GameTable table;
+    // Game objects below are accessed by match executor only
+
+    private long startTime;
 
-    private volatile SplitDeck cardsDeck;
+    private GameTable table;
 
-    private volatile FaithDeck faithDeck;
+    private SplitDeck cardsDeck;
+
+    private FaithDeck faithDeck;
+
+    private Map<Integer, Effect> faithEffects;
+
+    private Turn currentTurn = null;
 
     public Match(long startDelay, long moveTimeout) {
         this.startDelay = startDelay;
@@ -56,6 +76,10 @@ public class Match extends UserHandler {
      */
     private void executionErrorHandler(Throwable t) {
 
+        // An event still running when the match was aborted can fail on the user who left: nothing left to stop
+        if(matchExecutor.isShutdown())
+            return;
+
         Logger.log(Logger.LogLevel.Error, "Exception thrown during match " + matchNumber + " execution.\n" + t.getMessage());
         t.printStackTrace();
 
@@ -65,7 +89,7 @@ public class Match extends UserHandler {
         sendAll(errorMessage);
         sendAll(endMatch);
 
-        matchExecutor.shutdownNow();
+        matchExecutor.shutdown();
     }
 
     /**
@@ -86,10 +110,49 @@ public class Match extends UserHandler {
         return isStarted;
     }
 
+    /**
+     * Get seats left for new users
+     *
+     * @return Free seats, zero if match has been started or aborted
+     */
+    public int getFreeSeats() {
+        return isStarted || matchExecutor.isShutdown() ? 0 : MAX_PLAYERS - users.size();
+    }
+
+    /**
+     * Get time this match has been opened
+     *
+     * @return Open time as returned by System.nanoTime()
+     */
+    public long getOpenTime() {
+        return openTime;
+    }
+
+    /**
+     * Get time given user joined this match
+     *
+     * @param user Match user
+     * @return Join time as returned by System.nanoTime(), open time if user isn't in this match
+     */
+    public synchronized long getJoinTime(User user) {
+        return joinTimes.getOrDefault(user, openTime);
+    }
+
+    /**
+     * Get average rating of match users
+     *
+     * @return Average rating, initial rating if match is empty
+     */
+    public double getAverageRating() {
+        synchronized (users) {
+            return users.stream().mapToDouble(User::getRating).average().orElse(GlickoRating.INITIAL_RATING);
+        }
+    }
+
     /**
      * Start current match if possible
      */
-    public void start() {
+    public synchronized void start() {
 
         // Check if match is already started
         if(isStarted)
@@ -102,10 +165,12 @@ public class Match extends UserHandler {
         // Set start flag
         isStarted = true;
 
-        // Stop countdown
-        matchExecutor.shutdownNow();
+        // Stop matchmaking for this match
+        Lobby.getInstance().matchStarted(this);
 
-        matchExecutor = new SingleThreadSchedExErr(this::executionErrorHandler);
+        // Stop countdown
+        if(startCountdown != null)
+            startCountdown.cancel();
 
         // Start game
         matchExecutor.execute(this::initGame);
@@ -128,7 +193,10 @@ public class Match extends UserHandler {
     public void abort(User leftUser) {
 
         // Stop match execution
-        matchExecutor.shutdownNow();
+        matchExecutor.shutdown();
+
+        if(startCountdown != null)
+            startCountdown.cancel();
 
         // Create match abort message
         final BaseAction endMatch = new EndMatch(leftUser.getUsername());
@@ -136,47 +204,117 @@ public class Match extends UserHandler {
         // Send message to all players
         sendAll(endMatch);
 
+        // Left user is disconnected, the others don't belong to this match anymore
+        users.remove(leftUser);
+        leftUser.setMatch(null);
+        users.forEach(user -> user.setMatch(null));
+
         // Remove match from list
         Lobby.getInstance().clearMatch(this);
     }
 
-    public synchronized void addUser(User newUser) {
+    @Override
+    public void addUser(User newUser) {
+        tryAddUser(newUser);
+    }
+
+    /**
+     * Add given user if the match is still waiting for players
+     *
+     * @param newUser User to add
+     * @return True if the user has been added, false if match is full, started or aborted
+     */
+    public synchronized boolean tryAddUser(User newUser) {
+        if(getFreeSeats() == 0)
+            return false;
+
         // Add new user to users list
         users.add(newUser);
+        joinTimes.put(newUser, System.nanoTime());
         newUser.setMatch(this);
 
         //Send all match users a list container other attendees
         sendAll(new SendMatchAttendees(users));
 
         // When maximum player
-        if(users.size() == 4) {
+        if(users.size() == MAX_PLAYERS) {
             start();
         }
 
         // When the second users is added start countdown for match start
-        if(users.size() >= 2) {
+        if(users.size() >= 2 && !isStarted) {
+
+            // If a countdown is already running restart it
+            if(startCountdown != null)
+                startCountdown.cancel();
 
-            // If another thread is already waiting shut it down
-            if(!matchExecutor.isShutdown()) {
-                matchExecutor.shutdownNow();
+            // Schedule new match start: the game can start if there are still at least two users
+            startCountdown = matchExecutor.schedule(this::start, startDelay, TimeUnit.MILLISECONDS);
+        }
+
+        return true;
+    }
 
-                // Create new executor because old one can't be used after shutdown
-                matchExecutor = new SingleThreadSchedExErr(this::executionErrorHandler);
-            }
+    /**
+     * Remove given user, who left the server: a match still waiting for players frees the user seat,
+     * while a running match is aborted
+     *
+     * @param leftUser User who left
+     * @return True if the match is still waiting for players with the freed seat
+     */
+    public synchronized boolean removeUser(User leftUser) {
+        // Nothing to do if the match has already been aborted
+        if(!users.contains(leftUser) || matchExecutor.isShutdown())
+            return false;
+
+        if(isStarted) {
+            abort(leftUser);
+            return false;
+        }
 
-            // Schedule new match start
-            matchExecutor.schedule(() -> {
+        users.remove(leftUser);
+        joinTimes.remove(leftUser);
+        leftUser.setMatch(null);
 
-                // If there are at least two users the game can start
-                if (users.size() > 1)
-                    initGame();
+        // Start countdown only runs while there are at least two users
+        if(users.size() < 2 && startCountdown != null)
+            startCountdown.cancel();
 
-            }, startDelay, TimeUnit.MILLISECONDS);
+        // Close the match when the last user leaves
+        if(users.isEmpty()) {
+            matchExecutor.shutdown();
+            Lobby.getInstance().clearMatch(this);
+            return false;
         }
+
+        sendAll(new SendMatchAttendees(users));
+
+        return true;
+    }
+
+    /**
+     * Post given game action to the match mailbox: actions from all players and turn events are run
+     * one at a time on match executor, in arrival order, so game objects are only changed by a single writer
+     *
+     * @param user User who sent the action
+     * @param action Game action to run
+     */
+    public void post(User user, BaseAction action) {
+        matchExecutor.execute(() -> action.doAction(user));
     }
 
     /**
-     * Get current game table if is initialized
+     * Let current turn go ahead if given player has completed its move (called on match executor)
+     *
+     * @param gameUser Game user who performed a move
+     */
+    public void moveCompleted(GameUser gameUser) {
+        if(currentTurn != null)
+            currentTurn.moveCompleted(gameUser);
+    }
+
+    /**
+     * Get current game table if is initialized (called on match executor)
      *
      * @return Initialized game table or null
      */
@@ -229,11 +367,12 @@ public class Match extends UserHandler {
     }
 
     /**
-     * Initialize game objects for match start and takes care of game execution
+     * Initialize game objects for match start and starts first turn
      */
     private void initGame() {
 
         isStarted = true;
+        startTime = System.currentTimeMillis();
 
         // Initialize all users and first round order
         List<GameUser> roundOrder;
@@ -252,40 +391,47 @@ public class Match extends UserHandler {
             return;
         }
 
-        // Game execution
-
-        int turnNumber = 1;
-
         // Get faith cards for this game
-        final Map<Integer, Effect> faithEffects = faithDeck.getFaithEffect();
+        faithEffects = faithDeck.getFaithEffect();
 
         // Send faith cards to all clients
         sendAll(new FaithCardsUpdate(faithEffects));
 
-        // Game consists of 6 turns
-        for ( ; turnNumber <= 6; turnNumber++) {
+        startTurn(1, roundOrder);
+    }
 
-            // Update cards in tower positions for next turn
-            final TowersUpdate cardUpdate = table.changeTurn(cardsDeck.getCardPerTurn(turnNumber), faithEffects.get(turnNumber));
+    /**
+     * Start given turn, or end the game after last turn
+     *
+     * @param turnNumber Number of turn to start
+     * @param roundOrder Players order for first round of the turn
+     */
+    private void startTurn(final int turnNumber, List<GameUser> roundOrder) {
 
-            // Send card update to all clients
-            sendAll(cardUpdate);
+        // Game consists of 6 turns: convert all to victory points and determine game winner at the end
+        if(turnNumber > 6) {
+            currentTurn = null;
+            endCheck(roundOrder);
+            return;
+        }
 
-            // Throw dice for this turn
-            final Map<DomesticColor, Integer> diceValues = table.getDiceValue();
+        // Update cards in tower positions for next turn
+        final TowersUpdate cardUpdate = table.changeTurn(cardsDeck.getCardPerTurn(turnNumber), faithEffects.get(turnNumber));
 
-            // Update domestic values for current turn
-            roundOrder.forEach(user -> user.setDomestics(diceValues));
+        // Send card update to all clients
+        sendAll(cardUpdate);
 
-            // Initialize new turn object to perform all rounds
-            Turn current = new Turn(turnNumber, roundOrder, table, moveTimeout);
+        // Throw dice for this turn
+        final Map<DomesticColor, Integer> diceValues = table.getDiceValue();
 
-            // Play all rounds for current turn and get order list for next turn
-            roundOrder = current.playAllRounds();
-        }
+        // Update domestic values for current turn
+        roundOrder.forEach(user -> user.setDomestics(diceValues));
+
+        // Initialize new turn object to perform all rounds, next turn starts when this one ends
+        currentTurn = new Turn(turnNumber, roundOrder, table, moveTimeout, matchExecutor,
+                nextOrder -> startTurn(turnNumber + 1, nextOrder));
 
-        // Convert all to victory points and determine game winner at the end
-        endCheck(roundOrder);
+        currentTurn.start();
     }
 
     /**
@@ -294,7 +440,7 @@ public class Match extends UserHandler {
     private void endCheck(List<GameUser> users) {
 
         // Sort users for military points
-        users.sort(Comparator.comparingInt(a -> a.getUserState().getResources().get(ResourceType.MilitaryPoint)));
+        users.sort(Comparator.comparingInt(a -> a.getUserState().getResource(ResourceType.MilitaryPoint)));
 
         final Map<GameUser, Integer> military = new HashMap<>();
         military.put(users.get(0), 1);
@@ -304,7 +450,7 @@ public class Match extends UserHandler {
             final GameUser current = users.get(i);
             final GameUser previous = users.get(i - 1);
 
-            if(current.getUserState().getResources().get(ResourceType.MilitaryPoint) < previous.getUserState().getResources().get(ResourceType.MilitaryPoint))
+            if(current.getUserState().getResource(ResourceType.MilitaryPoint) < previous.getUserState().getResource(ResourceType.MilitaryPoint))
                 military.put(current, military.get(previous) + 1);
 
             military.put(current, military.get(previous));
@@ -314,7 +460,7 @@ public class Match extends UserHandler {
         users.forEach(user -> convertToVictory(user, military.get(user)));
 
         // Order by victory points
-        users.sort(Comparator.comparingInt(user -> user.getUserState().getResources().get(ResourceType.VictoryPoint)));
+        users.sort(Comparator.comparingInt(user -> user.getUserState().getResource(ResourceType.VictoryPoint)));
 
         // Create end match message
         final BaseAction endMatch = new EndMatch(users);
@@ -322,6 +468,9 @@ public class Match extends UserHandler {
         // Send message to all players
         sendAll(endMatch);
 
+        // Winner is the last one after sorting by victory points
+        updateStatistics(users.get(users.size() - 1));
+
         // Remove match from list
         Lobby.getInstance().clearMatch(this);
     }
@@ -346,7 +495,7 @@ public class Match extends UserHandler {
         // Add military way bonus
         victoryPoints += GameHelper.getInstance().getMilitaryBonus(militaryWayPosition);
 
-        final Map<ResourceType, Integer> finalResources = currentState.getResources();
+        final ResourceVector finalResources = currentState.getResourceVector();
 
         // Add faith way bonus
         victoryPoints += GameHelper.getInstance().getFaithBonus(finalResources.get(ResourceType.FaithPoint));
@@ -358,7 +507,7 @@ public class Match extends UserHandler {
         victoryPoints += totalResourcesLeft / 5;
 
         // Update victory points
-        finalResources.replace(ResourceType.VictoryPoint, finalResources.get(ResourceType.VictoryPoint) + victoryPoints);
+        finalResources.add(ResourceType.VictoryPoint, victoryPoints);
         currentState.setResources(finalResources, true);
 
         // Apply all final effects
@@ -370,4 +519,38 @@ public class Match extends UserHandler {
         // Update user state
         user.updateUserState(currentState);
     }
+
+    /**
+     * Update wins, losts, game time and rating of all players and save them
+     *
+     * @param winner Game user who won the match
+     */
+    private void updateStatistics(GameUser winner) {
+        final int gameTime = (int) ((System.currentTimeMillis() - startTime) / 1000);
+        final UserManager userManager = UserManager.getInstance();
+
+        // Rate players by final victory points
+        final Map<User, Integer> finalPoints = new HashMap<>();
+        this.users.forEach(user -> finalPoints.put(user,
+                user.getGameUser().getUserState().getResource(ResourceType.VictoryPoint)));
+
+        GlickoRating.update(finalPoints);
+
+        this.users.forEach(user -> {
+            if(user.getGameUser() == winner)
+                user.incrementWins();
+            else
+                user.incrementLosts();
+
+            user.incrementGameTime(gameTime);
+
+            // Saved in background by user manager cache
+            if(userManager != null)
+                try {
+                    userManager.updateUser(user);
+                } catch (UserNotFoundException unfe) {
+                    Logger.log(Logger.LogLevel.Warning, "Can't save statistics for user " + user.getUsername() + ".\n" + unfe.getMessage());
+                }
+        });
+    }
 }
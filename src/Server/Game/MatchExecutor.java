@@ -0,0 +1,130 @@
+package Server.Game;
+
+import Server.HashedWheelTimer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Serial event executor for a single match, running on a thread pool shared by all matches.
+ * Events of the same match never run concurrently and are handled in submission order, while
+ * a match waiting for players doesn't hold any thread: thread count depends only on available
+ * processors, not on the number of running matches. Delayed events are kept by the server-wide
+ * hashed-wheel timer.
+ */
+public class MatchExecutor implements Executor {
+
+    // Maximum number of events handled in a row before giving the thread back to other matches
+    private static final int EVENTS_BATCH = 32;
+
+    private static final AtomicInteger threadCounter = new AtomicInteger(0);
+
+    private static final ExecutorService sharedPool = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            runnable -> {
+                final Thread matchThread = new Thread(runnable, "Match-" + threadCounter.getAndIncrement());
+                matchThread.setDaemon(true);
+                return matchThread;
+            });
+
+    private final Consumer<Throwable> exceptionHandler;
+
+    private final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+
+    private volatile boolean isShutdown = false;
+
+    /**
+     * Initialize a new match executor
+     *
+     * @param exceptionHandler Called on executor thread when an event throws
+     */
+    public MatchExecutor(Consumer<Throwable> exceptionHandler) {
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * Enqueue given event, to be run after all events already submitted
+     *
+     * @param event Event to run
+     */
+    @Override
+    public void execute(Runnable event) {
+        if(isShutdown)
+            return;
+
+        events.add(event);
+
+        if(isScheduled.compareAndSet(false, true))
+            sharedPool.execute(this::runEvents);
+    }
+
+    /**
+     * Enqueue given event after the delay
+     *
+     * @param event Event to run
+     * @param delay Delay before the event is enqueued
+     * @param unit Delay time unit
+     * @return Timeout to cancel the event before it is enqueued
+     */
+    public HashedWheelTimer.Timeout schedule(Runnable event, long delay, TimeUnit unit) {
+        return HashedWheelTimer.getInstance().schedule(() -> execute(event), delay, unit);
+    }
+
+    /**
+     * Drop all pending events: events submitted or scheduled from now on are ignored
+     */
+    public void shutdown() {
+        isShutdown = true;
+        events.clear();
+    }
+
+    /**
+     * Check executor status
+     *
+     * @return True if executor has been shut down
+     */
+    public boolean isShutdown() {
+        return isShutdown;
+    }
+
+    /**
+     * Run pending events in order, only one runner per match at a time
+     */
+    private void runEvents() {
+        int handled = 0;
+
+        while (true) {
+            final Runnable event = events.poll();
+
+            if(event == null) {
+                isScheduled.set(false);
+
+                // Another event could have been added before the flag was reset
+                if(events.isEmpty() || !isScheduled.compareAndSet(false, true))
+                    return;
+
+                continue;
+            }
+
+            try {
+                event.run();
+            } catch (Throwable t) {
+                exceptionHandler.accept(t);
+            }
+
+            // Give the thread back to the pool to keep other matches going
+            if(++handled == EVENTS_BATCH && !events.isEmpty()) {
+                sharedPool.execute(this::runEvents);
+                return;
+            }
+        }
+    }
+}
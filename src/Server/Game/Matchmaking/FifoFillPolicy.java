@@ -0,0 +1,34 @@
+package Server.Game.Matchmaking;
+
+import Model.User.User;
+import Server.Game.Match;
+
+/**
+ * Add users to the oldest open match, so matches fill up in creation order.
+ */
+public class FifoFillPolicy implements MatchmakingPolicy {
+
+    private final OpenMatches openMatches = new OpenMatches();
+
+    @Override
+    public void add(Match match) {
+        openMatches.add(match);
+    }
+
+    @Override
+    public Match select(User user) {
+        int oldestSeats = 0;
+        Match oldest = null;
+
+        for (int seats = 1; seats < Match.MAX_PLAYERS; seats++) {
+            final Match match = openMatches.peek(seats);
+
+            if(match != null && (oldest == null || match.getNumber() < oldest.getNumber())) {
+                oldest = match;
+                oldestSeats = seats;
+            }
+        }
+
+        return oldest == null ? null : openMatches.poll(oldestSeats);
+    }
+}
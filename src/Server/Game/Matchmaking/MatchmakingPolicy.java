@@ -0,0 +1,43 @@
+package Server.Game.Matchmaking;
+
+import Model.User.User;
+import Server.Game.Match;
+
+/**
+ * Strategy used by the lobby to choose the match a joining user is added to.
+ * Each policy keeps its own index of open matches; methods are called by one thread at a time,
+ * except matchStarted which is called by the starting match.
+ */
+public interface MatchmakingPolicy {
+
+    /**
+     * Choose an open match for given user, removing it from open matches
+     *
+     * @param user Joining user
+     * @return Match to join or null to open a new match
+     */
+    Match select(User user);
+
+    /**
+     * Add a match waiting for players to open matches
+     *
+     * @param match Open match
+     */
+    void add(Match match);
+
+    /**
+     * Called when a match stops waiting for players
+     *
+     * @param match Started match
+     */
+    default void matchStarted(Match match) {}
+
+    /**
+     * Get matchmaking statistics
+     *
+     * @return Printable statistics, empty if the policy has none
+     */
+    default String getStatistics() {
+        return "";
+    }
+}
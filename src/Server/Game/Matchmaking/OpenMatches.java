@@ -0,0 +1,79 @@
+package Server.Game.Matchmaking;
+
+import Server.Game.Match;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Matches waiting for players, indexed by free seats.
+ * Each free seats count has its own queue in arrival order, so matchmaking policies pick a match
+ * looking only at queue heads. Matches started or aborted while queued are discarded lazily when
+ * they reach the head of their queue.
+ * Not thread safe: the lobby places joining users one at a time.
+ */
+public class OpenMatches {
+
+    private final Deque<Match>[] bySeats;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public OpenMatches() {
+        bySeats = new Deque[Match.MAX_PLAYERS + 1];
+
+        for (int i = 0; i < bySeats.length; i++)
+            bySeats[i] = new ArrayDeque<>();
+    }
+
+    /**
+     * Queue given match if it has free seats
+     *
+     * @param match Match waiting for players
+     */
+    public void add(Match match) {
+        final int freeSeats = match.getFreeSeats();
+
+        if(freeSeats > 0)
+            bySeats[freeSeats].addLast(match);
+    }
+
+    /**
+     * Get first match with given free seats without removing it
+     *
+     * @param freeSeats Free seats count
+     * @return Open match or null if none is queued
+     */
+    public Match peek(int freeSeats) {
+        if(freeSeats <= 0 || freeSeats >= bySeats.length)
+            return null;
+
+        final Deque<Match> queue = bySeats[freeSeats];
+
+        // Drop matches whose seats changed since they were queued
+        while (!queue.isEmpty() && queue.peekFirst().getFreeSeats() != freeSeats)
+            queue.pollFirst();
+
+        return queue.peekFirst();
+    }
+
+    /**
+     * Remove and get first match with given free seats
+     *
+     * @param freeSeats Free seats count
+     * @return Open match or null if none is queued
+     */
+    public Match poll(int freeSeats) {
+        final Match match = peek(freeSeats);
+
+        if(match != null)
+            bySeats[freeSeats].pollFirst();
+
+        return match;
+    }
+
+    /**
+     * Remove all queued matches
+     */
+    public void clear() {
+        for (Deque<Match> queue : bySeats)
+            queue.clear();
+    }
+}
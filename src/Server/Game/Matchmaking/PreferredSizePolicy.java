@@ -0,0 +1,46 @@
+package Server.Game.Matchmaking;
+
+import Model.User.User;
+import Server.Game.Match;
+
+/**
+ * Add users to the fullest open match still below the preferred player count, so matches
+ * don't grow beyond it unless they are started by the countdown.
+ */
+public class PreferredSizePolicy implements MatchmakingPolicy {
+
+    private final int preferredPlayers;
+
+    private final OpenMatches openMatches = new OpenMatches();
+
+    /**
+     * Initialize policy for given match size
+     *
+     * @param preferredPlayers Preferred players per match, between 2 and Match.MAX_PLAYERS
+     */
+    public PreferredSizePolicy(int preferredPlayers) {
+        if(preferredPlayers < 2 || preferredPlayers > Match.MAX_PLAYERS)
+            throw new IllegalArgumentException("Preferred players must be between 2 and " + Match.MAX_PLAYERS);
+
+        this.preferredPlayers = preferredPlayers;
+    }
+
+    @Override
+    public void add(Match match) {
+        openMatches.add(match);
+    }
+
+    @Override
+    public Match select(User user) {
+
+        // Fewer free seats means more players already waiting
+        for (int seats = Match.MAX_PLAYERS - preferredPlayers + 1; seats < Match.MAX_PLAYERS; seats++) {
+            final Match match = openMatches.poll(seats);
+
+            if(match != null)
+                return match;
+        }
+
+        return null;
+    }
+}
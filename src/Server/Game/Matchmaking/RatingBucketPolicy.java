@@ -0,0 +1,166 @@
+package Server.Game.Matchmaking;
+
+import Model.User.User;
+import Server.Game.Match;
+import Server.Metrics.LatencyHistogram;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Add users to open matches with similar rating.
+ * Open matches are grouped in rating buckets by the average rating of their players. A match accepts
+ * users whose rating is within its tolerance, which widens while the match waits for players, so
+ * users at rating extremes still find a match. Only the oldest match of each bucket and free seats
+ * count is checked, so placement cost depends on tolerance range, not on the number of open matches.
+ * Time users wait from joining to match start is recorded for each bucket.
+ */
+public class RatingBucketPolicy implements MatchmakingPolicy {
+
+    private static final int MAX_RATING = 3000;
+
+    private final int bucketWidth;
+
+    private final double baseTolerance;
+
+    private final double widenPerSecond;
+
+    private final double maxTolerance;
+
+    private final OpenMatches[] buckets;
+
+    private final LatencyHistogram[] waitTimes;
+
+    /**
+     * Initialize policy with default buckets of 100 points and tolerance widening from 100 to 600 points
+     * by 20 points each second
+     */
+    public RatingBucketPolicy() {
+        this(100, 100, 20, 600);
+    }
+
+    /**
+     * Initialize policy with given buckets and tolerance
+     *
+     * @param bucketWidth Rating points covered by each bucket
+     * @param baseTolerance Tolerance of a match just opened
+     * @param widenPerSecond Tolerance increase for each second a match waits
+     * @param maxTolerance Maximum tolerance
+     */
+    public RatingBucketPolicy(int bucketWidth, double baseTolerance, double widenPerSecond, double maxTolerance) {
+        this.bucketWidth = bucketWidth;
+        this.baseTolerance = baseTolerance;
+        this.widenPerSecond = widenPerSecond;
+        this.maxTolerance = maxTolerance;
+
+        buckets = new OpenMatches[MAX_RATING / bucketWidth + 1];
+        waitTimes = new LatencyHistogram[buckets.length];
+
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new OpenMatches();
+            waitTimes[i] = new LatencyHistogram("Wait " + (i * bucketWidth) + "-" + ((i + 1) * bucketWidth - 1));
+        }
+    }
+
+    @Override
+    public void add(Match match) {
+        buckets[bucketOf(match.getAverageRating())].add(match);
+    }
+
+    @Override
+    public Match select(User user) {
+        final double rating = user.getRating();
+        final int userBucket = bucketOf(rating);
+        final int reach = (int) Math.ceil(maxTolerance / bucketWidth);
+        final long now = System.nanoTime();
+
+        // Look at nearest buckets first
+        for (int distance = 0; distance <= reach; distance++) {
+            Match match = select(userBucket - distance, rating, now);
+
+            if(match == null && distance > 0)
+                match = select(userBucket + distance, rating, now);
+
+            if(match != null)
+                return match;
+        }
+
+        return null;
+    }
+
+    /**
+     * Take the fullest match of given bucket accepting given rating
+     *
+     * @param bucket Bucket index
+     * @param rating Joining user rating
+     * @param now Current time as returned by System.nanoTime()
+     * @return Accepting match or null
+     */
+    private Match select(int bucket, double rating, long now) {
+        if(bucket < 0 || bucket >= buckets.length)
+            return null;
+
+        for (int seats = 1; seats < Match.MAX_PLAYERS; seats++) {
+            final Match match = buckets[bucket].peek(seats);
+
+            if(match != null && Math.abs(match.getAverageRating() - rating) <= getTolerance(match, now))
+                return buckets[bucket].poll(seats);
+        }
+
+        return null;
+    }
+
+    /**
+     * Rating difference accepted by given match
+     *
+     * @param match Open match
+     * @param now Current time as returned by System.nanoTime()
+     * @return Tolerance in rating points
+     */
+    private double getTolerance(Match match, long now) {
+        final double waitSeconds = (now - match.getOpenTime()) / 1e9;
+
+        return Math.min(maxTolerance, baseTolerance + widenPerSecond * waitSeconds);
+    }
+
+    @Override
+    public void matchStarted(Match match) {
+        final long now = System.nanoTime();
+
+        match.getAllUsers().forEach(user ->
+                waitTimes[bucketOf(user.getRating())].record(now - match.getJoinTime(user)));
+    }
+
+    /**
+     * Get queue wait times of users in given rating bucket
+     *
+     * @param rating Rating in the bucket
+     * @return Wait time histogram
+     */
+    public LatencyHistogram getWaitTimes(double rating) {
+        return waitTimes[bucketOf(rating)];
+    }
+
+    @Override
+    public String getStatistics() {
+        final StringBuilder statistics = new StringBuilder();
+
+        for (LatencyHistogram bucketWait : waitTimes)
+            if(bucketWait.getCount() > 0)
+                statistics.append(bucketWait.getName())
+                        .append(": count=").append(bucketWait.getCount())
+                        .append(" p50=").append(bucketWait.getPercentile(50, TimeUnit.MILLISECONDS)).append("ms")
+                        .append(" p90=").append(bucketWait.getPercentile(90, TimeUnit.MILLISECONDS)).append("ms")
+                        .append(" p99=").append(bucketWait.getPercentile(99, TimeUnit.MILLISECONDS)).append("ms\n");
+
+        return statistics.toString();
+    }
+
+    /**
+     * Get bucket index for given rating
+     *
+     * @param rating Rating
+     * @return Bucket index, ratings out of range go to first or last bucket
+     */
+    private int bucketOf(double rating) {
+        return (int) Math.min(Math.max(rating, 0), MAX_RATING) / bucketWidth;
+    }
+}
@@ -16,7 +16,7 @@ import java.util.List;
  */
 public class CouncilPosition extends Position<Cost> {
 
-    private transient volatile List<GameUser> turnOrder;
+    private transient List<GameUser> turnOrder;
 
     private final Effect immediatePositionEffect;
 
@@ -16,9 +16,9 @@ public abstract class Position<T> implements Game.Positions.Position<T> {
 
     private final int number;
 
-    transient volatile PositionAggregate parent = null;
+    transient PositionAggregate parent = null;
 
-    private volatile Domestic occupant;
+    private Domestic occupant;
 
     protected Position(PositionType type, int number) {
         this.type = type;
@@ -55,6 +55,9 @@ public abstract class Position<T> implements Game.Positions.Position<T> {
 
         occupant.setInPosition(true);
 
+        if(parent != null)
+            parent.update(this);
+
         return currentState;
     }
 
@@ -72,6 +75,9 @@ public abstract class Position<T> implements Game.Positions.Position<T> {
 
         occupant.setInPosition(false);
         occupant = null;
+
+        if(parent != null)
+            parent.update(this);
     }
 
     @Override
@@ -4,18 +4,29 @@ import Game.Positions.Position;
 import Server.Game.UserObjects.Domestic;
 import Game.UserObjects.DomesticColor;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Created by fiore on 10/05/2017.
  *
  * Represents a set of aggregated positions (as a tower or harvest/production place)
+ * Occupation is kept as bit sets updated by positions when occupied or freed, so checks don't scan positions
  *
  */
 public class PositionAggregate {
 
     private final List<Position> positions;
 
+    // Bit set of positions occupied by a family domestic, by index in positions list
+    private int occupied = 0;
+
+    // Family color ordinal of the colored domestic in each position (-1 if none)
+    private final int[] families;
+
+    // Bit set of families with a colored domestic in this aggregate, by family color ordinal
+    private int familyPresence = 0;
+
     /**
      * Create a new aggregate and set it in all given positions
      *
@@ -35,6 +46,31 @@ public class PositionAggregate {
     private PositionAggregate(List<? extends Position> positions) {
         positions.forEach(position -> position.setAggregate(this));
         this.positions = new ArrayList<>(positions);
+        families = new int[positions.size()];
+        Arrays.fill(families, -1);
+    }
+
+    /**
+     * Update occupation of given position after its occupant has changed
+     *
+     * @param position Occupied or freed position of this aggregate
+     */
+    void update(Position position) {
+        final int index = positions.indexOf(position);
+        final Domestic occupant = position.isOccupied();
+        final boolean isFamily = occupant != null && occupant.getType() != null;
+
+        if(isFamily)
+            occupied |= 1 << index;
+        else
+            occupied &= ~(1 << index);
+
+        families[index] = isFamily && occupant.getType() != DomesticColor.Neutral ? occupant.getFamilyColor().ordinal() : -1;
+
+        familyPresence = 0;
+        for (int family : families)
+            if(family >= 0)
+                familyPresence |= 1 << family;
     }
 
     /**
@@ -43,7 +79,7 @@ public class PositionAggregate {
      * @return True if any position is occupied, false else
      */
     boolean isOccupied() {
-        return positions.parallelStream().filter(position -> position.isOccupied() != null && position.isOccupied().getType() != null).count() != 0;
+        return occupied != 0;
     }
 
     /**
@@ -58,15 +94,6 @@ public class PositionAggregate {
         // else check if a non neutral domestic of the same family is already present
         return inUse.getType() == null
                 || inUse.getType() == DomesticColor.Neutral
-                || positions.parallelStream()
-                .filter(position -> {
-                    Domestic current = position.isOccupied();
-
-                    return current != null
-                            && current.getType() != null
-                            && current.getType() != DomesticColor.Neutral
-                            && current.getFamilyColor() == inUse.getFamilyColor();
-                })
-                .count() == 0;
+                || (familyPresence & (1 << inUse.getFamilyColor().ordinal())) == 0;
     }
 }
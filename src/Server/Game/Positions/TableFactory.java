@@ -4,7 +4,7 @@ import Game.Cards.CardType;
 import Game.Effects.Effect;
 import Game.Positions.PositionType;
 import Game.Usable.ResourceType;
-import Networking.Gson.MySerializer;
+import Networking.Gson.TypeTagAdapterFactory;
 import Server.Game.Effects.ImmediateEffect;
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
@@ -22,8 +22,7 @@ public class TableFactory {
 
         Gson gson = new GsonBuilder()
                 .setPrettyPrinting()
-                .registerTypeAdapter(Position.class, new MySerializer<Position>())
-                .registerTypeAdapter(Effect.class, new MySerializer<Effect>())
+                .registerTypeAdapterFactory(new TypeTagAdapterFactory(Position.class, Effect.class))
                 .create();
 
         JsonObject completeTable = serializeActions(gson, serializeTowers(gson, new JsonObject()));
@@ -23,7 +23,7 @@ public class TowerPosition extends Position<Cost> {
 
     private final CardType cardType;
 
-    private volatile Card currentCard;
+    private Card currentCard;
 
     /**
      * Initialize a new tower position
@@ -0,0 +1,108 @@
+package Server.Game;
+
+import Game.Usable.ResourceType;
+import Game.UserObjects.DomesticColor;
+import Server.Game.UserObjects.Domestic;
+import Server.Game.UserObjects.GameTable;
+import Server.Game.UserObjects.GameUser;
+import Server.Game.UserObjects.PlayerState;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Speculative positions check for the user expected to move.
+ * While the match waits for the move, positions are checked for every free domestic of the user and
+ * a few slave increments, as SetInUseDomestic would do, so its reply is found in the game table cache.
+ * Each combination is checked by a separate event on match executor, enqueued after the previous one:
+ * user actions wait for one check at most, and the game state never changes under a running check.
+ * All methods must be called on match executor.
+ */
+class PositionsPrecheck {
+
+    // Maximum domestic value increment checked
+    private static final int MAX_INCREMENT = 3;
+
+    private static final DomesticColor[] COLORS = DomesticColor.values();
+
+    private final GameTable table;
+
+    private final GameUser user;
+
+    private final Executor executor;
+
+    // Next combination to check
+    private int colorIndex = 0;
+
+    private int increment = 0;
+
+    private boolean cancelled = false;
+
+    /**
+     * Initialize a new precheck for given user
+     *
+     * @param table Match game table
+     * @param user User expected to move
+     * @param executor Match executor
+     */
+    PositionsPrecheck(GameTable table, GameUser user, Executor executor) {
+        this.table = table;
+        this.user = user;
+        this.executor = executor;
+    }
+
+    /**
+     * Enqueue first check
+     */
+    void start() {
+        executor.execute(this::checkNext);
+    }
+
+    /**
+     * Stop checking, the user has moved or its time is over
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Check next combination of domestic and increment, then enqueue the following one
+     */
+    private void checkNext() {
+
+        if(cancelled)
+            return;
+
+        // Expected state is derived from the current one, which could have changed since last check
+        final PlayerState currentState = user.getUserState();
+        final Map<DomesticColor, Domestic> domestics = user.getDomestics();
+        final int slavePerDomestic = currentState.getSlavePerDomesticValue();
+        final int maxIncrement = Math.min(MAX_INCREMENT, currentState.getResource(ResourceType.Slave) / slavePerDomestic);
+
+        while (colorIndex < COLORS.length) {
+            final Domestic domestic = domestics.get(COLORS[colorIndex]);
+
+            // Go to next domestic if this one is used or all its increments have been checked
+            if(domestic == null || domestic.isInPosition() || increment > maxIncrement) {
+                colorIndex++;
+                increment = 0;
+                continue;
+            }
+
+            // Same changes SetInUseDomestic makes on user state
+            final PlayerState expectedState = currentState.clone();
+            final Domestic inUse = new Domestic(domestic);
+            inUse.setValue(inUse.getValue() + increment);
+            expectedState.setInUseDomestic(inUse);
+            expectedState.setResources(Collections.singletonMap(ResourceType.Slave,
+                    currentState.getResource(ResourceType.Slave) - increment * slavePerDomestic), false);
+
+            increment++;
+
+            table.precheckPositions(user, expectedState);
+
+            executor.execute(this::checkNext);
+            return;
+        }
+    }
+}
@@ -3,32 +3,65 @@ package Server.Game;
 import Action.*;
 import Game.Effects.Effect;
 import Game.Usable.ResourceType;
-import Logging.Logger;
+import Networking.Gson.EncodedMessage;
 import Server.Game.UserObjects.GameTable;
 import Server.Game.UserObjects.GameUser;
 import Server.Game.UserObjects.PlayerState;
+import Server.HashedWheelTimer;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Created by fiore on 17/05/2017.
+ * <p>
+ * Turn state machine: each round asks every player for a move in order, then after last round
+ * faith check is performed. Moves and timeouts are events handled on match executor, so no thread
+ * waits for players: all methods must be called on match executor.
  */
 public class Turn {
 
+    /**
+     * Turn state
+     */
+    enum State {
+        AwaitingMove,
+        FaithCheck,
+        Ended
+    }
+
     private final int number;
 
-    private volatile int roundNumber = 1;
+    private int roundNumber = 1;
 
-    private volatile List<GameUser> order;
+    private final List<GameUser> order;
 
-    private volatile List<GameUser> lastRound = new ArrayList<>();
+    private final List<GameUser> lastRound = new ArrayList<>();
 
     private final GameTable table;
 
     private final long timeout;
 
+    private final MatchExecutor executor;
+
+    private final Consumer<List<GameUser>> onTurnEnd;
+
+    private State state = State.AwaitingMove;
+
+    // Users playing current round and index of the one expected to move
+    private List<GameUser> currentRound;
+
+    private int moveIndex = 0;
+
+    // Users the turn is waiting for, with their move timeout
+    private final Map<GameUser, HashedWheelTimer.Timeout> awaitedUsers = new HashMap<>();
+
+    // Positions check running while waiting for current move
+    private PositionsPrecheck precheck = null;
+
     /**
      * Initialize a new turn with given first round order
      *
@@ -36,12 +69,17 @@ public class Turn {
      * @param userOrder First round users order
      * @param table Game table for current match
      * @param timeout Move timeout in milliseconds
+     * @param executor Match executor to schedule timeouts on
+     * @param onTurnEnd Called with players order for next turn when the turn ends
      */
-    public Turn(int turnNumber, List<GameUser> userOrder, GameTable table, long timeout) {
+    public Turn(int turnNumber, List<GameUser> userOrder, GameTable table, long timeout,
+                MatchExecutor executor, Consumer<List<GameUser>> onTurnEnd) {
         number = turnNumber;
         order = userOrder;
         this.table = table;
         this.timeout = timeout;
+        this.executor = executor;
+        this.onTurnEnd = onTurnEnd;
 
         order.forEach(user -> {
             if(user.getRoundJump())
@@ -50,15 +88,44 @@ public class Turn {
     }
 
     /**
-     * Perform all round recursively
+     * Get current turn state
      *
-     * @return Players order list for next round
+     * @return Turn state
      */
-    public List<GameUser> playAllRounds() {
+    State getState() {
+        return state;
+    }
 
-        // Get current round order
-        List<GameUser> currentRound;
+    /**
+     * Start first round
+     */
+    public void start() {
+        startRound();
+    }
+
+    /**
+     * Go ahead if given user was awaited and has completed all its moves
+     *
+     * @param user User who performed an action
+     */
+    public void moveCompleted(GameUser user) {
+
+        // Bonus moves or favors to choose could be still pending
+        if(!awaitedUsers.containsKey(user) || !user.getHasMoved())
+            return;
 
+        awaitedUsers.remove(user).cancel();
+
+        endMove(user, false);
+    }
+
+    /**
+     * Send round order and ask first user to move
+     */
+    private void startRound() {
+        state = State.AwaitingMove;
+
+        // Get current round order
         if(roundNumber == 5) {
             currentRound = new ArrayList<>(lastRound);
             lastRound.clear();
@@ -73,124 +140,204 @@ public class Turn {
         }
 
         // Send new round order to all users
-        final BaseAction orderUpdate = new RoundOrderUpdate(currentRound);
-        currentRound.forEach(user -> user.getUserLink().sendMessage(orderUpdate));
+        sendAll(currentRound, new RoundOrderUpdate(currentRound));
+
+        moveIndex = 0;
+        requestMove();
+    }
+
+    /**
+     * Ask next user of current round to move, or end the round if all users have moved
+     */
+    private void requestMove() {
 
-        // Ask for move to each user
+        if(moveIndex == currentRound.size()) {
+            endRound();
+            return;
+        }
 
-        currentRound.forEach(user -> {
+        final GameUser user = currentRound.get(moveIndex);
 
-            final BaseAction moveRequest = new MoveRequest(user.toString());
+        // Send user specific move request to all users
+        sendAll(currentRound, new MoveRequest(user.toString()));
 
-            // Send user specific move request to all users
-            currentRound.forEach(u -> u.getUserLink().sendMessage(moveRequest));
+        awaitMove(user);
 
-            // Wait for move on current user
-            waitMove(user);
-        });
+        // Check positions while the user chooses a domestic
+        precheck = new PositionsPrecheck(table, user, executor);
+        precheck.start();
+    }
+
+    /**
+     * If is last round go to faith check, else start next round
+     */
+    private void endRound() {
 
-        // If is last round check for left user, else finalize
         if(roundNumber >= 4 && lastRound.isEmpty()) {
             faithCheck();
-            return table.changeOrder(order);
+            return;
         }
 
         // Increment round number
         roundNumber++;
 
-        return playAllRounds();
+        startRound();
     }
 
     /**
-     * Waits for a notification of move performed on current user object
+     * Wait for a move of given user until timeout
      *
-     * @param currentUser Current game user to wait for
+     * @param user Game user to wait for
      */
-    private void waitMove(final GameUser currentUser) {
+    private void awaitMove(final GameUser user) {
 
         // Set move flag on current user
-        currentUser.setHasMoved(false);
+        user.setHasMoved(false);
 
-        // Wait for user move until timeout
-        synchronized (currentUser) {
-            try {
-                currentUser.wait(timeout);
+        awaitedUsers.put(user, executor.schedule(() -> moveTimeout(user), timeout, TimeUnit.MILLISECONDS));
+    }
 
-            } catch (InterruptedException ie) {
-                Logger.log(Logger.LogLevel.Warning, "User move was interrupted.\n" + ie.getMessage());
-            }
+    /**
+     * Stop waiting for given user if its move hasn't arrived yet
+     *
+     * @param user Awaited game user
+     */
+    private void moveTimeout(GameUser user) {
+        if(awaitedUsers.remove(user) == null)
+            return;
+
+        endMove(user, true);
+    }
+
+    /**
+     * Close user move and go ahead with current state
+     *
+     * @param user Game user who moved
+     * @param isTimeout True if the user didn't move before timeout
+     */
+    private void endMove(GameUser user, boolean isTimeout) {
+
+        if(precheck != null) {
+            precheck.cancel();
+            precheck = null;
         }
 
         // Reset move counter to zero
-        currentUser.resetMove();
+        user.resetMove();
 
-        // If user hasn't moved after timeout send timeout message and go ahead
-        currentUser.getUserLink().sendMessage(new MoveEnd(!currentUser.getHasMoved()));
+        user.getUserLink().sendMessage(new MoveEnd(isTimeout));
+
+        if(state == State.AwaitingMove) {
+            moveIndex++;
+            requestMove();
+        }
+        else if(state == State.FaithCheck) {
+            applyFaith(user);
+
+            if(awaitedUsers.isEmpty())
+                endTurn();
+        }
     }
 
     /**
-     * Check each user
+     * Ask users with enough faith points for church support; other users are checked right away
      */
     private void faithCheck(){
+        state = State.FaithCheck;
 
-        if(number % 2 != 0)
-            return;
+        if(number % 2 == 0) {
+            order.forEach(user -> {
 
-        // turn 2 = 3 points || turn 4 = 4 points || turn 6 = 5 points
-        int requestedFaith = number == 2 ? 3 : (number == 4 ? 4 : 5);
+                // Ask user if he wants penalty or victory points
+                if(user.getUserState().getResource(ResourceType.FaithPoint) >= getRequestedFaith()) {
+                    user.getUserLink().sendMessage(new FaithRoadRequest());
 
-        order.parallelStream().forEach(user -> {
-
-            // Get current player state
-            final PlayerState currentState = user.getUserState();
-
-            // Get current faith points number
-            final int faithPoints = currentState.getResources().get(ResourceType.FaithPoint);
+                    awaitMove(user);
+                }
+                else
+                    applyFaith(user);
+            });
+        }
 
-            if(faithPoints >= requestedFaith) {
+        if(awaitedUsers.isEmpty())
+            endTurn();
+    }
 
-                // ask to user if he wants penalty or victory points and go back
-                user.getUserLink().sendMessage(new FaithRoadRequest());
+    /**
+     * Faith points requested to avoid penalty in this turn
+     *
+     * @return Requested faith points
+     */
+    private int getRequestedFaith() {
+        // turn 2 = 3 points || turn 4 = 4 points || turn 6 = 5 points
+        return number == 2 ? 3 : (number == 4 ? 4 : 5);
+    }
 
-                waitMove(user);
-            }
+    /**
+     * Give victory points for church support or apply faith penalty to given user
+     *
+     * @param user Game user to check
+     */
+    private void applyFaith(GameUser user) {
+
+        // Get current player state
+        final PlayerState currentState = user.getUserState();
+
+        // Get current faith points number
+        final int faithPoints = currentState.getResource(ResourceType.FaithPoint);
+
+        if(user.getChurchSupport()) {
+            // Get victory points for current faith road position
+            final int victoryPoints = GameHelper.getInstance().getFaithBonus(faithPoints);
+
+            // Update current player state adding victory points and removing all faith points
+            currentState.setResources(new HashMap<ResourceType, Integer>() {
+                                          {
+                                              put(ResourceType.VictoryPoint,
+                                                      currentState.getResource(ResourceType.VictoryPoint) + victoryPoints);
+                                              put(ResourceType.FaithPoint, 0);
+                                          }
+                                      },
+                    true);
+        }
+        else {
 
+            // Get faith penalty for current turn
+            final Effect faithEffect = table.getFaithEffect();
 
-            if(user.getChurchSupport()) {
-                // Get victory points for current faith road position
-                final int victoryPoints = GameHelper.getInstance().getFaithBonus(faithPoints);
+            // Add penalty to user list
+            currentState.addEffect(faithEffect);
 
-                // Update current player state adding victory points and removing all faith points
-                currentState.setResources(new HashMap<ResourceType, Integer>() {
-                                              {
-                                                  put(ResourceType.VictoryPoint,
-                                                          currentState.getResources().get(ResourceType.VictoryPoint) + victoryPoints);
-                                                  put(ResourceType.FaithPoint, 0);
-                                              }
-                                          },
-                        true);
-            }
-            else {
+            // Apply penalty if possible
+            if(faithEffect.canApply(currentState))
+                faithEffect.apply(currentState);
 
-                // Get faith penalty for current turn
-                final Effect faithEffect = table.getFaithEffect();
+            // Notify client to put penalty cube on current faith card
+            sendAll(order, new FaithPenaltyApplied(user.toString(), number / 2));
+        }
 
-                // Add penalty to user list
-                currentState.addEffect(faithEffect);
+        // Update player state with new changes
+        user.updateUserState(currentState);
+    }
 
-                // Apply penalty if possible
-                if(faithEffect.canApply(currentState))
-                    faithEffect.apply(currentState);
+    /**
+     * Send given message to all given users, serializing it only once
+     *
+     * @param users Receiving users
+     * @param message Message to send
+     */
+    private void sendAll(List<GameUser> users, BaseAction message) {
+        final EncodedMessage encoded = new EncodedMessage(message);
 
-                // Notify client to put penalty cube on current faith card
-                final BaseAction faithPenalty = new FaithPenaltyApplied(user.toString(), number / 2);
-                order.forEach(u -> u.getUserLink().sendMessage(faithPenalty));
-            }
+        users.forEach(user -> user.getUserLink().sendEncoded(encoded));
+    }
 
-            // Update player state with new changes
-            user.updateUserState(currentState);
-        });
+    /**
+     * Pass players order for next turn to the match
+     */
+    private void endTurn() {
+        state = State.Ended;
 
+        onTurnEnd.accept(table.changeOrder(order));
     }
-
 }
@@ -1,20 +1,21 @@
 package Server.Game.Usable;
 
 import Game.Usable.ResourceType;
+import Game.Usable.ResourceVector;
 import Game.UserObjects.Choosable;
 import Game.UserObjects.PlayerState;
-import java.util.*;
+import java.util.Map;
 
 /**
  * Created by fiore on 09/05/2017.
  */
 public class Cost implements Choosable {
 
-    private final Map<ResourceType, Integer> requestedResources;
+    private final ResourceVector requestedResources;
 
     private final int militaryRequested;
 
-    private volatile int cardNumber;
+    private int cardNumber;
 
     /**
      * Initialize new cost instance with given cost specific
@@ -24,17 +25,28 @@ public class Cost implements Choosable {
      */
     public Cost(Map<ResourceType, Integer> resources, Integer militaryRequested) {
 
-        requestedResources = resources == null ? new HashMap<>() : UsableHelper.cloneMap(resources);
-
-        this.militaryRequested = militaryRequested != null ? militaryRequested : 0;
-
-        cardNumber = 0;
+        this(new ResourceVector(resources), militaryRequested != null ? militaryRequested : 0);
     }
 
     public Cost(Map<ResourceType, Integer> resources) {
         this(resources, null);
     }
 
+    /**
+     * Initialize new cost instance with a copy of given resources
+     *
+     * @param resources Requested resources
+     * @param militaryRequested Requested military points
+     */
+    private Cost(ResourceVector resources, int militaryRequested) {
+
+        requestedResources = new ResourceVector(resources);
+
+        this.militaryRequested = militaryRequested;
+
+        cardNumber = 0;
+    }
+
     /**
      * Gson constructor
      */
@@ -49,6 +61,15 @@ public class Cost implements Choosable {
      * @return List of requested resources
      */
     public Map<ResourceType, Integer> getResources() {
+        return requestedResources.toMap();
+    }
+
+    /**
+     * Get requested resources as a vector
+     *
+     * @return Requested resources (not to be modified)
+     */
+    public ResourceVector getResourceVector() {
         return requestedResources;
     }
 
@@ -88,24 +109,7 @@ public class Cost implements Choosable {
      */
     public boolean canBuy(PlayerState currentState) {
 
-        return canBuyResources(currentState) && currentState.getResources().get(ResourceType.MilitaryPoint) >= militaryRequested;
-    }
-
-    /**
-     * Check requested resources availability in given user state
-     *
-     * @param currentState User state
-     * @return True if required resources are available, false else
-     */
-    private boolean canBuyResources(PlayerState currentState) {
-        Map<ResourceType, Integer> userResources = currentState.getResources();
-
-        for (ResourceType type : requestedResources.keySet()) {
-            if(requestedResources.get(type) > userResources.get(type))
-                return false;
-        }
-
-        return true;
+        return currentState.hasResources(requestedResources) && currentState.getResource(ResourceType.MilitaryPoint) >= militaryRequested;
     }
 
     /**
@@ -117,7 +121,7 @@ public class Cost implements Choosable {
     public void apply(PlayerState currentState) {
 
         // Get current state resources
-        Map<ResourceType, Integer> currentResources = currentState.getResources();
+        final ResourceVector currentResources = currentState.getResourceVector();
 
         // Apply costs to current resources
         UsableHelper.editResources(requestedResources, currentResources, false);
@@ -1,8 +1,6 @@
 package Server.Game.Usable;
 
-import Game.Usable.ResourceType;
-import java.util.HashMap;
-import java.util.Map;
+import Game.Usable.ResourceVector;
 
 /**
  * Created by fiore on 11/05/2017.
@@ -11,42 +9,17 @@ public class UsableHelper {
 
     /**
      * Edit given state resources using toEdit resources list
+     * (removed resources are edited only if present in dest and never go below zero)
      *
-     * @param src Map of resources to add/remove
-     * @param dest Map to update
+     * @param src Resources to add/remove
+     * @param dest Resources to update
      * @param removeAdd True to add resources, false to remove them
-     * @param <T> Key type
      */
-    public static <T> void editResources(Map<T, Integer> src, Map<T, Integer> dest, boolean removeAdd) {
+    public static void editResources(ResourceVector src, ResourceVector dest, boolean removeAdd) {
 
-        src.forEach((type, quantity) -> {
-            if(dest.containsKey(type)){
-                if (removeAdd) {
-                    dest.replace(type, dest.get(type) + quantity);
-                }
-                else
-                    dest.replace(type, Math.max(dest.get(type) - quantity, 0));
-            }
-            else {
-                if (removeAdd) {
-                    dest.put(type, quantity);
-                }
-            }
-        });
-    }
-
-    /**
-     * Deep clone of given map
-     *
-     * @param map Map to clone
-     * @return Cloned map
-     */
-    public static Map<ResourceType, Integer> cloneMap(Map<ResourceType, Integer> map) {
-
-        Map<ResourceType, Integer> clone = new HashMap<>(map.size());
-
-        map.forEach((key, value) -> clone.put(key, value.intValue()));
-
-        return clone;
+        if(removeAdd)
+            dest.add(src);
+        else
+            dest.subtract(src);
     }
 }
@@ -2,6 +2,8 @@ package Server.Game;
 
 import Action.BaseAction;
 import Model.User.User;
+import Networking.CommLink;
+import Networking.Gson.EncodedMessage;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -31,11 +33,19 @@ public abstract class UserHandler {
     }
 
     /**
-     * Send specified action to all users in this handler
+     * Send specified action to all users in this handler, serializing it only once.
+     * Users whose session has ended meanwhile have no link and are skipped.
      *
      * @param message Message to spread
      */
     public void sendAll(final BaseAction message) {
-        users.forEach(user -> user.getLink().sendMessage(message));
+        final EncodedMessage encoded = new EncodedMessage(message);
+
+        users.forEach(user -> {
+            final CommLink link = user.getLink();
+
+            if(link != null)
+                link.sendEncoded(encoded);
+        });
     }
 }
@@ -15,7 +15,7 @@ public class Domestic implements HasValue<Integer>, HasType<DomesticColor> {
 
     private final DomesticColor type;
 
-    private volatile int value = 0;
+    private int value = 0;
 
     private final AtomicBoolean inPosition;
 
@@ -8,7 +8,7 @@ import Game.Positions.PositionType;
 import Game.UserObjects.Choosable;
 import Game.UserObjects.DomesticColor;
 import Logging.Logger;
-import Networking.Gson.MySerializer;
+import Networking.Gson.TypeTagAdapterFactory;
 import Server.Game.Positions.*;
 import com.google.gson.*;
 import java.io.FileNotFoundException;
@@ -17,7 +17,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Created by fiore on 11/05/2017.
@@ -28,11 +27,26 @@ public class GameTable {
 
     private final Map<Integer, Position> positions = new HashMap<>();
 
+    // Table positions in number order
+    private transient Position[] board;
+
+    // Table positions indexed by number (null for missing numbers)
+    private transient Position[] byNumber;
+
     private final List<GameUser> nextTurnOrder = Collections.synchronizedList(new ArrayList<>());
 
     private final Map<DomesticColor, Integer> diceValue = new HashMap<>();
 
-    private volatile Effect currentFaithEffect = null;
+    private Effect currentFaithEffect = null;
+
+    // Incremented each time a position is occupied or freed
+    private transient int boardVersion = 0;
+
+    // Maximum number of positions checks kept for each user
+    private static final int MAX_CHECKS = 32;
+
+    // Recent positions checks of each user, valid until the board changes
+    private final transient Map<GameUser, List<PositionsCheck>> positionsChecks = new HashMap<>();
 
     /**
      * Load game table object from specified input json and correct number of positions for specified player's number
@@ -51,8 +65,7 @@ public class GameTable {
 
         // Initialize json deserializer
         Gson gson = new GsonBuilder()
-                .registerTypeAdapter(Position.class, new MySerializer<Position>())
-                .registerTypeAdapter(Effect.class, new MySerializer<Effect>())
+                .registerTypeAdapterFactory(new TypeTagAdapterFactory(Position.class, Effect.class))
                 .create();
 
         GameTable table = gson.fromJson(Files.newBufferedReader(jsonSetupPath), GameTable.class);
@@ -100,6 +113,15 @@ public class GameTable {
         // Set order list to update in council positions
         aggregates.get(PositionType.Council).forEach(position -> ((CouncilPosition)position).setOrderList(table.nextTurnOrder));
 
+        // Create dense board arrays
+        table.board = table.positions.values().stream()
+                .sorted(Comparator.comparingInt(Position::getNumber))
+                .toArray(Position[]::new);
+
+        table.byNumber = new Position[table.board[table.board.length - 1].getNumber() + 1];
+        for (Position position : table.board)
+            table.byNumber[position.getNumber()] = position;
+
         return table;
     }
 
@@ -113,27 +135,69 @@ public class GameTable {
     }
 
     /**
-     * Get activable effects/affordable costs of requested positions for given user
+     * Get activable effects/affordable costs of requested positions for given user.
+     * Results are cached for each user and position until a position is occupied or freed, or the user
+     * state changes, so returned lists are shared and must not be modified
      *
      * @param currentUser User to check positions for
      * @param requestedPositions Requested positions (null to get all positions)
      * @return Map of positions number and activable effects/affordable costs
      */
-    @SuppressWarnings("unchecked")
     public Map<Integer, List<Choosable>> getPositions(GameUser currentUser, List<PositionType> requestedPositions) {
-        final AtomicBoolean getAll = new AtomicBoolean();
-        getAll.set(requestedPositions == null);
+        final PlayerState currentState = currentUser.getUserState();
+        final PositionsCheck check = getCheck(currentUser, currentState);
 
-        Map<Integer, List<Choosable>> choseForPos = new HashMap<>();
+        final Map<Integer, List<Choosable>> choseForPos = new HashMap<>();
 
-        positions.values().forEach(pos -> {
-            if(getAll.get() || requestedPositions.contains(pos.getType()))
-                choseForPos.put(pos.getNumber(), pos.canOccupy(currentUser.getUserState()));
-        });
+        for (Position pos : board) {
+            if(requestedPositions == null || requestedPositions.contains(pos.getType()))
+                choseForPos.put(pos.getNumber(), check.getChoosables(pos, currentState));
+        }
 
         return choseForPos;
     }
 
+    /**
+     * Check all positions for given state of a user ahead of time, so a following getPositions call
+     * with an equivalent user state is answered from the cache
+     *
+     * @param currentUser User to check positions for
+     * @param expectedState Expected user state (not modified)
+     */
+    public void precheckPositions(GameUser currentUser, PlayerState expectedState) {
+        final PositionsCheck check = getCheck(currentUser, expectedState);
+
+        for (Position pos : board)
+            check.getChoosables(pos, expectedState);
+    }
+
+    /**
+     * Get cached positions check for given user state, or a new empty one
+     *
+     * @param currentUser Checked user
+     * @param currentState State to check positions for
+     * @return Positions check for current board and given state
+     */
+    private PositionsCheck getCheck(GameUser currentUser, PlayerState currentState) {
+        final List<PositionsCheck> checks = positionsChecks.computeIfAbsent(currentUser, user -> new ArrayList<>());
+
+        // Checks made before the board changed are stale
+        checks.removeIf(check -> check.boardVersion != boardVersion);
+
+        for (PositionsCheck check : checks)
+            if(check.state.hasSameContent(currentState))
+                return check;
+
+        // Drop oldest check if too many states have been checked
+        if(checks.size() == MAX_CHECKS)
+            checks.remove(0);
+
+        final PositionsCheck check = new PositionsCheck(boardVersion, currentState.clone(), byNumber.length);
+        checks.add(check);
+
+        return check;
+    }
+
     /**
      * Get current faith effect
      *
@@ -153,7 +217,9 @@ public class GameTable {
     public TowersUpdate changeTurn(Map<CardType, List<Server.Game.Cards.Card>> newCards, Effect newFaithEffect) {
 
         // Free all positions
-        positions.values().forEach(Position::free);
+        for (Position pos : board)
+            pos.free();
+        boardVersion++;
 
         // Update cards in tower positions
         newCards.forEach((type, list) ->
@@ -217,15 +283,20 @@ public class GameTable {
      * @param currentUser Current user
      * @param positionNumber Number of position to occupy
      * @param chosenTs Chosen effects/cost to activate/pay occupying specified position
-     * @return Updated position
+     * @return Updated position, null if no position has given number
      */
     @SuppressWarnings("unchecked")
     public Position occupy(GameUser currentUser, int positionNumber, List<Choosable> chosenTs) {
 
         // Updated position reference
-        Position requestedPos = positions.get(positionNumber);
+        Position requestedPos = positionNumber >= 0 && positionNumber < byNumber.length ? byNumber[positionNumber] : null;
+
+        // Reject moves to unknown positions, leaving board and user state unchanged
+        if(requestedPos == null)
+            return null;
 
         PlayerState newState = (PlayerState) requestedPos.occupy(currentUser.getUserState(), chosenTs);
+        boardVersion++;
 
         currentUser.updateUserState(newState);
 
@@ -233,4 +304,45 @@ public class GameTable {
         return requestedPos;
     }
 
+    /**
+     * Positions check results for a user state
+     */
+    private static class PositionsCheck {
+
+        private final int boardVersion;
+
+        // Snapshot of checked state
+        private final PlayerState state;
+
+        // Choosables of each checked position, by position number
+        private final List<Choosable>[] choosables;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private PositionsCheck(int boardVersion, PlayerState state, int positionsCount) {
+            this.boardVersion = boardVersion;
+            this.state = state;
+            choosables = new List[positionsCount];
+        }
+
+        /**
+         * Get choosables of given position, checking it if not done yet
+         *
+         * @param pos Position to check
+         * @param currentState Checked state (not modified)
+         * @return Activable effects/affordable costs of the position
+         */
+        @SuppressWarnings("unchecked")
+        private List<Choosable> getChoosables(Position pos, PlayerState currentState) {
+            List<Choosable> checked = choosables[pos.getNumber()];
+
+            // Checks apply position effects to the state: each position gets its own working copy
+            if(checked == null) {
+                checked = pos.canOccupy(currentState.clone());
+                choosables[pos.getNumber()] = checked;
+            }
+
+            return checked;
+        }
+    }
+
 }
@@ -2,6 +2,7 @@ package Server.Game.UserObjects;
 
 import Action.ChooseFavor;
 import Action.DiceDomesticUpdate;
+import Action.PlayerStateDelta;
 import Action.PlayerStateUpdate;
 import Game.Usable.ResourceType;
 import Game.UserObjects.DomesticColor;
@@ -11,13 +12,17 @@ import Networking.CommLink;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by fiore on 16/05/2017.
+ * <p>
+ * Game state is changed only on match executor, so player state is shared with its readers without copies.
  */
 public class GameUser implements Game.UserObjects.GameUser {
 
+    // Number of player state updates between two full snapshots
+    private static final int SNAPSHOT_INTERVAL = 10;
+
     private final FamilyColor familyColor;
 
     private final Map<DomesticColor, Domestic> domestics = new HashMap<>();
@@ -26,13 +31,19 @@ public class GameUser implements Game.UserObjects.GameUser {
 
     private final transient User user;
 
-    private volatile transient PlayerState currentState;
+    private transient PlayerState currentState;
+
+    private transient boolean roundJump = false;
 
-    private volatile transient boolean roundJump = false;
+    private transient boolean churchSupport = false;
 
-    private volatile transient boolean churchSupport = false;
+    // Moves the turn is still waiting for from this user
+    private transient int moves = 0;
 
-    private final transient AtomicInteger moves = new AtomicInteger(0);
+    // Player state sent to clients with last update, base for next delta
+    private transient PlayerState sentState = null;
+
+    private transient int stateVersion = 0;
 
     /**
      * Initialize a new game user with player state
@@ -121,9 +132,14 @@ public class GameUser implements Game.UserObjects.GameUser {
         return roundJump;
     }
 
+    /**
+     * Get current player state: changes must be committed with updateUserState
+     *
+     * @return Current player state
+     */
     @Override
     public PlayerState getUserState() {
-        return (PlayerState) currentState.clone();
+        return currentState;
     }
 
     /**
@@ -135,7 +151,7 @@ public class GameUser implements Game.UserObjects.GameUser {
         currentState = newState;
 
         // Get favors added if any
-        int newFavors = currentState.getResources().get(ResourceType.Favor);
+        int newFavors = currentState.getResource(ResourceType.Favor);
 
         // Ask user to choose gained favors
         if(newFavors > 0) {
@@ -152,7 +168,26 @@ public class GameUser implements Game.UserObjects.GameUser {
 
         // Send update to all users
         if(user.getMatch() != null)
-            user.getMatch().sendAll(new PlayerStateUpdate(user.getUsername(), currentState));
+            sendStateUpdate();
+    }
+
+    /**
+     * Send current state to all match users: only changes from last sent state are sent, with a full
+     * snapshot every few updates to resync clients. All users receive every update, so the same
+     * base version is shared by all clients
+     */
+    private void sendStateUpdate() {
+        final PlayerState toSend = currentState;
+
+        stateVersion++;
+
+        if(sentState == null || stateVersion % SNAPSHOT_INTERVAL == 0)
+            user.getMatch().sendAll(new PlayerStateUpdate(user.getUsername(), toSend, stateVersion));
+        else
+            user.getMatch().sendAll(new PlayerStateDelta(user.getUsername(), sentState, toSend, stateVersion));
+
+        // Sent state must not change with following updates
+        sentState = toSend.clone();
     }
 
     /**
@@ -162,13 +197,13 @@ public class GameUser implements Game.UserObjects.GameUser {
      */
     public void setHasMoved(boolean hasMoved) {
         if(!hasMoved)
-            moves.incrementAndGet();
+            moves++;
         else
-            moves.decrementAndGet();
+            moves--;
     }
 
     public void resetMove() {
-        moves.set(0);
+        moves = 0;
     }
 
     /**
@@ -177,7 +212,7 @@ public class GameUser implements Game.UserObjects.GameUser {
      * @return True if has moved, false else
      */
     public boolean getHasMoved() {
-        return moves.compareAndSet(0,0);
+        return moves == 0;
     }
 
     /**
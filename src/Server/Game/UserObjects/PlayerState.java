@@ -6,34 +6,39 @@ import Game.Effects.Effect;
 import Game.Effects.EffectType;
 import Game.Positions.PositionType;
 import Game.Usable.ResourceType;
-import Server.Game.Usable.UsableHelper;
+import Game.Usable.ResourceVector;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Created by fiore on 16/05/2017.
+ * <p>
+ * Resources, bonuses, cards and effects are persistent: values and collections referenced by a state are
+ * never modified, every update replaces only the changed resource vector, or the changed list and the
+ * map holding it. Clones share everything with the original, so taking a snapshot costs a few references.
  */
 public class PlayerState implements Game.UserObjects.PlayerState {
 
-    private final Map<ResourceType, Integer> resources;
+    private ResourceVector resources;
 
-    private final Map<ResourceType, Integer> resourcesPenalty;
+    private ResourceVector resourcesPenalty;
 
-    private final Map<CardType, Map<ResourceType, Integer>> resourceBonus = new HashMap<>();
+    private Map<CardType, ResourceVector> resourceBonus = new HashMap<>();
 
-    private final Map<EffectType, List<Effect>> effects = new HashMap<>();
+    private Map<EffectType, List<Effect>> effects = new HashMap<>();
 
-    private final Map<CardType, List<Card>> cards = new HashMap<>();
+    private Map<CardType, List<Card>> cards = new HashMap<>();
 
     private final transient GameUser gameUser;
 
-    private volatile Domestic inUseDomestic = null;
+    private Domestic inUseDomestic = null;
 
-    private volatile transient PositionType checkingPosition = null;
+    private transient PositionType checkingPosition = null;
 
-    private volatile int slavePerDomestic = 1;
+    private int slavePerDomestic = 1;
 
     /**
      * Initialize a new player state with specified comm link to send effects callbacks
@@ -42,19 +47,16 @@ public class PlayerState implements Game.UserObjects.PlayerState {
      */
     public PlayerState(GameUser gameUser) {
 
-        resources = new HashMap<>();
+        resources = ResourceVector.zero();
 
-        for (ResourceType type : ResourceType.values())
-            resources.put(type, 0);
-
-        resourcesPenalty = UsableHelper.cloneMap(resources);
+        resourcesPenalty = ResourceVector.zero();
 
         for (EffectType type : EffectType.values())
             effects.put(type, new ArrayList<>());
 
         for (CardType type : CardType.values()) {
             cards.put(type, new ArrayList<>());
-            resourceBonus.put(type, UsableHelper.cloneMap(resources));
+            resourceBonus.put(type, ResourceVector.zero());
         }
 
         this.gameUser = gameUser;
@@ -67,13 +69,12 @@ public class PlayerState implements Game.UserObjects.PlayerState {
      */
     private PlayerState(PlayerState toClone) {
 
-        resources = UsableHelper.cloneMap(toClone.resources);
-        resourcesPenalty = UsableHelper.cloneMap(toClone.resourcesPenalty);
-        toClone.resourceBonus.forEach((key, resources) ->
-                resourceBonus.put(key, UsableHelper.cloneMap(resources)));
-
-        toClone.effects.forEach((type, list) -> effects.put(type, new ArrayList<>(list)));
-        toClone.cards.forEach((type, list) -> cards.put(type, new ArrayList<>(list)));
+        // Persistent values are shared, only the in use domestic can be modified in place
+        resources = toClone.resources;
+        resourcesPenalty = toClone.resourcesPenalty;
+        resourceBonus = toClone.resourceBonus;
+        effects = toClone.effects;
+        cards = toClone.cards;
         gameUser = toClone.gameUser;
         inUseDomestic = toClone.inUseDomestic != null ? new Domestic(toClone.inUseDomestic) : null;
         checkingPosition = toClone.checkingPosition;
@@ -84,8 +85,6 @@ public class PlayerState implements Game.UserObjects.PlayerState {
      * Gson constructor
      */
     private PlayerState() {
-        resources = null;
-        resourcesPenalty = null;
         gameUser = null;
     }
 
@@ -111,25 +110,53 @@ public class PlayerState implements Game.UserObjects.PlayerState {
 
     @Override
     public Map<ResourceType, Integer> getResources() {
-        return UsableHelper.cloneMap(resources);
+        return resources.toMap();
+    }
+
+    @Override
+    public int getResource(ResourceType type) {
+        return resources.get(type);
+    }
+
+    @Override
+    public ResourceVector getResourceVector() {
+        return new ResourceVector(resources);
+    }
+
+    @Override
+    public boolean hasResources(ResourceVector requested) {
+        return resources.dominates(requested);
     }
 
     @Override
-    public void setResources(Map<ResourceType, Integer> updatedResources, boolean applyPenalty) {
+    public void setResources(ResourceVector updatedResources, boolean applyPenalty) {
+        final ResourceVector newResources = new ResourceVector(resources);
 
         // Update each resource value (if resource has been added remove penalty)
         updatedResources.forEach((type, value) -> {
-            if (resources.get(type) < value + (applyPenalty ? resourcesPenalty.get(type) : 0))
-                resources.replace(type, value - (applyPenalty ? resourcesPenalty.get(type) : 0));
+            final int penalty = applyPenalty ? resourcesPenalty.get(type) : 0;
+
+            if (newResources.get(type) < value + penalty)
+                newResources.set(type, value - penalty);
 
-            if(resources.get(type) > value)
-                resources.replace(type, Integer.valueOf(value));
+            if(newResources.get(type) > value)
+                newResources.set(type, value);
         });
+
+        resources = newResources;
     }
 
     @Override
     public void setPenalty(ResourceType type, int quantity) {
-        resourcesPenalty.replace(type, quantity);
+        final ResourceVector newPenalty = new ResourceVector(resourcesPenalty);
+        newPenalty.set(type, quantity);
+
+        resourcesPenalty = newPenalty;
+    }
+
+    @Override
+    public ResourceVector getPenalty() {
+        return new ResourceVector(resourcesPenalty);
     }
 
     @Override
@@ -144,41 +171,55 @@ public class PlayerState implements Game.UserObjects.PlayerState {
 
     @Override
     public List<Effect> getEffects(EffectType type) {
-        return effects.get(type);
+        return Collections.unmodifiableList(effects.get(type));
+    }
+
+    @Override
+    public void setEffects(EffectType type, List<Effect> newEffects) {
+        effects = replace(effects, type, new ArrayList<>(newEffects));
     }
 
     @Override
     public void addEffect(Effect newEffect) {
-        effects.get(newEffect.getType()).add(newEffect);
+        effects = replace(effects, newEffect.getType(), append(effects.get(newEffect.getType()), newEffect));
     }
 
     @Override
     public void addCard(Card newCard) {
 
         // Add card to correct card list
-        cards.get(newCard.getType()).add(newCard);
+        cards = replace(cards, newCard.getType(), append(cards.get(newCard.getType()), newCard));
 
         // Add card effects to relative effects list
-        newCard.getEffects().forEach(effect -> effects.get(effect.getType()).add(effect));
+        newCard.getEffects().forEach(this::addEffect);
 
         // Apply immediate effects and remove them from list
-        effects.get(EffectType.Immediate).forEach(effect -> effect.apply(this));
-        effects.get(EffectType.Immediate).clear();
+        final List<Effect> immediate = effects.get(EffectType.Immediate);
+        effects = replace(effects, EffectType.Immediate, new ArrayList<>());
+        immediate.forEach(effect -> effect.apply(this));
     }
 
     @Override
     public List<Card> getCards(CardType type) {
-        return cards.get(type);
+        return Collections.unmodifiableList(cards.get(type));
+    }
+
+    @Override
+    public void setCards(CardType type, List<Card> newCards) {
+        cards = replace(cards, type, new ArrayList<>(newCards));
     }
 
     @Override
     public void setCostBonus(CardType type, ResourceType resourceType, int quantity) {
-        resourceBonus.get(type).replace(resourceType, quantity);
+        final ResourceVector newBonus = new ResourceVector(resourceBonus.get(type));
+        newBonus.set(resourceType, quantity);
+
+        resourceBonus = replace(resourceBonus, type, newBonus);
     }
 
     @Override
-    public Map<ResourceType, Integer> getCostBonus(CardType type) {
-        return resourceBonus.get(type);
+    public ResourceVector getCostBonus(CardType type) {
+        return new ResourceVector(resourceBonus.get(type));
     }
 
     @Override
@@ -190,4 +231,71 @@ public class PlayerState implements Game.UserObjects.PlayerState {
     public PlayerState clone() {
         return new PlayerState(this);
     }
+
+    /**
+     * Check if given state has the same content of this one for positions checks.
+     * Cards, effects and bonuses are compared by reference: persistent data shared with a common clone
+     * is the same, while any update since the clone makes states different
+     *
+     * @param other State to compare
+     * @return True if both states would get the same positions check results, false else
+     */
+    boolean hasSameContent(PlayerState other) {
+        return resources.equals(other.resources)
+                && resourcesPenalty.equals(other.resourcesPenalty)
+                && resourceBonus == other.resourceBonus
+                && cards == other.cards
+                && effects == other.effects
+                && slavePerDomestic == other.slavePerDomestic
+                && sameDomestic(inUseDomestic, other.inUseDomestic);
+    }
+
+    /**
+     * Check if two domestics have same family, color and value
+     *
+     * @param first First domestic
+     * @param second Second domestic
+     * @return True if domestics are equivalent or both null, false else
+     */
+    private static boolean sameDomestic(Domestic first, Domestic second) {
+        if(first == null || second == null)
+            return first == second;
+
+        return first.getFamilyColor() == second.getFamilyColor()
+                && first.getType() == second.getType()
+                && first.getValue().equals(second.getValue());
+    }
+
+    /**
+     * Copy given map replacing the value of given key
+     *
+     * @param map Map to copy (not modified)
+     * @param key Key to update
+     * @param value New value
+     * @param <K> Key type
+     * @param <V> Value type
+     * @return New map
+     */
+    private static <K, V> Map<K, V> replace(Map<K, V> map, K key, V value) {
+        final Map<K, V> newMap = new HashMap<>(map);
+        newMap.put(key, value);
+
+        return newMap;
+    }
+
+    /**
+     * Copy given list appending an element
+     *
+     * @param list List to copy (not modified)
+     * @param element Element to append
+     * @param <T> Element type
+     * @return New list
+     */
+    private static <T> List<T> append(List<T> list, T element) {
+        final List<T> newList = new ArrayList<>(list.size() + 1);
+        newList.addAll(list);
+        newList.add(element);
+
+        return newList;
+    }
 }
@@ -0,0 +1,101 @@
+package Server.Game.UserObjects;
+
+import Game.Usable.ResourceType;
+import Game.UserObjects.DomesticColor;
+import Game.UserObjects.FamilyColor;
+import Logging.Logger;
+import Model.User.User;
+import Server.Game.Cards.SplitDeck;
+import Server.Game.Effects.Faith.FaithDeck;
+import Server.Game.GameHelper;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This main is used for testing purpose only: it times GameTable.getPositions(user, null) on a four
+ * players table with the first turn cards.
+ * <p>
+ * Run with "Hit|Miss" (a separate process for each mode keeps results independent): Hit calls it
+ * on an unchanged board and state, Miss changes the user's victory points before every call, so no
+ * call can reuse a previous check.
+ */
+public class TestGetPositions {
+
+    private static final long WARMUP = TimeUnit.SECONDS.toNanos(3);
+
+    private static final int ROUNDS = 5;
+
+    private static final int OPERATIONS = 20000;
+
+    private static long sink = 0;
+
+    public static void main(String[] args) throws Exception {
+        Logger.setLogLevel(Logger.LogLevel.Warning);
+
+        if(args.length < 1 || !(args[0].equals("Hit") || args[0].equals("Miss"))) {
+            System.out.println("Usage: Hit|Miss");
+            return;
+        }
+
+        final boolean miss = args[0].equals("Miss");
+
+        final GameUser gameUser = new GameUser(new User("TestUser", 0, 0, 0), FamilyColor.Green);
+        final Map<DomesticColor, Integer> domestics = new HashMap<>();
+        domestics.put(DomesticColor.Orange, 5);
+        domestics.put(DomesticColor.Black, 4);
+        domestics.put(DomesticColor.White, 6);
+        domestics.put(DomesticColor.Neutral, 0);
+        gameUser.setDomestics(domestics);
+
+        final PlayerState state = GameHelper.getInstance().getInitialPS(gameUser, 0);
+        state.setInUseDomestic(gameUser.getDomestics().get(DomesticColor.Black));
+        gameUser.updateUserState(state);
+
+        final SplitDeck deck = new SplitDeck();
+        final GameTable table = GameTable.load(4);
+        table.changeTurn(deck.getCardPerTurn(1), new FaithDeck().getFaithEffect().get(2));
+
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+
+        final long warmupEnd = System.nanoTime() + WARMUP;
+
+        while (System.nanoTime() < warmupEnd)
+            call(table, gameUser, state, miss);
+
+        System.out.println("mode  round  us/op    B/op");
+
+        for (int round = 0; round < ROUNDS; round++) {
+            final long allocated = threads.getThreadAllocatedBytes(thread);
+            final long start = System.nanoTime();
+
+            for (int i = 0; i < OPERATIONS; i++)
+                call(table, gameUser, state, miss);
+
+            final long time = System.nanoTime() - start;
+
+            System.out.printf("%-4s  %5d  %6.1f  %6d%n", args[0], round, time / 1000.0 / OPERATIONS,
+                    (threads.getThreadAllocatedBytes(thread) - allocated) / OPERATIONS);
+        }
+
+        System.out.println(sink);
+    }
+
+    /**
+     * Get positions available to given user
+     *
+     * @param table Table to check
+     * @param gameUser User to check positions for
+     * @param state Current state of the user
+     * @param miss True to change the user's state before the call
+     */
+    private static void call(GameTable table, GameUser gameUser, PlayerState state, boolean miss) {
+        if(miss)
+            state.setResources(Collections.singletonMap(ResourceType.VictoryPoint, (int) (sink & 0xffff)), false);
+
+        sink += 1 + table.getPositions(gameUser, null).size();
+    }
+}
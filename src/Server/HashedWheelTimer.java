@@ -0,0 +1,320 @@
+package Server;
+
+import Logging.Logger;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-wide timer for match countdowns, move deadlines and link timeouts.
+ * Timeouts are kept in a wheel of buckets, one for each tick: scheduling and cancelling are constant
+ * time and a single worker thread serves all timeouts, with tick duration precision.
+ * Tasks run on the worker thread, so they must only hand work over to other executors.
+ */
+public class HashedWheelTimer {
+
+    private static final HashedWheelTimer instance = new HashedWheelTimer(50, TimeUnit.MILLISECONDS, 512);
+
+    // Maximum number of new timeouts moved into the wheel on each tick
+    private static final int MAX_TRANSFER = 100000;
+
+    private final long tickNanos;
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final long startTime = System.nanoTime();
+
+    // Timeouts scheduled or cancelled since last tick, handled by the worker
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong pendingTimeouts = new AtomicLong(0);
+
+    private final Thread worker;
+
+    private volatile boolean isStopped = false;
+
+    // Current tick (accessed by worker thread only)
+    private long tick = 0;
+
+    /**
+     * Get server-wide timer
+     *
+     * @return Timer instance
+     */
+    public static HashedWheelTimer getInstance() {
+        return instance;
+    }
+
+    /**
+     * Initialize a new timer and start its worker thread
+     *
+     * @param tickDuration Duration of a tick, which is timer precision
+     * @param unit Tick duration time unit
+     * @param wheelSize Number of buckets in the wheel (rounded up to a power of two)
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize) {
+        tickNanos = unit.toNanos(tickDuration);
+
+        int size = 1;
+
+        while (size < wheelSize)
+            size <<= 1;
+
+        wheel = new Bucket[size];
+        mask = size - 1;
+
+        for (int i = 0; i < size; i++)
+            wheel[i] = new Bucket();
+
+        worker = new Thread(this::run, "WheelTimer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Schedule given task to run once after the delay
+     *
+     * @param task Task to run on timer thread
+     * @param delay Delay before the task runs
+     * @param unit Delay time unit
+     * @return Timeout handle to cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        final Timeout timeout = new Timeout(task, System.nanoTime() - startTime + unit.toNanos(delay));
+
+        pendingTimeouts.incrementAndGet();
+        scheduled.add(timeout);
+
+        return timeout;
+    }
+
+    /**
+     * Get number of timeouts not yet expired or cancelled
+     *
+     * @return Pending timeouts
+     */
+    public long getPendingTimeouts() {
+        return pendingTimeouts.get();
+    }
+
+    /**
+     * Stop worker thread: pending timeouts won't run
+     */
+    public void stop() {
+        isStopped = true;
+        worker.interrupt();
+    }
+
+    /**
+     * Worker loop: wait for next tick, then expire timeouts of current bucket
+     */
+    private void run() {
+        while (!isStopped) {
+            final long sleepNanos = tickNanos * (tick + 1) - (System.nanoTime() - startTime);
+
+            if(sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException ie) {
+                    if(isStopped)
+                        return;
+                }
+
+                continue;
+            }
+
+            removeCancelled();
+            transferScheduled();
+            expire(wheel[(int) (tick & mask)]);
+
+            tick++;
+        }
+    }
+
+    /**
+     * Remove cancelled timeouts from their buckets
+     */
+    private void removeCancelled() {
+        Timeout timeout;
+
+        while ((timeout = cancelled.poll()) != null)
+            if(timeout.bucket != null)
+                timeout.bucket.remove(timeout);
+    }
+
+    /**
+     * Move new timeouts to the bucket of their deadline
+     */
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFER; i++) {
+            final Timeout timeout = scheduled.poll();
+
+            if(timeout == null)
+                return;
+
+            if(timeout.state.get() == Timeout.CANCELLED)
+                continue;
+
+            final long deadlineTick = timeout.deadline / tickNanos;
+
+            timeout.remainingRounds = (deadlineTick - tick) / wheel.length;
+
+            // Deadlines already passed expire on current tick
+            wheel[(int) (Math.max(deadlineTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Run timeouts of given bucket due in current round
+     *
+     * @param bucket Bucket of current tick
+     */
+    private void expire(Bucket bucket) {
+        Timeout timeout = bucket.head;
+
+        while (timeout != null) {
+            final Timeout next = timeout.next;
+
+            if(timeout.remainingRounds <= 0) {
+                bucket.remove(timeout);
+                timeout.expire();
+            }
+            else
+                timeout.remainingRounds--;
+
+            timeout = next;
+        }
+    }
+
+    /**
+     * Handle of a scheduled task
+     */
+    public final class Timeout {
+
+        private static final int WAITING = 0;
+
+        private static final int CANCELLED = 1;
+
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+
+        // Deadline in nanoseconds from timer start
+        private final long deadline;
+
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Bucket position (accessed by worker thread only)
+        private long remainingRounds;
+
+        private Bucket bucket;
+
+        private Timeout previous;
+
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel this timeout if it hasn't run yet
+         *
+         * @return True if the task won't run, false if it has already run or been cancelled
+         */
+        public boolean cancel() {
+            if(!state.compareAndSet(WAITING, CANCELLED))
+                return false;
+
+            pendingTimeouts.decrementAndGet();
+
+            // Worker removes it from its bucket on next tick
+            cancelled.add(this);
+
+            return true;
+        }
+
+        /**
+         * Check if this timeout has been cancelled
+         *
+         * @return True if cancelled
+         */
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        /**
+         * Check if the task of this timeout has run
+         *
+         * @return True if expired
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        /**
+         * Run the task unless the timeout has been cancelled
+         */
+        private void expire() {
+            if(!state.compareAndSet(WAITING, EXPIRED))
+                return;
+
+            pendingTimeouts.decrementAndGet();
+
+            try {
+                task.run();
+            } catch (Throwable t) {
+                Logger.log(Logger.LogLevel.Error, "Exception thrown by timer task.\n" + t.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts expiring on the same tick of the wheel
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+
+            if(tail == null)
+                head = timeout;
+            else
+                tail.next = timeout;
+
+            tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if(timeout.bucket != this)
+                return;
+
+            if(timeout.previous == null)
+                head = timeout.next;
+            else
+                timeout.previous.next = timeout.next;
+
+            if(timeout.next == null)
+                tail = timeout.previous;
+            else
+                timeout.next.previous = timeout.previous;
+
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+    }
+}
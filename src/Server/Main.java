@@ -2,13 +2,15 @@ package Server;
 
 import Server.Game.Cards.SplitDeck;
 import Server.Game.Lobby;
+import Server.Game.Matchmaking.RatingBucketPolicy;
 import Logging.Logger;
 import Model.UserManager;
 import Server.Networking.ConnectionHandler;
+import Server.Networking.LinkMonitor;
 import Server.Networking.LogInHandler;
 import Server.Networking.RMI.RMIAcceptor;
-import Server.Networking.SQL.DBContext;
-import Server.Networking.Socket.SocketAcceptor;
+import Server.Networking.SQL.DBPool;
+import Server.Networking.Socket.NioSocketAcceptor;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -25,8 +27,8 @@ public class Main {
 
         final String mySqlConnString = "jdbc:mysql://localhost/LorenzoDB?user=Lollo&password=Lorenzo@";
 
-        // Create database instance for users
-        final DBContext db = new DBContext(mySqlConnString);
+        // Create database connection pool for users
+        final DBPool db = new DBPool(mySqlConnString);
         try {
             db.connect();
 
@@ -39,14 +41,23 @@ public class Main {
         // Initialize user manager
         UserManager.init(db);
 
+        // Match users with similar rating
+        Lobby.getInstance().setPolicy(new RatingBucketPolicy());
+
+        // Start server-wide timer before users can join matches
+        final HashedWheelTimer timer = HashedWheelTimer.getInstance();
+
+        // Close links of clients that stopped sending heartbeats
+        final LinkMonitor linkMonitor = new LinkMonitor();
+
         // Initialize login handler
-        LogInHandler loginHandler = new LogInHandler();
+        LogInHandler loginHandler = new LogInHandler(linkMonitor);
 
         // Initialize connection handler with multiple connection providers
         final ConnectionHandler connHandler = new ConnectionHandler();
 
         try {
-            connHandler.addAcceptor(new SocketAcceptor(loginHandler, 8080));
+            connHandler.addAcceptor(new NioSocketAcceptor(loginHandler, 8080));
             connHandler.addAcceptor(new RMIAcceptor(loginHandler));
         } catch (RemoteException re) {
             Logger.log(Logger.LogLevel.Error, "Can't initialize rmi acceptor.\n" + re.getMessage());
@@ -60,7 +71,7 @@ public class Main {
         // Start connection handlers
         connHandler.startAll();
 
-        System.out.println("Use \"end\" to shutdown the application");
+        System.out.println("Use \"end\" to shutdown the application, \"stats\" to show server statistics");
 
         final BufferedReader sysIn = new BufferedReader(new InputStreamReader(System.in));
 
@@ -70,12 +81,28 @@ public class Main {
 
             command = sysIn.readLine();
 
+            if(command.equals("stats")) {
+                System.out.println("Logged users: " + UserManager.getInstance().getSessionsCount());
+                System.out.println(db.getStatistics());
+                System.out.println(loginHandler.getStatistics());
+                System.out.println(linkMonitor.getStatistics());
+                System.out.println("Pending timeouts: " + timer.getPendingTimeouts());
+                System.out.print(Lobby.getInstance().getStatistics());
+            }
+
         }
 
         connHandler.stopAll();
 
+        loginHandler.shutdown();
+
+        linkMonitor.shutdown();
+
         Lobby.getInstance().dismissAll();
 
+        // Save pending user updates before exiting
+        UserManager.getInstance().shutdown();
+
         Runtime.getRuntime().halt(0);
     }
 }
@@ -0,0 +1,124 @@
+package Server.Metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power of two buckets.
+ * Percentiles are approximated to the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final String name;
+
+    // Bucket i counts samples in range [2^(i-1), 2^i) nanoseconds
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong(0);
+
+    private final AtomicLong totalNanos = new AtomicLong(0);
+
+    private final AtomicLong maxNanos = new AtomicLong(0);
+
+    /**
+     * Initialize a new empty histogram
+     *
+     * @param name Name used in summary string
+     */
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record a new sample
+     *
+     * @param nanos Sample duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if(nanos < 0)
+            nanos = 0;
+
+        // Zero goes in first bucket, positive values in bucket matching their bit length
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(nanos));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Record time elapsed from given start
+     *
+     * @param startNanos Start time as returned by System.nanoTime()
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax(TimeUnit unit) {
+        return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getMean(TimeUnit unit) {
+        final long samples = count.get();
+
+        return samples == 0 ? 0 : unit.convert(totalNanos.get() / samples, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Approximate value below which given percentage of samples fall
+     *
+     * @param percentile Percentile in range 0-100
+     * @param unit Time unit of returned value
+     * @return Upper bound of the bucket containing requested percentile, zero if no samples are present
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+        final long samples = count.get();
+
+        if(samples == 0)
+            return 0;
+
+        final long threshold = (long) Math.ceil(samples * Math.min(Math.max(percentile, 0), 100) / 100);
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+
+            if(seen >= threshold && seen > 0)
+                return unit.convert(Math.min(i == 0 ? 0 : (1L << i) - 1, maxNanos.get()), TimeUnit.NANOSECONDS);
+        }
+
+        return getMax(unit);
+    }
+
+    /**
+     * Remove all samples
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets.set(i, 0);
+
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return name + ": count=" + getCount()
+                + " mean=" + getMean(TimeUnit.MICROSECONDS) + "us"
+                + " p50=" + getPercentile(50, TimeUnit.MICROSECONDS) + "us"
+                + " p99=" + getPercentile(99, TimeUnit.MICROSECONDS) + "us"
+                + " max=" + getMax(TimeUnit.MICROSECONDS) + "us";
+    }
+}
@@ -0,0 +1,220 @@
+package Server.Networking;
+
+import Logging.Logger;
+import Model.User.User;
+import Model.UserManager;
+import Networking.CommLink;
+import Server.Game.Lobby;
+import Server.HashedWheelTimer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Liveness monitor for client links.
+ * Clients send a heartbeat every CommLink.HEARTBEAT_INTERVAL and every received frame counts as
+ * activity. Each link has a single timeout on the server-wide timer: when it expires the link is closed
+ * if nothing has been received for the idle timeout, otherwise it is moved to last activity plus idle
+ * timeout. Idle timeout is three heartbeats by default and can be set with system property
+ * "lorifico.idleTimeout" (milliseconds).
+ * Clients older than heartbeats send nothing while their player is thinking or other players move, so
+ * only links which have sent at least one heartbeat are closed when idle; the others are closed only
+ * when the peer goes away.
+ * When a link closes, for any reason, its user leaves the lobby and is disconnected.
+ */
+public class LinkMonitor {
+
+    public static final String IDLE_TIMEOUT_PROPERTY = "lorifico.idleTimeout";
+
+    private final long idleNanos;
+
+    private final HashedWheelTimer timer;
+
+    // Monitored links with their bound user, if logged
+    private final Map<CommLink, Watch> links = new ConcurrentHashMap<>();
+
+    // Closes reaped links and cleans up users, out of timer and I/O threads
+    private final ExecutorService cleaner = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "LinkMonitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong closedLinks = new AtomicLong(0);
+
+    private final AtomicLong reapedLinks = new AtomicLong(0);
+
+    /**
+     * Initialize a new monitor with default idle timeout on the server-wide timer
+     */
+    public LinkMonitor() {
+        this(Long.getLong(IDLE_TIMEOUT_PROPERTY, 3 * CommLink.HEARTBEAT_INTERVAL), TimeUnit.MILLISECONDS, HashedWheelTimer.getInstance());
+    }
+
+    /**
+     * Initialize a new monitor
+     *
+     * @param idleTimeout Time without received frames after which a link is closed
+     * @param unit Idle timeout time unit
+     * @param timer Timer to schedule idle checks on
+     */
+    public LinkMonitor(long idleTimeout, TimeUnit unit, HashedWheelTimer timer) {
+        this.idleNanos = unit.toNanos(idleTimeout);
+        this.timer = timer;
+    }
+
+    /**
+     * Start monitoring given link
+     *
+     * @param link New client link
+     */
+    public void watch(CommLink link) {
+        final Watch watch = new Watch();
+
+        links.put(link, watch);
+        link.setOnClose(this::linkClosed);
+
+        watch.timeout = timer.schedule(() -> check(link), idleNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Bind given link to the user who logged in on it, so the user is disconnected when the link closes
+     *
+     * @param link Monitored link
+     * @param user Authenticated user
+     * @return False if the link has already been closed
+     */
+    public boolean bind(CommLink link, User user) {
+
+        // Atomic with the removal of a closed link
+        return links.computeIfPresent(link, (boundLink, watch) -> {
+            watch.user = user;
+            return watch;
+        }) != null;
+    }
+
+    /**
+     * Get number of links closed because they have been idle too long
+     *
+     * @return Reaped links
+     */
+    public long getReapedCount() {
+        return reapedLinks.get();
+    }
+
+    /**
+     * Link statistics
+     *
+     * @return Readable link statistics
+     */
+    public String getStatistics() {
+        return "Links: open=" + links.size() + " closed=" + closedLinks.get() + " reaped=" + reapedLinks.get();
+    }
+
+    /**
+     * Stop cleaning up closed links
+     */
+    public void shutdown() {
+        cleaner.shutdownNow();
+    }
+
+    /**
+     * Check given link activity (called on timer thread)
+     *
+     * @param link Monitored link
+     */
+    private void check(CommLink link) {
+        final Watch watch = links.get(link);
+
+        // Link has been closed meanwhile
+        if(watch == null)
+            return;
+
+        final long idle = System.nanoTime() - link.getLastReceived();
+
+        if(idle < idleNanos) {
+            watch.timeout = timer.schedule(() -> check(link), idleNanos - idle, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        // Silence of a client without heartbeats isn't a sign of a dead link
+        if(!link.isHeartbeating()) {
+            watch.timeout = timer.schedule(() -> check(link), idleNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        reapedLinks.incrementAndGet();
+
+        final User user = watch.user;
+        Logger.log(Logger.LogLevel.Normal, "Closing idle link" + (user != null ? " of user " + user.getUsername() : "") + ".");
+
+        // Clean up here too: a link closed before being watched never calls back
+        execute(() -> {
+            link.shutdown();
+            cleanup(link);
+        });
+    }
+
+    /**
+     * Close callback of monitored links, called on the thread closing the link
+     *
+     * @param link Closed link
+     */
+    private void linkClosed(CommLink link) {
+        execute(() -> cleanup(link));
+    }
+
+    /**
+     * Stop monitoring given closed link, then remove its user from the lobby and disconnect it
+     *
+     * @param link Closed link
+     */
+    private void cleanup(CommLink link) {
+        final Watch watch = links.remove(link);
+
+        if(watch == null)
+            return;
+
+        closedLinks.incrementAndGet();
+
+        if(watch.timeout != null)
+            watch.timeout.cancel();
+
+        final User user = watch.user;
+
+        // User could have logged in again on a new link
+        if(user == null || user.getLink() != link)
+            return;
+
+        Lobby.getInstance().removeUser(user);
+
+        UserManager.getInstance().disconnectUser(user.getUsername());
+    }
+
+    /**
+     * Run given task on cleaner thread
+     *
+     * @param task Task to run
+     */
+    private void execute(Runnable task) {
+        try {
+            cleaner.execute(task);
+        } catch (RejectedExecutionException ree) {
+            // Server is shutting down
+        }
+    }
+
+    /**
+     * Monitoring state of a link
+     */
+    private static class Watch {
+
+        private volatile User user = null;
+
+        private volatile HashedWheelTimer.Timeout timeout = null;
+    }
+}
@@ -9,20 +9,62 @@ import Networking.CommLink;
 import Networking.Gson.GsonUtils;
 import Server.Game.Lobby;
 import Server.Game.UserHandler;
+import Server.Metrics.LatencyHistogram;
 import com.google.gson.JsonSyntaxException;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Created by fiore on 10/05/2017.
  */
 public class LogInHandler implements LinkHandler {
 
+    private static final int LOGIN_WORKERS = 10;
+
+    private static final int LOGIN_QUEUE_SIZE = 1000;
+
     private final UserHandler userHandler = Lobby.getInstance();
 
     private final UserAuthenticator userFactory = UserManager.getInstance();
 
+    private final LinkMonitor linkMonitor;
+
+    // Bounded pool running login requests: when the queue is full new requests are rejected
+    private final ThreadPoolExecutor loginPool = new ThreadPoolExecutor(LOGIN_WORKERS, LOGIN_WORKERS,
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(LOGIN_QUEUE_SIZE));
+
+    // Links with a login request still in progress
+    private final Set<CommLink> pendingLinks = ConcurrentHashMap.newKeySet();
+
+    private final LatencyHistogram queueLatency = new LatencyHistogram("Login queue");
+
+    private final LatencyHistogram deserializeLatency = new LatencyHistogram("Login deserialize");
+
+    private final LatencyHistogram authenticateLatency = new LatencyHistogram("Login authenticate");
+
+    private final LatencyHistogram bindLatency = new LatencyHistogram("Login bind");
+
+    private final LatencyHistogram lobbyLatency = new LatencyHistogram("Login lobby");
+
+    private final LatencyHistogram totalLatency = new LatencyHistogram("Login total");
+
+    /**
+     * Initialize a new login handler
+     *
+     * @param linkMonitor Liveness monitor for new links
+     */
+    public LogInHandler(LinkMonitor linkMonitor) {
+        this.linkMonitor = linkMonitor;
+    }
+
     public void addClientComm(CommLink newLink) {
         Logger.log(Logger.LogLevel.Normal, "New client connected.");
 
+        // Close the link if the client stops sending heartbeats
+        linkMonitor.watch(newLink);
+
         // Set link authentication method as link callback
         newLink.setOnMessage(this::clientHandshake);
     }
@@ -34,35 +76,155 @@ public class LogInHandler implements LinkHandler {
      * @param message First message received on the link
      */
     private void clientHandshake(CommLink link, final String message) {
-        BaseAction firstReceivedAction;
+        login(link, message);
+    }
+
+    /**
+     * Enqueue login request received on given link: deserialization, authentication, link binding
+     * and lobby insertion run on login pool, so the calling thread is free right away
+     *
+     * @param link New link not bound to a user
+     * @param message Message received on the link
+     * @return Future completed with authenticated user, or exceptionally if login fails
+     */
+    public CompletableFuture<User> login(CommLink link, final String message) {
+        final long enqueued = System.nanoTime();
+
+        // Only one login request at a time for each link
+        if(!pendingLinks.add(link)) {
+            link.sendMessage(new DisplayPopup(DisplayPopup.Level.Warning, "Login already in progress."));
+
+            final CompletableFuture<User> inProgress = new CompletableFuture<>();
+            inProgress.completeExceptionally(new LoginFailure("Login already in progress."));
+            return inProgress;
+        }
+
+        final CompletableFuture<User> loginRequest;
+
+        // User whose session has been registered, to be released if a later stage fails
+        final AtomicReference<User> authenticated = new AtomicReference<>();
 
         try {
-            firstReceivedAction = GsonUtils.fromGson(message);//Deserializes action
+            loginRequest = CompletableFuture
+                    .supplyAsync(() -> deserialize(message, enqueued), loginPool)
+                    .thenApply(loginAction -> {
+                        final User authorizedUser = authenticate(loginAction);
+                        authenticated.set(authorizedUser);
+
+                        return bind(link, loginAction, authorizedUser);
+                    })
+                    .thenApply(this::addToLobby)
+                    .thenApply(this::monitor);
+
+        } catch (RejectedExecutionException ree) {
+            Logger.log(Logger.LogLevel.Warning, "Login queue full, request rejected.");
+            pendingLinks.remove(link);
+
+            //Send error to the client
+            link.sendMessage(new DisplayPopup(DisplayPopup.Level.Warning, "Server busy, please retry in a few seconds."));
+
+            final CompletableFuture<User> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(ree);
+            return rejected;
+        }
+
+        return loginRequest.whenComplete((user, t) -> {
+            pendingLinks.remove(link);
 
-            //We only accept registration/login actions:
-            if (!(firstReceivedAction instanceof LoginOrRegister)) {//This looks like switch case...
-                BaseAction popup = new DisplayPopup(DisplayPopup.Level.Error, "You first have to login");
-                link.sendMessage(popup);
+            if(t == null) {
+                totalLatency.recordSince(enqueued);
                 return;
             }
 
-        } catch (JsonSyntaxException e) {
+            final Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+
+            // Without its session the user can log in again
+            final User authorizedUser = authenticated.get();
+
+            if(authorizedUser != null) {
+                Lobby.getInstance().removeUser(authorizedUser);
+                userFactory.disconnectUser(authorizedUser.getUsername());
+            }
+
             //Send error to the client
-            BaseAction popup = new DisplayPopup(DisplayPopup.Level.Error, "This server accepts only json strings");
-            link.sendMessage(popup);
-            return;
+            if(cause instanceof LoginFailure)
+                link.sendMessage(new DisplayPopup(DisplayPopup.Level.Error, cause.getMessage()));
+            else {
+                Logger.log(Logger.LogLevel.Warning, "Generic error during login.\n" + cause.getMessage());
+                link.sendMessage(new DisplayPopup(DisplayPopup.Level.Error, "Dunno uot appened... Doh!!"));
+            }
+        });
+    }
+
+    /**
+     * Stop accepting login requests
+     */
+    public void shutdown() {
+        loginPool.shutdownNow();
+    }
+
+    /**
+     * Latency summary for each login stage
+     *
+     * @return Readable login statistics
+     */
+    public String getStatistics() {
+        return "Login pool: active=" + loginPool.getActiveCount() + " queued=" + loginPool.getQueue().size() + "\n"
+                + queueLatency + "\n"
+                + deserializeLatency + "\n"
+                + authenticateLatency + "\n"
+                + bindLatency + "\n"
+                + lobbyLatency + "\n"
+                + totalLatency;
+    }
+
+    /**
+     * Deserialize login request
+     *
+     * @param message Message received on the link
+     * @param enqueued Time the request was enqueued at
+     * @return Login action
+     * @throws LoginFailure If the message isn't a login action
+     */
+    private LoginOrRegister deserialize(final String message, long enqueued) throws LoginFailure {
+        final long start = System.nanoTime();
+        queueLatency.record(start - enqueued);
+
+        BaseAction firstReceivedAction;
+
+        try {
+            firstReceivedAction = GsonUtils.fromGson(message);//Deserializes action
+
+        } catch (JsonSyntaxException e) {
+            throw new LoginFailure("This server accepts only json strings");
+        } finally {
+            deserializeLatency.recordSince(start);
         }
 
-        LoginOrRegister loginAction = (LoginOrRegister) firstReceivedAction;
+        //We only accept registration/login actions:
+        if (!(firstReceivedAction instanceof LoginOrRegister))
+            throw new LoginFailure("You first have to login");
+
+        return (LoginOrRegister) firstReceivedAction;
+    }
+
+    /**
+     * Check the database for authentication or create new user
+     *
+     * @param loginAction Login request
+     * @return Authenticated user
+     * @throws LoginFailure If authentication fails
+     */
+    private User authenticate(LoginOrRegister loginAction) throws LoginFailure {
+        final long start = System.nanoTime();
 
         // Retrieves username and password
         String username = loginAction.getUsername();
         String passwordHash = loginAction.getPasswordHash();
         boolean isNewUser = loginAction.isNewUser();
 
-        User authorizedUser = null;
+        User authorizedUser;
 
-        // Check the database for authentication or create new user
         try {
 
             if (isNewUser)
@@ -73,48 +235,51 @@ public class LogInHandler implements LinkHandler {
         } catch (UserAlreadyExistentException uaee) {
             Logger.log(Logger.LogLevel.Warning, "Attempted to add already existent user.\n" + uaee.getMessage());
 
-            //Send error to the client
-            BaseAction popup = new DisplayPopup(DisplayPopup.Level.Error, "User already exists.");
-            link.sendMessage(popup);
-
-            return;
+            throw new LoginFailure("User already exists.");
         }
         catch (UserNotFoundException unfe) {
             Logger.log(Logger.LogLevel.Warning, "Login attempt resulted in user not found.\n" + unfe.getMessage());
 
-            //Send error to the client
-            BaseAction popup = new DisplayPopup(DisplayPopup.Level.Error, "User " + username + " not found.");
-            link.sendMessage(popup);
-
-            return;
+            throw new LoginFailure("User " + username + " not found.");
         }
         catch (WrongPasswordException wpe) {
             Logger.log(Logger.LogLevel.Warning, "Login attempt with wrong password on user " + username + ".\n" + wpe.getMessage());
 
-            //Send error to the client
-            BaseAction popup = new DisplayPopup(DisplayPopup.Level.Error, "Wrong password.");
-            link.sendMessage(popup);
-
-            return;
+            throw new LoginFailure("Wrong password.");
         }
         catch (UserAlreadyLoggedException uale) {
             Logger.log(Logger.LogLevel.Warning, "User " + username + " attempted multiple login.\n" + uale.getMessage());
 
-            BaseAction popup = new DisplayPopup(DisplayPopup.Level.Error, uale.getMessage());
-            link.sendMessage(popup);
+            throw new LoginFailure(uale.getMessage());
+        } finally {
+            authenticateLatency.recordSince(start);
         }
 
         // If user is null log generic error and retry
         if(authorizedUser == null) {
             Logger.log(Logger.LogLevel.Warning, "Generic error while creating user.\n");
 
-            //Send generic error to client
-            BaseAction popup = new DisplayPopup(DisplayPopup.Level.Error, "Dunno uot appened... Doh!!");
-            link.sendMessage(popup);
-
-            return;
+            throw new LoginFailure("Dunno uot appened... Doh!!");
         }
 
+        return authorizedUser;
+    }
+
+    /**
+     * Bind link to authenticated user and move client to lobby view
+     *
+     * @param link Link the login request was received on
+     * @param loginAction Login request
+     * @param authorizedUser Authenticated user
+     * @return Authenticated user
+     */
+    private User bind(CommLink link, LoginOrRegister loginAction, User authorizedUser) {
+        final long start = System.nanoTime();
+
+        // Switch to compact encoding if the client asked for it, older clients keep json
+        if(loginAction.isCompactProtocol())
+            link.setCompactEncoding();
+
         // Bind link to user data
         authorizedUser.setCommLink(link);
 
@@ -128,7 +293,55 @@ public class LogInHandler implements LinkHandler {
         BaseAction changeView = new ChangeClientView(ChangeClientView.View.LOBBY);
         link.sendMessage(changeView);
 
-        // Pass user to user handler
+        bindLatency.recordSince(start);
+
+        return authorizedUser;
+    }
+
+    /**
+     * Pass user to user handler
+     *
+     * @param authorizedUser Authenticated user bound to its link
+     * @return Authenticated user
+     */
+    private User addToLobby(User authorizedUser) {
+        final long start = System.nanoTime();
+
         userHandler.addUser(authorizedUser);
+
+        lobbyLatency.recordSince(start);
+
+        return authorizedUser;
+    }
+
+    /**
+     * Bind user to its link monitor, so the user is disconnected when the link closes
+     *
+     * @param authorizedUser Authenticated user in the lobby
+     * @return Authenticated user
+     * @throws LoginFailure If the link has been closed during login
+     */
+    private User monitor(User authorizedUser) throws LoginFailure {
+
+        if(!linkMonitor.bind(authorizedUser.getLink(), authorizedUser)) {
+            Lobby.getInstance().removeUser(authorizedUser);
+            userFactory.disconnectUser(authorizedUser.getUsername());
+
+            throw new LoginFailure("Connection closed during login.");
+        }
+
+        return authorizedUser;
+    }
+
+    /**
+     * Login failure to be reported to the client with given message
+     */
+    private static class LoginFailure extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        LoginFailure(String clientMessage) {
+            super(clientMessage);
+        }
     }
 }
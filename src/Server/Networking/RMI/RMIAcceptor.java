@@ -108,7 +108,7 @@ public class RMIAcceptor extends UnicastRemoteObject implements LinkAcceptor, RM
         final MailBox newBuffer = new RMIMailBox();
 
         // Creates commLink for the server side
-        final RMIComm serverLink = new RMIComm(newBuffer::serverPost);
+        final RMIComm serverLink = new RMIComm(newBuffer::serverPost, newBuffer::serverPostBatch);
         newBuffer.setServerLink(serverLink);
 
         // Submit new link to the server comm handler
@@ -1,9 +1,12 @@
 package Server.Networking.RMI;
 
+import Logging.Logger;
 import Networking.RMI.MailBox;
 import Networking.RMI.MessageReceiver;
+import Networking.RMI.RMIComm;
 import java.io.Serializable;
 import java.rmi.RemoteException;
+import java.util.List;
 import java.rmi.server.UnicastRemoteObject;
 
 /**
@@ -21,6 +24,11 @@ public class RMIMailBox extends UnicastRemoteObject implements MailBox, Serializ
      */
     private volatile MessageReceiver serverLink;
 
+    /**
+     * False once the client turned out not to support batched delivery
+     */
+    private volatile boolean clientBatchSupported = true;
+
     public RMIMailBox() throws RemoteException {
         super();
     }
@@ -46,4 +54,33 @@ public class RMIMailBox extends UnicastRemoteObject implements MailBox, Serializ
         if(serverLink != null)
             serverLink.messageReceived(message);
     }
+
+    @Override
+    public void serverPostBatch(final List<String> messages) throws RemoteException {
+        final MessageReceiver receiver = clientLink;
+
+        if(receiver == null)
+            return;
+
+        if(clientBatchSupported)
+            try {
+                receiver.messagesReceived(messages);
+                return;
+            } catch (RemoteException re) {
+                if(!RMIComm.isUnsupportedCall(re))
+                    throw re;
+
+                clientBatchSupported = false;
+                Logger.log(Logger.LogLevel.Normal, "Rmi client doesn't support batched delivery, posting messages one at a time.");
+            }
+
+        for (String message : messages)
+            receiver.messageReceived(message);
+    }
+
+    @Override
+    public void clientPostBatch(final List<String> messages) throws RemoteException {
+        if(serverLink != null)
+            serverLink.messagesReceived(messages);
+    }
 }
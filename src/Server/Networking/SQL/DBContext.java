@@ -1,7 +1,6 @@
 package Server.Networking.SQL;
 
 import Logging.Logger;
-import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
 import java.sql.*;
 import java.util.List;
@@ -71,49 +70,12 @@ public class DBContext implements Database {
             connect();
 
         // Build procedure call statement according to total parameters number
-        String procedureName = "{call " + storedProcedureName;
-        int totalParams = (inputParams != null ? inputParams.length : 0) + (outputParams != null ? outputParams.length : 0);
-
-        // Build procedure call like "{call procName(?, ?, ?)}" adding all input/output parameters as needed
-        if(totalParams != 0) {
-            procedureName += "(?";
-
-            for (int i = 1; i < totalParams; i++) {
-                procedureName += ", ?";
-            }
-
-            procedureName += ")}";
-        }
-        else
-            procedureName += "()}";
+        final int totalParams = (inputParams != null ? inputParams.length : 0) + (outputParams != null ? outputParams.length : 0);
+        final String procedureName = DBHelper.getCallString(storedProcedureName, totalParams);
 
         // Initialize procedure call statement
         try (CallableStatement procedure = dbLink.prepareCall(procedureName)) {
-
-            // Add all input parameters if any
-            if(inputParams != null)
-                for (int i = 0; i < inputParams.length; i++)
-                    procedure.setObject(i + 1, inputParams[i]);
-
-            // Register all output parameters types if any
-            if(outputParams != null)
-                for (int i = 0; i < outputParams.length; i++)
-                    procedure.registerOutParameter(totalParams - outputParams.length + i + 1, getSQLType(outputParams[i]));
-
-            // Call stored procedure on the database
-            procedure.execute();
-
-            // Read output values after the call and store them back in the outputParams array
-            if(outputParams != null)
-                for (int i = 0; i < outputParams.length; i++)
-                    outputParams[i] = procedure.getObject(totalParams - outputParams.length + i + 1);
-
-            // Check if result set is expected
-            if(objectType == null)
-                return null;
-
-            // Get procedure result set and return data in requested object's type
-            return DBHelper.getResultList(procedure.getResultSet(), objectType);
+            return DBHelper.executeCall(procedure, inputParams, objectType, outputParams);
         }
     }
 
@@ -145,45 +107,17 @@ public class DBContext implements Database {
             call(storedProcedureName, null, null, params);
     }
 
-    /**
-     * Return SQL object type of given object
-     *
-     * @param obj Java object
-     * @return SQL object type number
-     */
-    @Contract(pure = true)
-    private int getSQLType(Object obj) {
-
-        if(obj instanceof Boolean)
-            return Types.BIT;
-
-        if(obj instanceof Character)
-            return Types.CHAR;
-
-        if(obj instanceof Byte)
-            return Types.TINYINT;
-
-        if(obj instanceof Short)
-            return Types.SMALLINT;
-
-        if(obj instanceof Integer)
-            return Types.INTEGER;
-
-        if(obj instanceof Long)
-            return Types.BIGINT;
-
-        if(obj instanceof Float)
-            return Types.FLOAT;
-
-        if(obj instanceof Double)
-            return Types.DOUBLE;
+    @Override
+    public void callBatch(final String storedProcedureName, List<Object[]> inputParamsList) throws SQLException {
 
-        if(obj instanceof String)
-            return Types.VARCHAR;
+        if(inputParamsList == null || inputParamsList.isEmpty())
+            return;
 
-        if(obj instanceof java.util.Date)
-            return Types.DATE;
+        if(dbLink == null)
+            connect();
 
-        return Types.JAVA_OBJECT;
+        try (CallableStatement procedure = dbLink.prepareCall(DBHelper.getCallString(storedProcedureName, inputParamsList.get(0).length))) {
+            DBHelper.executeBatch(procedure, inputParamsList);
+        }
     }
 }
@@ -2,12 +2,10 @@ package Server.Networking.SQL;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
+import java.sql.CallableStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,63 +30,145 @@ class DBHelper {
         if(resultSet == null)
             return null;
 
-        // Retrieve usable fields from given type
-        Field[] fields = getAvailableFields(resultSet.getMetaData(), objectType);
+        // Get cached binding between result set columns and type fields
+        final RowMapper<T> mapper = RowMapper.get(resultSet.getMetaData(), objectType);
 
         final ArrayList<T> resultList = new ArrayList<>();
 
-        try {
-            // Get parameterless constructor of given type
-            final Constructor<T> constructorT = objectType.getDeclaredConstructor();
-            constructorT.setAccessible(true);
+        // Populate list until result set ends
+        while (resultSet.next())
+            resultList.add(mapper.map(resultSet));
+
+        // Return populated list
+        return resultList;
+    }
 
-            // Populate list until result set ends
-            while (resultSet.next()) {
+    /**
+     * Set parameters on a prepared procedure call, execute it and read back output parameters and result set
+     *
+     * @param procedure Procedure call prepared with as many placeholders as input and output parameters
+     * @param inputParams Array of objects to be set as input parameter for the stored procedure
+     * @param objectType Type of object to try to bind to result set
+     * @param outputParams Array of objects to be set as output parameters (object inside the array are changed after the call)
+     * @param <T> Type of object to bind
+     * @return List of object initialized as in the result set if present and if can be bound
+     * @throws SQLException If any problem occurs during the call
+     */
+    static @Nullable <T> List<T> executeCall(CallableStatement procedure, Object[] inputParams, Class<T> objectType, Object[] outputParams) throws SQLException {
+        final int totalParams = (inputParams != null ? inputParams.length : 0) + (outputParams != null ? outputParams.length : 0);
 
-                T current = constructorT.newInstance();
+        // Add all input parameters if any
+        if(inputParams != null)
+            for (int i = 0; i < inputParams.length; i++)
+                procedure.setObject(i + 1, inputParams[i]);
 
-                // Populate each field with corresponding data from the result set
-                for (int i = 0; i < fields.length; i++) {
-                    if (fields[i] == null)
-                        continue;
+        // Register all output parameters types if any
+        if(outputParams != null)
+            for (int i = 0; i < outputParams.length; i++)
+                procedure.registerOutParameter(totalParams - outputParams.length + i + 1, getSQLType(outputParams[i]));
 
-                    fields[i].set(current, resultSet.getObject(i + 1, fields[i].getType()));
-                }
+        // Call stored procedure on the database
+        procedure.execute();
 
-                // Add initialized instance to the result list
-                resultList.add(current);
-            }
+        // Read output values after the call and store them back in the outputParams array
+        if(outputParams != null)
+            for (int i = 0; i < outputParams.length; i++)
+                outputParams[i] = procedure.getObject(totalParams - outputParams.length + i + 1);
 
-            // Return populated list
-            return resultList;
-        } catch (IllegalAccessException | InstantiationException | InvocationTargetException | NoSuchMethodException ex) {
+        // Check if result set is expected
+        if(objectType == null)
+            return null;
 
-            throw new SQLException("Error during instantiation of " + objectType.getName());
+        // Get procedure result set and return data in requested object's type
+        try (ResultSet resultSet = procedure.getResultSet()) {
+            return getResultList(resultSet, objectType);
         }
     }
 
-    /** Try to bind column names from a result set to field names of a given class
+    /**
+     * Add a call to the batch of given procedure for each set of input parameters and execute the batch
      *
-     * @param rsMeta Metadata of the result set to bind to the class
-     * @param type Class type to bind
-     * @return Array with as many fields as selected columns; if a column could't be bound to a class field
-     *         the corresponding position is set null
-     * @throws SQLException Throw if there are problems reading result set metadata
+     * @param procedure Procedure call prepared with as many placeholders as input parameters
+     * @param inputParamsList List of input parameters arrays
+     * @throws SQLException If any problem occurs during the batch execution
      */
-    private static Field[] getAvailableFields(ResultSetMetaData rsMeta, Class type) throws SQLException {
-        final Field[] fields = new Field[rsMeta.getColumnCount()];
-
-        // Find correct binding between field name in given class and column name in result set
-        for (int i = 0; i < fields.length; i++) {
-
-            try {
-                fields[i] = type.getDeclaredField(rsMeta.getColumnName(i + 1));
-                fields[i].setAccessible(true);
-            } catch (NoSuchFieldException nse) {
-                fields[i] = null;
-            }
+    static void executeBatch(CallableStatement procedure, List<Object[]> inputParamsList) throws SQLException {
+
+        for (Object[] inputParams : inputParamsList) {
+            for (int i = 0; i < inputParams.length; i++)
+                procedure.setObject(i + 1, inputParams[i]);
+
+            procedure.addBatch();
         }
 
-        return fields;
+        try {
+            procedure.executeBatch();
+        } finally {
+            procedure.clearBatch();
+        }
+    }
+
+    /**
+     * Build procedure call string like "{call procName(?, ?, ?)}" with given parameters number
+     *
+     * @param storedProcedureName Stored procedure name
+     * @param totalParams Total number of input and output parameters
+     * @return Procedure call string to prepare
+     */
+    @Contract(pure = true)
+    static String getCallString(String storedProcedureName, int totalParams) {
+        final StringBuilder procedureCall = new StringBuilder("{call ").append(storedProcedureName).append('(');
+
+        // Add a placeholder for each input/output parameter
+        for (int i = 0; i < totalParams; i++) {
+            if(i != 0)
+                procedureCall.append(", ");
+
+            procedureCall.append('?');
+        }
+
+        return procedureCall.append(")}").toString();
+    }
+
+    /**
+     * Return SQL object type of given object
+     *
+     * @param obj Java object
+     * @return SQL object type number
+     */
+    @Contract(pure = true)
+    static int getSQLType(Object obj) {
+
+        if(obj instanceof Boolean)
+            return Types.BIT;
+
+        if(obj instanceof Character)
+            return Types.CHAR;
+
+        if(obj instanceof Byte)
+            return Types.TINYINT;
+
+        if(obj instanceof Short)
+            return Types.SMALLINT;
+
+        if(obj instanceof Integer)
+            return Types.INTEGER;
+
+        if(obj instanceof Long)
+            return Types.BIGINT;
+
+        if(obj instanceof Float)
+            return Types.FLOAT;
+
+        if(obj instanceof Double)
+            return Types.DOUBLE;
+
+        if(obj instanceof String)
+            return Types.VARCHAR;
+
+        if(obj instanceof java.util.Date)
+            return Types.DATE;
+
+        return Types.JAVA_OBJECT;
     }
 }
@@ -0,0 +1,367 @@
+package Server.Networking.SQL;
+
+import Logging.Logger;
+import Server.Metrics.LatencyHistogram;
+import org.jetbrains.annotations.Nullable;
+import java.sql.CallableStatement;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Database implementation backed by a bounded pool of connections.
+ * Each connection keeps its own cache of prepared procedure calls, idle connections are
+ * validated before reuse and closed after being unused for too long.
+ */
+public class DBPool implements Database {
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private static final long DEFAULT_ACQUIRE_TIMEOUT = 5000;
+
+    private static final long DEFAULT_MAX_IDLE = 300000;
+
+    // Idle time after which a connection is validated before being handed out
+    private static final long VALIDATION_INTERVAL = 5000;
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String connectionString;
+
+    private final int poolSize;
+
+    private final long acquireTimeout;
+
+    private final long maxIdle;
+
+    // One permit for each connection that can be in use at the same time
+    private final Semaphore permits;
+
+    // Idle connections, most recently used first
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger openConnections = new AtomicInteger(0);
+
+    private final AtomicLong acquireTimeouts = new AtomicLong(0);
+
+    private final AtomicLong evictedConnections = new AtomicLong(0);
+
+    private final LatencyHistogram waitTime = new LatencyHistogram("DB pool wait");
+
+    private volatile ScheduledExecutorService evictor;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Initialize a pool with default size and timeouts
+     *
+     * @param connectionString Database connection string
+     */
+    public DBPool(final String connectionString) {
+        this(connectionString, DEFAULT_POOL_SIZE, DEFAULT_ACQUIRE_TIMEOUT, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Initialize a new connection pool
+     *
+     * @param connectionString Database connection string
+     * @param poolSize Maximum number of open connections
+     * @param acquireTimeout Maximum time to wait for a free connection in milliseconds
+     * @param maxIdle Time after which an unused connection is closed in milliseconds
+     * @throws IllegalArgumentException If pool size isn't positive
+     */
+    public DBPool(final String connectionString, int poolSize, long acquireTimeout, long maxIdle) throws IllegalArgumentException {
+
+        if(poolSize < 1)
+            throw new IllegalArgumentException("Pool size must be at least one.");
+
+        this.connectionString = connectionString;
+        this.poolSize = poolSize;
+        this.acquireTimeout = acquireTimeout;
+        this.maxIdle = maxIdle;
+        permits = new Semaphore(poolSize, true);
+    }
+
+    @Override
+    public synchronized void connect() throws SQLException {
+        if(evictor != null)
+            return;
+
+        closed = false;
+
+        // Open first connection now to report connection problems immediately
+        idle.offerFirst(openConnection());
+
+        evictor = Executors.newSingleThreadScheduledExecutor();
+        evictor.scheduleWithFixedDelay(this::evictIdle, maxIdle, maxIdle / 2 + 1, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void disconnect() throws SQLException {
+        closed = true;
+
+        if(evictor != null) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+
+        // Connections in use are closed when released
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null)
+            discard(connection);
+
+        Logger.log(Logger.LogLevel.Normal, getStatistics());
+    }
+
+    @Override
+    public @Nullable <T> List<T> submit(final String queryString, Class<T> type) throws SQLException {
+        final PooledConnection connection = acquire();
+        boolean broken = false;
+
+        // Create new query statement to interrogate the database
+        try(Statement request = connection.getConnection().createStatement()) {
+
+            // Interrogate database and get result set
+            final ResultSet result = request.executeQuery(queryString);
+
+            // Check if return data is required
+            if(type == null)
+                return null;
+
+            // Read data and return in requested type objects
+            return DBHelper.getResultList(result, type);
+
+        } catch (SQLException se) {
+            Logger.log(Logger.LogLevel.Warning, "Error while performing following query: \"" + queryString + "\".\n" + se.getMessage());
+
+            broken = !connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+
+            return null;
+        } finally {
+            release(connection, broken);
+        }
+    }
+
+    @Override
+    public void submit(final String queryString) throws SQLException {
+        submit(queryString, null);
+    }
+
+    @Override
+    public @Nullable <T> List<T> call(final String storedProcedureName, Object[] inputParams, Class<T> objectType, Object[] outputParams) throws SQLException {
+        final int totalParams = (inputParams != null ? inputParams.length : 0) + (outputParams != null ? outputParams.length : 0);
+
+        final PooledConnection connection = acquire();
+        boolean broken = false;
+
+        try {
+            // Get cached procedure call for this connection
+            final CallableStatement procedure = connection.prepareCall(storedProcedureName, totalParams);
+
+            return DBHelper.executeCall(procedure, inputParams, objectType, outputParams);
+
+        } catch (SQLException se) {
+
+            // Don't reuse a statement which failed and drop the connection if it is gone
+            connection.discardCall(storedProcedureName, totalParams);
+            broken = !connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+
+            throw se;
+        } finally {
+            release(connection, broken);
+        }
+    }
+
+    @Override
+    public @Nullable <T> List<T> call(final String storedProcedureName, Object[] inputParams, Class<T> objectType) throws SQLException {
+        return call(storedProcedureName, inputParams, objectType, null);
+    }
+
+    @Override
+    public @Nullable <T> List<T> call(final String storedProcedureName, Class<T> objectType, Object[] outputParams) throws SQLException {
+        return call(storedProcedureName, null, objectType, outputParams);
+    }
+
+    @Override
+    public @Nullable <T> List<T> call(final String storedProcedureName, Class<T> objectType) throws SQLException {
+        return call(storedProcedureName, null, objectType, null);
+    }
+
+    @Override
+    public void call(final String storedProcedureName, Object[] inputParams, Object[] outputParams) throws SQLException {
+        call(storedProcedureName, inputParams, null, outputParams);
+    }
+
+    @Override
+    public void call(final String storedProcedureName, Object[] params, boolean inputOnly) throws SQLException {
+        if(inputOnly)
+            call(storedProcedureName, params, null, null);
+        else
+            call(storedProcedureName, null, null, params);
+    }
+
+    @Override
+    public void callBatch(final String storedProcedureName, List<Object[]> inputParamsList) throws SQLException {
+
+        if(inputParamsList == null || inputParamsList.isEmpty())
+            return;
+
+        final int totalParams = inputParamsList.get(0).length;
+
+        final PooledConnection connection = acquire();
+        boolean broken = false;
+
+        try {
+            DBHelper.executeBatch(connection.prepareCall(storedProcedureName, totalParams), inputParamsList);
+
+        } catch (SQLException se) {
+
+            connection.discardCall(storedProcedureName, totalParams);
+            broken = !connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+
+            throw se;
+        } finally {
+            release(connection, broken);
+        }
+    }
+
+    /**
+     * Time spent by callers waiting for a free connection
+     *
+     * @return Wait time histogram
+     */
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    public int getOpenConnections() {
+        return openConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public long getAcquireTimeouts() {
+        return acquireTimeouts.get();
+    }
+
+    public long getEvictedConnections() {
+        return evictedConnections.get();
+    }
+
+    /**
+     * Summary of pool usage
+     *
+     * @return Readable pool statistics
+     */
+    public String getStatistics() {
+        return "Database pool: open=" + getOpenConnections() + "/" + poolSize
+                + " idle=" + getIdleConnections()
+                + " timeouts=" + getAcquireTimeouts()
+                + " evicted=" + getEvictedConnections()
+                + "\n" + waitTime;
+    }
+
+    /**
+     * Wait for a free connection, validating idle ones before reuse
+     *
+     * @return Connection reserved for the caller
+     * @throws SQLException If the pool is closed, no connection gets free in time or a new connection can't be opened
+     */
+    private PooledConnection acquire() throws SQLException {
+        if(closed)
+            throw new SQLException("Database pool is closed.");
+
+        final long start = System.nanoTime();
+
+        try {
+            if(!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.incrementAndGet();
+                throw new SQLException("Timeout waiting for a free database connection.");
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a free database connection.");
+        }
+
+        waitTime.recordSince(start);
+
+        try {
+            PooledConnection connection;
+
+            while ((connection = idle.pollFirst()) != null) {
+
+                // Check connections unused for a while before handing them out
+                if(System.currentTimeMillis() - connection.getLastUsed() < VALIDATION_INTERVAL
+                        || connection.isValid(VALIDATION_TIMEOUT_SECONDS))
+                    return connection;
+
+                Logger.log(Logger.LogLevel.Warning, "Stale database connection removed from pool.");
+                evictedConnections.incrementAndGet();
+                discard(connection);
+            }
+
+            // No idle connection available: open a new one (permits keep the pool bounded)
+            return openConnection();
+
+        } catch (SQLException se) {
+            permits.release();
+            throw se;
+        }
+    }
+
+    /**
+     * Give back a connection to the pool
+     *
+     * @param connection Connection obtained from acquire
+     * @param broken True if the connection isn't usable anymore
+     */
+    private void release(PooledConnection connection, boolean broken) {
+        connection.touch();
+
+        if(broken || closed)
+            discard(connection);
+        else
+            idle.offerFirst(connection);
+
+        permits.release();
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        final PooledConnection connection = new PooledConnection(DriverManager.getConnection(connectionString));
+        openConnections.incrementAndGet();
+
+        return connection;
+    }
+
+    private void discard(PooledConnection connection) {
+        openConnections.decrementAndGet();
+        connection.close();
+    }
+
+    /**
+     * Close idle connections unused for longer than maximum idle time
+     */
+    private void evictIdle() {
+        final long now = System.currentTimeMillis();
+
+        // Least recently used connections are at the end of the deque
+        idle.descendingIterator().forEachRemaining(connection -> {
+            if(now - connection.getLastUsed() > maxIdle && idle.remove(connection)) {
+                evictedConnections.incrementAndGet();
+                discard(connection);
+            }
+        });
+    }
+}
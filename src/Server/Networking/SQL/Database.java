@@ -116,4 +116,14 @@ public interface Database {
      * @throws SQLException If any problem occurs during the call
      */
     void call(final String storedProcedureName, Object[] params, boolean inputOnly) throws SQLException;
+
+    /**
+     * Call specified stored procedure once for each set of input parameters, sending all calls in a single batch.
+     * Procedure must not return any result set.
+     *
+     * @param storedProcedureName Stored procedure name
+     * @param inputParamsList List of input parameters arrays, all of the same length
+     * @throws SQLException If any problem occurs during the batch execution
+     */
+    void callBatch(final String storedProcedureName, List<Object[]> inputParamsList) throws SQLException;
 }
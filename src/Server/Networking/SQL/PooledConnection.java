@@ -0,0 +1,113 @@
+package Server.Networking.SQL;
+
+import Logging.Logger;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Database connection owned by a DBPool, with its cache of prepared procedure calls.
+ * A pooled connection is used by one thread at a time, so the cache needs no synchronization.
+ */
+class PooledConnection {
+
+    private final Connection connection;
+
+    // Prepared procedure calls by procedure name and parameters number
+    private final Map<String, CallableStatement> statements = new HashMap<>();
+
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    PooledConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    void touch() {
+        lastUsed = System.currentTimeMillis();
+    }
+
+    /**
+     * Get prepared call for given procedure, preparing it only the first time it is requested on this connection
+     *
+     * @param storedProcedureName Stored procedure name
+     * @param totalParams Total number of input and output parameters
+     * @return Procedure call ready to be used
+     * @throws SQLException If the call can't be prepared
+     */
+    CallableStatement prepareCall(String storedProcedureName, int totalParams) throws SQLException {
+        final String key = storedProcedureName + "/" + totalParams;
+
+        CallableStatement procedure = statements.get(key);
+
+        if(procedure == null || procedure.isClosed()) {
+            procedure = connection.prepareCall(DBHelper.getCallString(storedProcedureName, totalParams));
+            statements.put(key, procedure);
+        }
+        else
+            procedure.clearParameters();
+
+        return procedure;
+    }
+
+    /**
+     * Remove given procedure call from the cache after a failure
+     *
+     * @param storedProcedureName Stored procedure name
+     * @param totalParams Total number of input and output parameters
+     */
+    void discardCall(String storedProcedureName, int totalParams) {
+        final CallableStatement procedure = statements.remove(storedProcedureName + "/" + totalParams);
+
+        if(procedure != null)
+            try {
+                procedure.close();
+            } catch (SQLException se) {
+
+            }
+    }
+
+    /**
+     * Check if the connection is still usable
+     *
+     * @param timeoutSeconds Maximum time to wait for the database answer
+     * @return True if the database answered to the validation request
+     */
+    boolean isValid(int timeoutSeconds) {
+        try {
+            return !connection.isClosed() && connection.isValid(timeoutSeconds);
+        } catch (SQLException se) {
+            return false;
+        }
+    }
+
+    /**
+     * Close all cached procedure calls and the connection
+     */
+    void close() {
+        statements.values().forEach(procedure -> {
+            try {
+                procedure.close();
+            } catch (SQLException se) {
+
+            }
+        });
+
+        statements.clear();
+
+        try {
+            connection.close();
+        } catch (SQLException se) {
+            Logger.log(Logger.LogLevel.Warning, "Can't close database connection properly.\n" + se.getMessage());
+        }
+    }
+}
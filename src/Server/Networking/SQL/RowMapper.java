@@ -0,0 +1,184 @@
+package Server.Networking.SQL;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binding between the columns of a result set and the fields of a class, built once for each
+ * class and column layout. Fields are set through method handles and primitive columns are read
+ * with typed getters, so no boxing or reflective lookup happens while reading rows.
+ */
+class RowMapper<T> {
+
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    // Mappers by class name and column names
+    private static final Map<String, RowMapper<?>> mappers = new ConcurrentHashMap<>();
+
+    private final Class<T> objectType;
+
+    // Parameterless constructor with type ()Object
+    private final MethodHandle constructor;
+
+    private final ColumnBinding[] bindings;
+
+    /**
+     * Get mapper for given class and result set columns, building it the first time
+     *
+     * @param rsMeta Metadata of the result set to bind to the class
+     * @param objectType Class type to bind
+     * @param <T> Object type
+     * @return Mapper for given type and columns
+     * @throws SQLException If there are problems reading metadata or the class can't be bound
+     */
+    @SuppressWarnings("unchecked")
+    static <T> RowMapper<T> get(ResultSetMetaData rsMeta, Class<T> objectType) throws SQLException {
+        final String[] columns = new String[rsMeta.getColumnCount()];
+
+        for (int i = 0; i < columns.length; i++)
+            columns[i] = rsMeta.getColumnName(i + 1);
+
+        final String key = objectType.getName() + ":" + String.join(",", columns);
+
+        RowMapper<?> mapper = mappers.get(key);
+
+        if(mapper == null) {
+            mapper = new RowMapper<>(objectType, columns);
+            mappers.putIfAbsent(key, mapper);
+        }
+
+        return (RowMapper<T>) mapper;
+    }
+
+    /**
+     * Build bindings for given class and column names
+     *
+     * @param objectType Class type to bind
+     * @param columns Column names in result set order
+     * @throws SQLException If the class has no parameterless constructor or a field can't be accessed
+     */
+    private RowMapper(Class<T> objectType, String[] columns) throws SQLException {
+        this.objectType = objectType;
+
+        try {
+            // Get parameterless constructor of given type
+            final Constructor<T> constructorT = objectType.getDeclaredConstructor();
+            constructorT.setAccessible(true);
+            constructor = lookup.unreflectConstructor(constructorT).asType(MethodType.methodType(Object.class));
+
+            bindings = new ColumnBinding[columns.length];
+
+            // Bind each column to the field with the same name, if any
+            for (int i = 0; i < columns.length; i++) {
+                try {
+                    final Field field = objectType.getDeclaredField(columns[i]);
+                    field.setAccessible(true);
+                    bindings[i] = new ColumnBinding(i + 1, field);
+                } catch (NoSuchFieldException nse) {
+                    bindings[i] = null;
+                }
+            }
+
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new SQLException("Can't bind result set to " + objectType.getName() + ".\n" + ex.getMessage());
+        }
+    }
+
+    /**
+     * Create a new object from current row of given result set
+     *
+     * @param resultSet Result set positioned on a row
+     * @return New object initialized with row values
+     * @throws SQLException If there are problems reading from the result set or creating the object
+     */
+    T map(ResultSet resultSet) throws SQLException {
+        try {
+            final Object current = constructor.invokeExact();
+
+            for (ColumnBinding binding : bindings)
+                if(binding != null)
+                    binding.read(resultSet, current);
+
+            return objectType.cast(current);
+
+        } catch (SQLException se) {
+            throw se;
+        } catch (Throwable t) {
+            throw new SQLException("Error during instantiation of " + objectType.getName() + ".\n" + t.getMessage());
+        }
+    }
+
+    /**
+     * Binding between a column and a field, reading the column with the getter matching the field type
+     */
+    private static class ColumnBinding {
+
+        private final int column;
+
+        private final Class<?> type;
+
+        // Setter with type (Object, fieldType)void
+        private final MethodHandle setter;
+
+        ColumnBinding(int column, Field field) throws IllegalAccessException {
+            this.column = column;
+            type = field.getType();
+
+            MethodHandle fieldSetter;
+
+            try {
+                fieldSetter = lookup.unreflectSetter(field);
+            } catch (IllegalAccessException iae) {
+
+                // Final fields can't have a direct setter on older runtimes: fall back to reflective set
+                try {
+                    fieldSetter = lookup.findVirtual(Field.class, "set", MethodType.methodType(void.class, Object.class, Object.class))
+                            .bindTo(field)
+                            .asType(MethodType.methodType(void.class, Object.class, type));
+                } catch (NoSuchMethodException nsme) {
+                    throw iae;
+                }
+            }
+
+            setter = fieldSetter.asType(MethodType.methodType(void.class, Object.class, type));
+        }
+
+        /**
+         * Read column value from current row and set it on given object
+         *
+         * @param resultSet Result set positioned on a row
+         * @param target Object to set the field on
+         * @throws Throwable If reading the column or setting the field fails
+         */
+        void read(ResultSet resultSet, Object target) throws Throwable {
+
+            // Null values leave primitive fields to their default
+            if(type == int.class)
+                setter.invokeExact(target, resultSet.getInt(column));
+            else if(type == long.class)
+                setter.invokeExact(target, resultSet.getLong(column));
+            else if(type == boolean.class)
+                setter.invokeExact(target, resultSet.getBoolean(column));
+            else if(type == double.class)
+                setter.invokeExact(target, resultSet.getDouble(column));
+            else if(type == float.class)
+                setter.invokeExact(target, resultSet.getFloat(column));
+            else if(type == short.class)
+                setter.invokeExact(target, resultSet.getShort(column));
+            else if(type == byte.class)
+                setter.invokeExact(target, resultSet.getByte(column));
+            else if(type == String.class)
+                setter.invokeExact(target, resultSet.getString(column));
+            else
+                setter.invoke(target, resultSet.getObject(column, type));
+        }
+    }
+}
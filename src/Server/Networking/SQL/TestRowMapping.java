@@ -0,0 +1,186 @@
+package Server.Networking.SQL;
+
+import Model.User.User;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This main is used for testing purpose only: it compares result set mapping through cached row mappers
+ * with the reflective mapping they replaced, reading user rows from an in-memory result set.
+ * <p>
+ * Run with "Reflective|RowMapper rows..." (a separate process for each mapping keeps results independent).
+ * Both mappings read the same result set, so its proxy dispatch adds the same cost to both.
+ */
+public class TestRowMapping {
+
+    private static final String[] COLUMNS = { "Username", "Avatar", "PasswordHash", "WinCount", "LostCount", "GameTime", "Rating", "RatingDeviation" };
+
+    private static final long WARMUP = TimeUnit.SECONDS.toNanos(2);
+
+    private static final int ROUNDS = 5;
+
+    // Mapped rows per round, whatever the rows per query
+    private static final int ROWS_PER_ROUND = 2000000;
+
+    private static long sink = 0;
+
+    public static void main(String[] args) throws Exception {
+
+        if(args.length < 2 || !(args[0].equals("Reflective") || args[0].equals("RowMapper"))) {
+            System.out.println("Usage: Reflective|RowMapper rows...");
+            return;
+        }
+
+        final boolean rowMapper = args[0].equals("RowMapper");
+
+        System.out.println("mapping     rows  round  ns/query  B/query");
+
+        for (int i = 1; i < args.length; i++)
+            run(args[0], rowMapper, Integer.parseInt(args[i]));
+
+        System.out.println(sink);
+    }
+
+    /**
+     * Warm up, then time queries returning given number of rows for a few rounds
+     *
+     * @param name Mapping name
+     * @param rowMapper True to map with cached row mappers, false with reflection
+     * @param rows Rows per query
+     */
+    private static void run(String name, boolean rowMapper, int rows) throws Exception {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        final ResultSet resultSet = fakeResultSet(rows);
+        final int queries = Math.max(1, ROWS_PER_ROUND / rows / (rows == 1 ? 1 : 4));
+
+        final long warmupEnd = System.nanoTime() + WARMUP;
+
+        while (System.nanoTime() < warmupEnd)
+            sink += query(resultSet, rowMapper);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            final long allocated = threads.getThreadAllocatedBytes(thread);
+            final long start = System.nanoTime();
+
+            for (int i = 0; i < queries; i++)
+                sink += query(resultSet, rowMapper);
+
+            final long time = System.nanoTime() - start;
+
+            System.out.printf("%-10s %5d  %5d  %8.0f  %7d%n", name, rows, round, (double) time / queries,
+                    (threads.getThreadAllocatedBytes(thread) - allocated) / queries);
+        }
+    }
+
+    /**
+     * Map all rows of given result set, from the first one
+     *
+     * @param resultSet Result set to read
+     * @param rowMapper True to map with cached row mappers, false with reflection
+     * @return Number of mapped users
+     */
+    private static int query(ResultSet resultSet, boolean rowMapper) throws Exception {
+        resultSet.beforeFirst();
+
+        return (rowMapper ? DBHelper.getResultList(resultSet, User.class) : reflective(resultSet, User.class)).size();
+    }
+
+    /**
+     * Mapping used by DBHelper before row mappers: fields are looked up on every query and set with
+     * boxed values
+     *
+     * @param resultSet Result set to read
+     * @param objectType Class type to bind
+     * @param <T> Object type
+     * @return Mapped objects
+     */
+    private static <T> List<T> reflective(ResultSet resultSet, Class<T> objectType) throws Exception {
+        final ResultSetMetaData rsMeta = resultSet.getMetaData();
+        final Field[] fields = new Field[rsMeta.getColumnCount()];
+
+        for (int i = 0; i < fields.length; i++) {
+            try {
+                fields[i] = objectType.getDeclaredField(rsMeta.getColumnName(i + 1));
+                fields[i].setAccessible(true);
+            } catch (NoSuchFieldException nse) {
+                fields[i] = null;
+            }
+        }
+
+        final ArrayList<T> resultList = new ArrayList<>();
+
+        final Constructor<T> constructorT = objectType.getDeclaredConstructor();
+        constructorT.setAccessible(true);
+
+        while (resultSet.next()) {
+            final T current = constructorT.newInstance();
+
+            for (int i = 0; i < fields.length; i++)
+                if(fields[i] != null)
+                    fields[i].set(current, resultSet.getObject(i + 1, fields[i].getType()));
+
+            resultList.add(current);
+        }
+
+        return resultList;
+    }
+
+    /**
+     * Create a read-only result set with given number of user rows
+     *
+     * @param rows Number of rows
+     * @return Result set positioned before first row
+     */
+    private static ResultSet fakeResultSet(int rows) {
+        final Object[][] values = new Object[rows][];
+
+        for (int i = 0; i < rows; i++)
+            values[i] = new Object[] { "User" + i, "avatar.jpg", "hash", i, i + 1, 100 * i, 1500.0 + i, 350.0 };
+
+        final int[] current = { -1 };
+
+        final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+                new Class[] { ResultSetMetaData.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return COLUMNS.length;
+                        case "getColumnName":
+                        case "getColumnLabel":
+                            return COLUMNS[(int) args[0] - 1];
+                    }
+
+                    throw new SQLException("Unsupported " + method.getName());
+                });
+
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class[] { ResultSet.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMetaData":
+                            return metaData;
+                        case "beforeFirst":
+                            current[0] = -1;
+                            return null;
+                        case "next":
+                            return ++current[0] < rows;
+                        case "getInt":
+                        case "getDouble":
+                        case "getString":
+                        case "getObject":
+                            return values[current[0]][(int) args[0] - 1];
+                    }
+
+                    throw new SQLException("Unsupported " + method.getName());
+                });
+    }
+}
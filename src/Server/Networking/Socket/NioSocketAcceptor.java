@@ -0,0 +1,161 @@
+package Server.Networking.Socket;
+
+import Logging.Logger;
+import Server.Networking.LinkAcceptor;
+import Server.Networking.LinkHandler;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Socket acceptor serving all connections with a small fixed pool of selector threads
+ * instead of two threads per connected client.
+ */
+public class NioSocketAcceptor implements LinkAcceptor {
+
+    private final int port;
+
+    private final LinkHandler handler;
+
+    private final int reactorsNumber;
+
+    private final int handlersNumber;
+
+    private final List<SocketReactor> reactors = new ArrayList<>();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private volatile ExecutorService reactorPool;
+
+    private volatile ExecutorService handlerPool;
+
+    private volatile ServerSocketChannel listener;
+
+    private volatile boolean listen = false;
+
+    private int nextReactor = 0;
+
+    /**
+     * Initialize new non-blocking socket acceptor on given port
+     *
+     * @param linkHandler Link handler for new connections
+     * @param port Port number for socket listening (0-65535)
+     * @param reactors Number of selector threads
+     * @param handlers Number of threads to run message callbacks on
+     * @throws IllegalArgumentException If the port number isn't in range or threads number isn't positive
+     */
+    public NioSocketAcceptor(LinkHandler linkHandler, int port, int reactors, int handlers) throws IllegalArgumentException {
+
+        // Check port number
+        if(port < 0 || port > 65535)
+            throw new IllegalArgumentException("Port must be in range 0-65535.");
+
+        if(reactors < 1 || handlers < 1)
+            throw new IllegalArgumentException("Reactor and handler threads must be at least one.");
+
+        this.port = port;
+        handler = linkHandler;
+        reactorsNumber = reactors;
+        handlersNumber = handlers;
+    }
+
+    /**
+     * Initialize new non-blocking socket acceptor with a reactor for each available processor
+     *
+     * @param linkHandler Link handler for new connections
+     * @param port Port number for socket listening (0-65535)
+     * @throws IllegalArgumentException If the port number isn't in range
+     */
+    public NioSocketAcceptor(LinkHandler linkHandler, int port) throws IllegalArgumentException {
+        this(linkHandler, port,
+                Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    @Override
+    public void listen() {
+        Logger.log(Logger.LogLevel.Normal, "Socket acceptor start request.");
+
+        try {
+            listener = ServerSocketChannel.open();
+            listener.bind(new InetSocketAddress(port));
+
+            for (int i = 0; i < reactorsNumber; i++)
+                reactors.add(new SocketReactor());
+
+        } catch (IOException ioe) {
+            Logger.log(Logger.LogLevel.Error, "Can't start socket server.\n" + ioe.getMessage());
+            return;
+        }
+
+        listen = true;
+
+        handlerPool = Executors.newFixedThreadPool(handlersNumber);
+        reactorPool = Executors.newFixedThreadPool(reactorsNumber);
+        reactors.forEach(reactorPool::execute);
+
+        executor.execute(this::acceptor);
+    }
+
+    @Override
+    public void stop() {
+        Logger.log(Logger.LogLevel.Normal, "Socket acceptor shutdown.");
+
+        listen = false;
+
+        if(listener != null)
+            try {
+                listener.close();
+            } catch (IOException ioe) {
+
+            }
+
+        // Reactors close all their links before exiting
+        reactors.forEach(SocketReactor::stop);
+        reactors.clear();
+
+        if(reactorPool != null)
+            reactorPool.shutdown();
+
+        if(handlerPool != null)
+            handlerPool.shutdownNow();
+
+        executor.shutdownNow();
+    }
+
+    /**
+     * Accept new connections and assign them to reactors in round robin
+     */
+    private void acceptor() {
+        Logger.log(Logger.LogLevel.Normal, "Socket acceptor started.");
+        while (true) {
+
+            try {
+                final SocketChannel newClient = listener.accept();
+                newClient.configureBlocking(false);
+
+                final SocketReactor reactor = reactors.get(nextReactor);
+                nextReactor = (nextReactor + 1) % reactors.size();
+
+                final NioSocketComm newLink = new NioSocketComm(newClient, reactor, handlerPool);
+
+                // Register on the reactor only after the handler has set its callback
+                handler.addClientComm(newLink);
+                reactor.register(newLink);
+
+            } catch (Exception e) {
+
+                if(!listen)
+                    return;
+
+                Logger.log(Logger.LogLevel.Warning, "Generic error in socket handler.\n" + e.getMessage());
+            }
+
+        }
+    }
+}
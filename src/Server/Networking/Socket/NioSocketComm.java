@@ -0,0 +1,413 @@
+package Server.Networking.Socket;
+
+import Action.BaseAction;
+import Logging.Logger;
+import Networking.CommLink;
+import Networking.OutboundQueue;
+import Networking.Gson.CompactDecoder;
+import Networking.Gson.CompactEncoder;
+import Networking.Gson.EncodedMessage;
+import com.google.gson.JsonParseException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking socket link served by a SocketReactor.
+ * Messages are newline delimited json strings or compact frames, as for Networking.Socket.SocketComm,
+ * so both ends stay compatible.
+ */
+public class NioSocketComm implements CommLink {
+
+    private static final int MAX_LINE_LENGTH = 4 * 1024 * 1024;
+
+    // Maximum number of messages handled in a row before giving the handler thread back to the pool
+    private static final int HANDLER_BATCH = 64;
+
+    private final SocketChannel channel;
+
+    private final SocketReactor reactor;
+
+    private final Executor handlerPool;
+
+    // Maximum number of frames gathered in a single channel write
+    private static final int WRITE_BATCH = 64;
+
+    // Heartbeat frame, shared by all links
+    private static final ByteBuffer HEARTBEAT = ByteBuffer.wrap(new byte[] { '\n' }).asReadOnlyBuffer();
+
+    // Outgoing frames waiting to be written by the reactor
+    private final OutboundQueue<ByteBuffer> writeQueue = new OutboundQueue<>();
+
+    // Frames gathered for current write (accessed by reactor thread only)
+    private final ByteBuffer[] writeBatch = new ByteBuffer[WRITE_BATCH];
+
+    private final AtomicBoolean writeRequested = new AtomicBoolean(false);
+
+    // Received messages waiting to be handled
+    private final Queue<String> inbox = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean handlerScheduled = new AtomicBoolean(false);
+
+    // Bytes of the line currently being received (accessed by reactor thread only)
+    private byte[] lineBuffer = new byte[1024];
+
+    private int lineLength = 0;
+
+    private volatile SelectionKey key;
+
+    // Message handling callback for every message received
+    private volatile BiConsumer<CommLink, String> onMessage;
+
+    private volatile boolean open = true;
+
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    // Callback for link close, called once
+    private volatile Consumer<CommLink> onClose;
+
+    // Time last bytes have been read, as returned by System.nanoTime()
+    private volatile long lastReceived = System.nanoTime();
+
+    // Set once the first heartbeat, an empty line, has been read
+    private volatile boolean heartbeating = false;
+
+    // Encoder for outgoing messages, null while sending json
+    private volatile CompactEncoder compactEncoder = null;
+
+    // Decoder for incoming compact frames (accessed by one handler at a time)
+    private final CompactDecoder compactDecoder = new CompactDecoder();
+
+    /**
+     * Initialize a new link on given channel (the reactor starts serving it after registration)
+     *
+     * @param channel Connected socket channel (non-blocking)
+     * @param reactor Reactor to serve this link
+     * @param handlerPool Executor to run message callbacks on
+     */
+    NioSocketComm(SocketChannel channel, SocketReactor reactor, Executor handlerPool) {
+        this.channel = channel;
+        this.reactor = reactor;
+        this.handlerPool = handlerPool;
+    }
+
+    @Override
+    public void setOnMessage(BiConsumer<CommLink, String> onMessageCallback) {
+        onMessage = onMessageCallback;
+    }
+
+    @Override
+    public void sendMessage(final BaseAction message) {
+        if(message == null)
+            return;
+
+        sendEncoded(new EncodedMessage(message));
+    }
+
+    @Override
+    public void sendEncoded(EncodedMessage message) {
+        if(!open)
+            return;
+
+        final CompactEncoder encoder = compactEncoder;
+        final OutboundQueue.Result result;
+
+        if(encoder == null)
+            result = writeQueue.offer(message.getJsonLine(), message.isDroppable());
+        else
+            // Compact frames must be queued in the same order they are encoded, and never encoded if dropped
+            synchronized (encoder) {
+
+                // Encoder is released by shutdown once the link isn't open anymore
+                if(!open)
+                    return;
+
+                result = writeQueue.offer(() -> ByteBuffer.wrap((encoder.encode(message) + "\n").getBytes(StandardCharsets.UTF_8)),
+                        message.isDroppable());
+            }
+
+        if(result == OutboundQueue.Result.Overflow) {
+            Logger.log(Logger.LogLevel.Warning, "Outgoing queue full, closing slow socket link.");
+            shutdown();
+            return;
+        }
+
+        requestWrite();
+    }
+
+    @Override
+    public void sendHeartbeat() {
+
+        // An empty line is skipped by the reader on the other end, a congested link can drop it
+        if(open && writeQueue.offer(HEARTBEAT.duplicate(), true) == OutboundQueue.Result.Queued)
+            requestWrite();
+    }
+
+    @Override
+    public long getLastReceived() {
+        return lastReceived;
+    }
+
+    @Override
+    public boolean isHeartbeating() {
+        return heartbeating;
+    }
+
+    @Override
+    public void setOnClose(Consumer<CommLink> onCloseCallback) {
+        onClose = onCloseCallback;
+    }
+
+    /**
+     * Wake up reactor only if a write isn't already pending
+     */
+    private void requestWrite() {
+        if(writeRequested.compareAndSet(false, true))
+            reactor.requestWrite(this);
+    }
+
+    @Override
+    public void setCompactEncoding() {
+        if(compactEncoder == null)
+            compactEncoder = new CompactEncoder();
+    }
+
+    @Override
+    public void shutdown() {
+
+        // Close only once, whoever asks first
+        if(!closed.compareAndSet(false, true))
+            return;
+
+        open = false;
+
+        // Closing the channel cancels its key on the reactor too
+        try {
+            channel.close();
+        } catch (IOException ioe) {
+            Logger.log(Logger.LogLevel.Warning, "Can't close socket channel properly.\n" + ioe.getMessage());
+        }
+
+        writeQueue.clear();
+        inbox.clear();
+
+        // Release native compression memory: frames are encoded only while the link is open
+        final CompactEncoder encoder = compactEncoder;
+
+        if(encoder != null)
+            encoder.close();
+
+        compactDecoder.close();
+
+        final Consumer<CommLink> callback = onClose;
+
+        if(callback != null)
+            callback.accept(this);
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Set selection key after registration on the reactor selector
+     *
+     * @param key Selection key of this link
+     */
+    void setKey(SelectionKey key) {
+        this.key = key;
+
+        // Messages could have been sent before the registration was completed
+        if(!writeQueue.isEmpty())
+            enableWrite();
+    }
+
+    /**
+     * Add write interest to the selection key (called on reactor thread)
+     */
+    void enableWrite() {
+        final SelectionKey currentKey = key;
+
+        if(currentKey != null && currentKey.isValid())
+            currentKey.interestOps(currentKey.interestOps() | SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * Read available bytes from the channel and dispatch every complete line (called on reactor thread)
+     *
+     * @param buffer Reactor read buffer
+     */
+    void onReadable(ByteBuffer buffer) {
+        buffer.clear();
+
+        final int read;
+
+        try {
+            read = channel.read(buffer);
+        } catch (IOException ioe) {
+            Logger.log(Logger.LogLevel.Warning, "Error reading from socket channel.\n" + ioe.getMessage());
+            shutdown();
+            return;
+        }
+
+        // End of stream: peer closed the connection
+        if(read < 0) {
+            shutdown();
+            return;
+        }
+
+        lastReceived = System.nanoTime();
+
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            final byte current = buffer.get();
+
+            if(current == '\n') {
+                dispatchLine();
+                continue;
+            }
+
+            if(lineLength == lineBuffer.length) {
+
+                if(lineBuffer.length >= MAX_LINE_LENGTH) {
+                    Logger.log(Logger.LogLevel.Warning, "Message exceeds maximum length, closing socket link.");
+                    shutdown();
+                    return;
+                }
+
+                lineBuffer = Arrays.copyOf(lineBuffer, Math.min(lineBuffer.length * 2, MAX_LINE_LENGTH));
+            }
+
+            lineBuffer[lineLength++] = current;
+        }
+    }
+
+    /**
+     * Write as many pending frames as the channel accepts (called on reactor thread)
+     */
+    void onWritable() {
+        writeRequested.set(false);
+
+        try {
+            int count;
+
+            // Gather queued frames in a single write
+            while ((count = writeQueue.peek(writeBatch)) > 0) {
+                channel.write(writeBatch, 0, count);
+
+                // Remove frames written completely
+                for (int i = 0; i < count && !writeBatch[i].hasRemaining(); i++)
+                    writeQueue.poll();
+
+                final boolean isFull = writeBatch[count - 1].hasRemaining();
+
+                Arrays.fill(writeBatch, 0, count, null);
+
+                // Socket buffer is full, wait for next writable event
+                if(isFull)
+                    return;
+            }
+        } catch (IOException ioe) {
+            Logger.log(Logger.LogLevel.Warning, "Error writing on socket channel.\n" + ioe.getMessage());
+            shutdown();
+            return;
+        }
+
+        // Nothing left to write: remove write interest
+        if(key.isValid())
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+
+        // A message could have been queued after the drain
+        if(!writeQueue.isEmpty() && writeRequested.compareAndSet(false, true))
+            reactor.requestWrite(this);
+    }
+
+    /**
+     * Decode current line and pass it to the message handler
+     */
+    private void dispatchLine() {
+        int length = lineLength;
+        lineLength = 0;
+
+        // Accept \r\n terminated lines too
+        if(length > 0 && lineBuffer[length - 1] == '\r')
+            length--;
+
+        if(length == 0) {
+            heartbeating = true;
+            return;
+        }
+
+        if(onMessage == null)
+            return;
+
+        inbox.add(new String(lineBuffer, 0, length, StandardCharsets.UTF_8));
+
+        if(handlerScheduled.compareAndSet(false, true))
+            handlerPool.execute(this::handleMessages);
+    }
+
+    /**
+     * Expand received message if it is a compact frame
+     *
+     * @param message Message received on the channel
+     * @return Json message, or null if the frame is malformed
+     */
+    private String decode(String message) {
+        try {
+            return compactDecoder.decode(message);
+        } catch (JsonParseException jpe) {
+            Logger.log(Logger.LogLevel.Warning, "Malformed compact frame dropped.\n" + jpe.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Handle received messages in order, only one handler per link runs at a time
+     */
+    private void handleMessages() {
+        int handled = 0;
+
+        while (true) {
+            final String message = inbox.poll();
+
+            if(message == null) {
+                handlerScheduled.set(false);
+
+                // Another message could have arrived before the flag was reset
+                if(inbox.isEmpty() || !handlerScheduled.compareAndSet(false, true))
+                    return;
+
+                continue;
+            }
+
+            try {
+                final BiConsumer<CommLink, String> callback = onMessage;
+
+                final String json = decode(message);
+
+                if(callback != null && open && json != null)
+                    callback.accept(this, json);
+
+            } catch (RuntimeException re) {
+                Logger.log(Logger.LogLevel.Error, "Unhandled exception in socket message handler.\n" + re.getMessage());
+            }
+
+            // Give the thread back to the pool to keep other links going
+            if(++handled == HANDLER_BATCH && !inbox.isEmpty()) {
+                handlerPool.execute(this::handleMessages);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package Server.Networking.Socket;
+
+import Logging.Logger;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Selector loop serving a subset of the socket links of a NioSocketAcceptor.
+ * All channel reads and writes for the registered links happen on the reactor thread only.
+ */
+class SocketReactor implements Runnable {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final Selector selector;
+
+    // Read buffer shared by all links of this reactor (links keep only the partial line)
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+
+    private final Queue<NioSocketComm> pendingRegistrations = new ConcurrentLinkedQueue<>();
+
+    private final Queue<NioSocketComm> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean running = true;
+
+    /**
+     * Open a new selector for this reactor
+     *
+     * @throws IOException If the selector can't be opened
+     */
+    SocketReactor() throws IOException {
+        selector = Selector.open();
+    }
+
+    /**
+     * Register given link on this reactor (the channel is registered by the reactor thread)
+     *
+     * @param link Link to serve
+     */
+    void register(NioSocketComm link) {
+        pendingRegistrations.add(link);
+        selector.wakeup();
+    }
+
+    /**
+     * Ask the reactor to write pending messages of given link
+     *
+     * @param link Link with pending outgoing messages
+     */
+    void requestWrite(NioSocketComm link) {
+        pendingWrites.add(link);
+        selector.wakeup();
+    }
+
+    /**
+     * Stop selector loop and close all links served by this reactor
+     */
+    void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+
+        while (running) {
+
+            try {
+                selector.select();
+
+                // Register new channels and update write interest for links with pending messages
+                processRegistrations();
+                processWriteRequests();
+
+                final Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+
+                while (selectedKeys.hasNext()) {
+                    final SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+
+                    final NioSocketComm link = (NioSocketComm) key.attachment();
+
+                    if(key.isValid() && key.isReadable())
+                        link.onReadable(readBuffer);
+
+                    if(key.isValid() && key.isWritable())
+                        link.onWritable();
+                }
+
+            } catch (IOException ioe) {
+                Logger.log(Logger.LogLevel.Warning, "Error in socket reactor loop.\n" + ioe.getMessage());
+            } catch (ClosedSelectorException cse) {
+                return;
+            }
+        }
+
+        // Close all links still open on this reactor
+        selector.keys().forEach(key -> ((NioSocketComm) key.attachment()).shutdown());
+
+        try {
+            selector.close();
+        } catch (IOException ioe) {
+            Logger.log(Logger.LogLevel.Warning, "Can't close socket reactor selector.\n" + ioe.getMessage());
+        }
+    }
+
+    /**
+     * Register on the selector all links added since last loop
+     */
+    private void processRegistrations() {
+        NioSocketComm link;
+
+        while ((link = pendingRegistrations.poll()) != null) {
+            final SocketChannel channel = link.getChannel();
+
+            try {
+                link.setKey(channel.register(selector, SelectionKey.OP_READ, link));
+            } catch (IOException ioe) {
+                Logger.log(Logger.LogLevel.Warning, "Can't register socket channel on reactor.\n" + ioe.getMessage());
+                link.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Enable write interest for all links with pending outgoing messages
+     */
+    private void processWriteRequests() {
+        NioSocketComm link;
+
+        while ((link = pendingWrites.poll()) != null)
+            link.enableWrite();
+    }
+}